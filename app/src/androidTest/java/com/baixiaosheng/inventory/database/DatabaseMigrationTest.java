@@ -0,0 +1,176 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.entity.ItemCounter;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 数据库迁移测试：从各历史版本升级到最新版本后，表结构与导出的Schema（app/schemas）一致，已有数据完整保留
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+    private static final int LATEST_VERSION = 10;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), InventoryDatabase.class);
+
+    @Test
+    public void migrateEachStep_matchesExportedSchema() throws Exception {
+        for (int version = 1; version < LATEST_VERSION; version++) {
+            helper.createDatabase(TEST_DB, version).close();
+            helper.runMigrationsAndValidate(TEST_DB, version + 1, true,
+                    DatabaseMigrations.ALL[version - 1]).close();
+        }
+    }
+
+    @Test
+    public void migrate1ToLatest_keepsDataAndFillsDerivedTables() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.execSQL("INSERT INTO category (id, parentCategoryId, categoryName, createTime, updateTime) VALUES (1, 0, '食品', 0, 0)");
+        db.execSQL("INSERT INTO category (id, parentCategoryId, categoryName, createTime, updateTime) VALUES (2, 1, '饮料', 0, 0)");
+        db.execSQL("INSERT INTO location (id, name, remark, createTime, updateTime) VALUES (1, '冰箱', '', 0, 0)");
+        insertV1Item(db, 1, "u1", "纯牛奶", 2, "/a.jpg,/b.jpg", "breakfast milk", 0);
+        // 与物品1重复的uuid，1 → 2建唯一索引前应重新生成
+        insertV1Item(db, 2, "u1", "牙刷", 0, null, "", 1);
+        insertV1Item(db, 3, "u3", "洗漱用品", 0, "", "", 0);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, DatabaseMigrations.ALL);
+        assertEquals("u1", queryString(db, "SELECT uuid FROM item WHERE id = 1"));
+        assertNotEquals("u1", queryString(db, "SELECT uuid FROM item WHERE id = 2"));
+        assertEquals(PinyinUtils.toPinyin("纯牛奶"), queryString(db, "SELECT namePinyin FROM item WHERE id = 1"));
+        assertEquals(PinyinUtils.toInitials("饮料"), queryString(db, "SELECT categoryNameInitials FROM category WHERE id = 2"));
+        // item_fts在9 → 10删除，表与同步触发器都不再存在
+        assertEquals(0, queryLong(db, "SELECT COUNT(*) FROM sqlite_master WHERE name LIKE '%item_fts%'"));
+        assertEquals(1, queryLong(db, "SELECT itemId FROM item_ngram WHERE gram = '牛奶'"));
+        assertEquals(2, queryLong(db, "SELECT COUNT(*) FROM item_image WHERE itemId = 1"));
+        assertEquals(0, queryLong(db, "SELECT COUNT(*) FROM item_image WHERE itemId != 1"));
+        db.close();
+
+        // 迁移后用应用的数据库类打开：Room按编译时的实体声明再校验一次
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        InventoryDatabase roomDb = Room.databaseBuilder(context, InventoryDatabase.class, TEST_DB)
+                .addMigrations(DatabaseMigrations.ALL)
+                .addCallback(InventoryDatabase.CREATE_TRIGGERS_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+        helper.closeWhenFinished(roomDb);
+        assertEquals(2, roomDb.itemCounterDao().getCount(ItemCounter.KIND_PARENT_CATEGORY, 1));
+        assertEquals(1, roomDb.itemCounterDao().getCount(ItemCounter.KIND_CHILD_CATEGORY, 2));
+        assertEquals(0, roomDb.itemCounterDao().countMismatchedCounters());
+        List<String> paths = new ArrayList<>();
+        for (ItemImage image : roomDb.itemImageDao().getImagesByItemId(1)) {
+            paths.add(image.getPath());
+        }
+        assertEquals(Arrays.asList("/a.jpg", "/b.jpg"), paths);
+    }
+
+    @Test
+    public void migrate7To8_splitsImagePathsIntoRows() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 7);
+        insertV7Item(db, 1, "/a.jpg,/b.jpg,/c.jpg");
+        // 空白及空项跳过，ordinal只按有效路径递增
+        insertV7Item(db, 2, " /d.jpg , ,/e.jpg,");
+        insertV7Item(db, 3, ",");
+        insertV7Item(db, 4, "");
+        insertV7Item(db, 5, null);
+        insertV7Item(db, 6, "/f.jpg");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 8, true, DatabaseMigrations.MIGRATION_7_8);
+        assertEquals(Arrays.asList("1:0:/a.jpg", "1:1:/b.jpg", "1:2:/c.jpg", "2:0:/d.jpg", "2:1:/e.jpg", "6:0:/f.jpg"),
+                imageRows(db));
+        // 迁移中不读取图片文件，元数据留给后台补全
+        assertEquals(6, queryLong(db, "SELECT COUNT(*) FROM item_image WHERE byteSize = " + ItemImage.BYTE_SIZE_UNKNOWN +
+                " AND width = 0 AND height = 0 AND orientation = 0 AND thumbPath IS NULL"));
+        assertEquals(6, queryLong(db, "SELECT COUNT(*) FROM item"));
+        db.close();
+    }
+
+    @Test
+    public void migrate8To9_countsSameParentAndChildOnce() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8);
+        insertV8Item(db, 1, 1, 1, 0);
+        insertV8Item(db, 2, 1, 2, 0);
+        insertV8Item(db, 3, 1, 1, 1);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 9, true, DatabaseMigrations.MIGRATION_8_9);
+        assertEquals(1, queryLong(db, "SELECT activeCount FROM item_counter WHERE kind = " +
+                ItemCounter.KIND_SELF_PAIR + " AND refId = 1"));
+        // 迁移后重建的触发器继续维护KIND_SELF_PAIR
+        db.execSQL("UPDATE item SET isDeleted = 0 WHERE id = 3");
+        assertEquals(2, queryLong(db, "SELECT activeCount FROM item_counter WHERE kind = " +
+                ItemCounter.KIND_SELF_PAIR + " AND refId = 1"));
+        db.close();
+    }
+
+    private static void insertV8Item(SupportSQLiteDatabase db, long id, long parentCategoryId, long childCategoryId,
+                                     int isDeleted) {
+        db.execSQL("INSERT INTO item (id, uuid, name, parentCategoryId, childCategoryId, locationId, validTime, count, " +
+                        "remark, createTime, updateTime, isDeleted) VALUES (?, ?, ?, ?, ?, 0, 0, 1, '', 0, 0, ?)",
+                new Object[]{id, "u" + id, "物品" + id, parentCategoryId, childCategoryId, isDeleted});
+    }
+
+    private static void insertV7Item(SupportSQLiteDatabase db, long id, String imagePaths) {
+        db.execSQL("INSERT INTO item (id, uuid, name, parentCategoryId, childCategoryId, locationId, validTime, count, " +
+                        "imagePaths, remark, createTime, updateTime, isDeleted) VALUES (?, ?, ?, 0, 0, 0, 0, 1, ?, '', 0, 0, 0)",
+                new Object[]{id, "u" + id, "物品" + id, imagePaths});
+    }
+
+    // item_image全部行，格式为 itemId:ordinal:path
+    private static List<String> imageRows(SupportSQLiteDatabase db) {
+        List<String> rows = new ArrayList<>();
+        try (Cursor cursor = db.query("SELECT itemId, ordinal, path FROM item_image ORDER BY itemId, ordinal")) {
+            while (cursor.moveToNext()) {
+                rows.add(cursor.getLong(0) + ":" + cursor.getInt(1) + ":" + cursor.getString(2));
+            }
+        }
+        return rows;
+    }
+
+    private static void insertV1Item(SupportSQLiteDatabase db, long id, String uuid, String name, long childCategoryId,
+                                     String imagePaths, String remark, int isDeleted) {
+        db.execSQL("INSERT INTO item (id, uuid, name, parentCategoryId, childCategoryId, locationId, validTime, count, " +
+                        "imagePaths, remark, createTime, updateTime, isDeleted) VALUES (?, ?, ?, 1, ?, 1, 0, 1, ?, ?, 0, 0, ?)",
+                new Object[]{id, uuid, name, childCategoryId, imagePaths, remark, isDeleted});
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(sql, cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+
+    private static String queryString(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(sql, cursor.moveToFirst());
+            return cursor.getString(0);
+        }
+    }
+}
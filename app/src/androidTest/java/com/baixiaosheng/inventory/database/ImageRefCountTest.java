@@ -0,0 +1,106 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.dao.ImageBlobDao;
+import com.baixiaosheng.inventory.database.dao.ItemDao;
+import com.baixiaosheng.inventory.database.entity.ImageBlob;
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemImageRef;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * image_blob引用计数触发器测试：引用增删、物品物理删除级联释放，以及垃圾回收的删除条件
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageRefCountTest {
+
+    private static final long ATTACH_TIME = 1000L;
+
+    private InventoryDatabase db;
+    private ItemDao itemDao;
+    private ImageBlobDao blobDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .addCallback(InventoryDatabase.CREATE_TRIGGERS_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+        itemDao = db.itemDao();
+        blobDao = db.imageBlobDao();
+
+        blobDao.insertBlob(new ImageBlob("a", "/store/a.jpg", 10, ATTACH_TIME));
+        blobDao.insertBlob(new ImageBlob("b", "/store/b.jpg", 20, ATTACH_TIME));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void sharedImage_countsEachItemOnce() {
+        long first = insert("牛奶", 0);
+        long second = insert("果汁", 0);
+        blobDao.insertRefs(Arrays.asList(new ItemImageRef(first, "a"), new ItemImageRef(first, "a"),
+                new ItemImageRef(second, "a"), new ItemImageRef(second, "b")));
+
+        assertEquals(2, blobDao.getBlob("a").getRefCount());
+        assertEquals(1, blobDao.getBlob("b").getRefCount());
+
+        blobDao.deleteRefsByItemId(second);
+        assertEquals(1, blobDao.getBlob("a").getRefCount());
+        assertEquals(0, blobDao.getBlob("b").getRefCount());
+    }
+
+    @Test
+    public void physicalDelete_releasesRefsButSoftDeleteKeepsThem() {
+        long itemId = insert("牛奶", 0);
+        blobDao.insertRefs(Collections.singletonList(new ItemImageRef(itemId, "a")));
+
+        Item item = itemDao.getItemById(itemId);
+        item.setIsDeleted(1);
+        itemDao.updateItem(item);
+        assertEquals(1, blobDao.getBlob("a").getRefCount());
+
+        itemDao.deleteItemById(itemId);
+        assertEquals(0, blobDao.getBlob("a").getRefCount());
+        assertEquals(2, blobDao.getUnreferencedBlobs(ATTACH_TIME + 1).size());
+    }
+
+    @Test
+    public void conditionalDelete_keepsReferencedAndRecentBlobs() {
+        long itemId = insert("牛奶", 0);
+        blobDao.insertRefs(Collections.singletonList(new ItemImageRef(itemId, "a")));
+
+        // 仍被引用
+        assertFalse(blobDao.deleteBlobIfUnreferenced("a", ATTACH_TIME + 1) > 0);
+        // 入库时间不早于保留期起点
+        assertFalse(blobDao.deleteBlobIfUnreferenced("b", ATTACH_TIME) > 0);
+        assertTrue(blobDao.deleteBlobIfUnreferenced("b", ATTACH_TIME + 1) > 0);
+        assertNull(blobDao.getHashByPath("/store/b.jpg"));
+    }
+
+    private long insert(String name, int isDeleted) {
+        Item item = new Item(name, 0, 0, 0, 0, 1, "", 0, 0, isDeleted);
+        return itemDao.insertItem(item)[0];
+    }
+}
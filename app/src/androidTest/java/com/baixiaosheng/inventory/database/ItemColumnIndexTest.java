@@ -0,0 +1,322 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.FacetCountRow;
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemNgram;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.database.entity.Location;
+import com.baixiaosheng.inventory.model.FacetCounts;
+import com.baixiaosheng.inventory.model.FilterCondition;
+import com.baixiaosheng.inventory.utils.NgramUtils;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
+import com.baixiaosheng.inventory.viewmodel.QueryViewModel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 内存列式索引正确性测试：任意条件组合下，索引结果与SQL查询结果完全一致（含顺序）
+ * 另在1万行数据上记录索引与分页SQL查询的耗时（只输出日志，不断言快慢）
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemColumnIndexTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long BASE_TIME = 1700000000000L;
+    private static final String[] NAMES = {"牛奶", "纯牛奶", "酸奶", "Milk Tea", "牛肉干", "洗漱用品", "牙刷", "电池"};
+    private static final String[] PARENTS = {"食品", "日用品"};
+    private static final String[] CHILDREN = {"饮料", "零食", "洗漱"};
+    private static final String[] LOCATIONS = {"冰箱", "柜子", "抽屉"};
+    private static final String TAG = "ItemColumnIndexTest";
+    // 耗时对比：每个条件预热后重复执行的次数（取中位数）
+    private static final int TIMED_RUNS = 7;
+
+    private InventoryDatabase db;
+    private long[] parentIds;
+    private long[] childIds;
+    private long[] locationIds;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+
+        parentIds = new long[PARENTS.length];
+        for (int i = 0; i < PARENTS.length; i++) {
+            parentIds[i] = db.categoryDao().insertCategory(new Category(0, PARENTS[i], 0, 0));
+        }
+        childIds = new long[CHILDREN.length];
+        for (int i = 0; i < CHILDREN.length; i++) {
+            childIds[i] = db.categoryDao().insertCategory(new Category(parentIds[i % PARENTS.length], CHILDREN[i], 0, 0));
+        }
+        locationIds = new long[LOCATIONS.length];
+        for (int i = 0; i < LOCATIONS.length; i++) {
+            locationIds[i] = db.locationDao().insertLocation(new Location(LOCATIONS[i], "", 0, 0));
+        }
+
+        seedItems(300, new Random(42));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    // 固定种子生成数据，包含未分类、未放置、同一有效期的多行及已删除物品
+    private void seedItems(int total, Random random) {
+        for (int i = 0; i < total; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + (i % 7 == 0 ? "" : i);
+            long parentId = random.nextInt(5) == 0 ? 0 : parentIds[random.nextInt(parentIds.length)];
+            long childId = random.nextInt(5) == 0 ? 0 : childIds[random.nextInt(childIds.length)];
+            long locationId = random.nextInt(5) == 0 ? 0 : locationIds[random.nextInt(locationIds.length)];
+            Item item = new Item(name, parentId, childId, locationId, BASE_TIME + random.nextInt(30) * DAY,
+                    random.nextInt(20), "", 0, 0, random.nextInt(10) == 0 ? 1 : 0);
+            item.setNamePinyin(PinyinUtils.toPinyin(name));
+            item.setNameInitials(PinyinUtils.toInitials(name));
+            item.setId(db.itemDao().insertItem(item)[0]);
+            List<ItemNgram> ngrams = new ArrayList<>();
+            for (String gram : NgramUtils.buildIndexGrams(name)) {
+                ngrams.add(new ItemNgram(gram, item.getId()));
+            }
+            if (!ngrams.isEmpty()) {
+                db.itemNgramDao().insertNgrams(ngrams);
+            }
+        }
+    }
+
+    @Test
+    public void indexResult_equalsSqlResult_forFilterCombinations() {
+        ItemColumnIndex index = buildIndex();
+        String[] keywords = {"", "牛", "牛奶", "milk", "nn", "xs", "1", "不存在"};
+        String[] parents = {"", PARENTS[0], "不存在"};
+        String[] children = {"", CHILDREN[0], CHILDREN[2]};
+        String[] locations = {"", LOCATIONS[0], LOCATIONS[2]};
+        Integer[][] quantities = {{null, null}, {5, null}, {null, 8}, {3, 12}};
+        Integer[][] expires = {{null, null}, {5, null}, {null, 20}, {10, 10}, {25, 3}};
+        int checked = 0;
+        for (String keyword : keywords) {
+            for (String parent : parents) {
+                for (String child : children) {
+                    for (String location : locations) {
+                        for (Integer[] quantity : quantities) {
+                            for (Integer[] expire : expires) {
+                                FilterCondition filter = new FilterCondition(keyword, parent, child, location,
+                                        quantity[0], quantity[1], toDate(expire[0]), toDate(expire[1]));
+                                assertEquals(ids(querySql(filter)), ids(index.query(filter)));
+                                checked++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(keywords.length * 27 * quantities.length * expires.length, checked);
+    }
+
+    @Test
+    public void facetCounts_matchResultSizeWhenOptionIsSelected() {
+        ItemColumnIndex index = buildIndex();
+        FilterCondition[] filters = {
+                new FilterCondition(),
+                new FilterCondition("牛", "", "", "", null, null, null, null),
+                new FilterCondition("", PARENTS[0], "", LOCATIONS[0], 3, null, null, null),
+                new FilterCondition("nn", "", CHILDREN[0], "", null, 12, toDate(5), toDate(25)),
+        };
+        for (FilterCondition filter : filters) {
+            FacetCounts fromIndex = index.countFacets(filter);
+            FacetCounts fromSql = queryFacetCounts(filter);
+            for (String parent : PARENTS) {
+                FilterCondition selected = filter.copy();
+                selected.setParentCategory(parent);
+                int expected = querySql(selected).size();
+                assertEquals(expected, fromIndex.getParentCategoryCount(parent));
+                assertEquals(expected, fromSql.getParentCategoryCount(parent));
+            }
+            for (String child : CHILDREN) {
+                FilterCondition selected = filter.copy();
+                selected.setChildCategory(child);
+                int expected = querySql(selected).size();
+                assertEquals(expected, fromIndex.getChildCategoryCount(child));
+                assertEquals(expected, fromSql.getChildCategoryCount(child));
+            }
+            for (String location : LOCATIONS) {
+                FilterCondition selected = filter.copy();
+                selected.setLocation(location);
+                int expected = querySql(selected).size();
+                assertEquals(expected, fromIndex.getLocationCount(location));
+                assertEquals(expected, fromSql.getLocationCount(location));
+            }
+        }
+    }
+
+    /**
+     * 1万行数据上对比索引查询与分页SQL（与DatabaseManager.queryItemsPageByFilter相同的键集分页查询，不经结果缓存）
+     * 读取同一完整结果集，各条件取中位数后求和并输出到日志；只校验结果一致，耗时受设备负载影响不做断言
+     */
+    @Test
+    public void indexQuery_matchesPagedSql_on10kRows() {
+        db.runInTransaction(() -> seedItems(10_000, new Random(7)));
+        ItemColumnIndex index = buildIndex();
+        List<FilterCondition> filters = Arrays.asList(
+                new FilterCondition(),
+                new FilterCondition("牛奶", "", "", "", null, null, null, null),
+                new FilterCondition("", PARENTS[0], CHILDREN[0], "", null, null, null, null),
+                new FilterCondition("", "", "", LOCATIONS[1], 5, 15, toDate(3), toDate(20)),
+                new FilterCondition("nn", PARENTS[0], "", LOCATIONS[0], null, 12, null, toDate(25)));
+
+        long sqlNanos = 0;
+        long indexNanos = 0;
+        for (FilterCondition filter : filters) {
+            assertEquals(ids(queryAllPages(filter)), ids(index.query(filter)));
+            long[] sqlRuns = new long[TIMED_RUNS];
+            long[] indexRuns = new long[TIMED_RUNS];
+            for (int run = 0; run < TIMED_RUNS; run++) {
+                long start = System.nanoTime();
+                queryAllPages(filter);
+                sqlRuns[run] = System.nanoTime() - start;
+                start = System.nanoTime();
+                index.query(filter);
+                indexRuns[run] = System.nanoTime() - start;
+            }
+            long sqlMedian = median(sqlRuns);
+            long indexMedian = median(indexRuns);
+            Log.i(TAG, "rows=" + index.size() + " sql=" + sqlMedian / 1000 + "us index=" + indexMedian / 1000 + "us");
+            sqlNanos += sqlMedian;
+            indexNanos += indexMedian;
+        }
+        Log.i(TAG, "total sql=" + sqlNanos / 1000 + "us index=" + indexNanos / 1000 + "us");
+    }
+
+    @Test
+    public void withItems_equalsRebuiltIndex() {
+        ItemColumnIndex index = buildIndex();
+        List<ItemWithName> active = db.itemDao().queryItemsWithNameSync(ItemQueryBuilder.buildActiveItemsWithNameQuery());
+        Item updated = active.get(0).item;
+        Item deleted = active.get(1).item;
+        Item restored = db.itemDao().getDeletedItems().get(0);
+
+        // 新增；修改有效期与位置（行移动到新位置）；删除；从回收站恢复
+        Item added = new Item("新牛奶", parentIds[0], childIds[0], locationIds[0], BASE_TIME + 15 * DAY, 3, "", 0, 0);
+        added.setNamePinyin(PinyinUtils.toPinyin(added.getName()));
+        added.setNameInitials(PinyinUtils.toInitials(added.getName()));
+        added.setId(db.itemDao().insertItem(added)[0]);
+        updated.setValidTime(BASE_TIME + 29 * DAY);
+        updated.setLocationId(locationIds[2]);
+        db.itemDao().updateItem(updated);
+        db.itemDao().markItemAsDeleted(deleted.getUuid(), 1);
+        restored.setIsDeleted(0);
+        db.itemDao().updateItem(restored);
+
+        List<Long> changedIds = Arrays.asList(added.getId(), updated.getId(), deleted.getId(), restored.getId());
+        ItemColumnIndex incremental = index.withItems(new HashSet<>(changedIds), db.itemDao().queryItemsWithNameSync(
+                ItemQueryBuilder.buildActiveItemsWithNameByIdsQuery(changedIds)));
+        ItemColumnIndex rebuilt = buildIndex();
+        assertEquals(rebuilt.size(), incremental.size());
+        FilterCondition[] filters = {
+                new FilterCondition(),
+                new FilterCondition("牛奶", "", "", "", null, null, null, null),
+                new FilterCondition("", "", "", LOCATIONS[2], null, null, toDate(20), null),
+                new FilterCondition("", PARENTS[0], CHILDREN[0], LOCATIONS[0], 1, 10, null, null),
+        };
+        for (FilterCondition filter : filters) {
+            assertEquals(ids(rebuilt.query(filter)), ids(incremental.query(filter)));
+            assertEquals(ids(querySql(filter)), ids(incremental.query(filter)));
+        }
+    }
+
+    @Test
+    public void duplicateLocationNames_matchSql() {
+        // 与LOCATIONS[0]同名的第二个位置：SQL按名称筛选时两者都命中，索引的同名位图须一致
+        long duplicateId = db.locationDao().insertLocation(new Location(LOCATIONS[0], "", 0, 0));
+        Item item = new Item("同名位置的物品", 0, 0, duplicateId, BASE_TIME, 1, "", 0, 0);
+        item.setId(db.itemDao().insertItem(item)[0]);
+        ItemColumnIndex index = buildIndex();
+
+        FilterCondition filter = new FilterCondition();
+        filter.setLocation(LOCATIONS[0]);
+        List<Long> expected = ids(querySql(filter));
+        assertTrue(expected.contains(item.getId()));
+        assertEquals(expected, ids(index.query(filter)));
+        assertEquals(expected.size(), index.countFacets(new FilterCondition()).getLocationCount(LOCATIONS[0]));
+    }
+
+    @Test
+    public void likeWildcardKeyword_fallsBackToSql() {
+        FilterCondition filter = new FilterCondition();
+        filter.setSearchKeyword("牛_");
+        assertNull(buildIndex().query(filter));
+    }
+
+    private ItemColumnIndex buildIndex() {
+        return new ItemColumnIndex(db.itemDao().queryItemsWithNameSync(
+                ItemQueryBuilder.buildActiveItemsWithNameQuery()));
+    }
+
+    private List<ItemWithName> querySql(FilterCondition filter) {
+        return db.itemDao().queryItemsWithNameSync(
+                ItemQueryBuilder.buildItemsWithNamePageQuery(filter, null, null, Integer.MAX_VALUE));
+    }
+
+    // 按页读取完整结果（每页条数与查询页默认值一致）
+    private List<ItemWithName> queryAllPages(FilterCondition filter) {
+        int pageSize = QueryViewModel.DEFAULT_PAGE_SIZE;
+        List<ItemWithName> all = new ArrayList<>();
+        List<ItemWithName> page;
+        do {
+            ItemWithName last = all.isEmpty() ? null : all.get(all.size() - 1);
+            page = db.itemDao().queryItemsWithNameSync(ItemQueryBuilder.buildItemsWithNamePageQuery(filter,
+                    last != null ? last.item.getValidTime() : null, last != null ? last.item.getId() : null, pageSize));
+            all.addAll(page);
+        } while (page.size() == pageSize);
+        return all;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private FacetCounts queryFacetCounts(FilterCondition filter) {
+        FacetCounts.Builder builder = new FacetCounts.Builder(filter);
+        for (FacetCountRow row : db.itemDao().queryFacetCountRows(ItemQueryBuilder.buildFacetCountQuery(filter))) {
+            builder.add(row.parentCategoryName, row.childCategoryName, row.locationName, row.itemCount);
+        }
+        return builder.build();
+    }
+
+    private static Date toDate(Integer days) {
+        return days != null ? new Date(BASE_TIME + days * DAY) : null;
+    }
+
+    private static List<Long> ids(List<ItemWithName> rows) {
+        List<Long> ids = new ArrayList<>();
+        for (ItemWithName row : rows) {
+            ids.add(row.item.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,156 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.dao.ItemCounterDao;
+import com.baixiaosheng.inventory.database.dao.ItemDao;
+import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemCounter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * item_counter触发器测试：插入/更新/删除后计数与item表实时统计保持一致
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemCounterTest {
+
+    private InventoryDatabase db;
+    private ItemDao itemDao;
+    private ItemCounterDao counterDao;
+    private long parentId;
+    private long childId;
+    private long otherChildId;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .addCallback(InventoryDatabase.CREATE_TRIGGERS_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+        itemDao = db.itemDao();
+        counterDao = db.itemCounterDao();
+
+        parentId = db.categoryDao().insertCategory(new Category(0, "食品", 0, 0));
+        childId = db.categoryDao().insertCategory(new Category(parentId, "饮料", 0, 0));
+        otherChildId = db.categoryDao().insertCategory(new Category(parentId, "零食", 0, 0));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void insert_countsOnlyActiveItems() {
+        insert("牛奶", childId, 1, 0);
+        insert("果汁", childId, 1, 0);
+        insert("汽水", childId, 2, 1);
+
+        assertEquals(2, counterDao.getCount(ItemCounter.KIND_PARENT_CATEGORY, parentId));
+        assertEquals(2, counterDao.getCount(ItemCounter.KIND_CHILD_CATEGORY, childId));
+        assertEquals(2, counterDao.getCount(ItemCounter.KIND_LOCATION, 1));
+        assertEquals(0, counterDao.getCount(ItemCounter.KIND_LOCATION, 2));
+        assertEquals(0, counterDao.countMismatchedCounters());
+    }
+
+    @Test
+    public void softDeleteAndRestore_updateCounts() {
+        Item item = insert("牛奶", childId, 1, 0);
+
+        item.setIsDeleted(1);
+        itemDao.updateItem(item);
+        assertEquals(0, counterDao.getCategoryRelatedCount(childId));
+        assertEquals(0, counterDao.getCount(ItemCounter.KIND_LOCATION, 1));
+
+        item.setIsDeleted(0);
+        itemDao.updateItem(item);
+        assertEquals(1, counterDao.getCategoryRelatedCount(childId));
+        assertEquals(1, counterDao.getCount(ItemCounter.KIND_LOCATION, 1));
+        assertEquals(0, counterDao.countMismatchedCounters());
+    }
+
+    @Test
+    public void reassignment_movesCounts() {
+        Item item = insert("牛奶", childId, 1, 0);
+
+        item.setChildCategoryId(otherChildId);
+        item.setLocationId(2);
+        itemDao.updateItem(item);
+
+        assertEquals(0, counterDao.getCount(ItemCounter.KIND_CHILD_CATEGORY, childId));
+        assertEquals(1, counterDao.getCount(ItemCounter.KIND_CHILD_CATEGORY, otherChildId));
+        assertEquals(0, counterDao.getCount(ItemCounter.KIND_LOCATION, 1));
+        assertEquals(1, counterDao.getCount(ItemCounter.KIND_LOCATION, 2));
+        // 父分类未变：自身1条 + 子分类1条
+        assertEquals(2, counterDao.getParentCategoryTotalCount(parentId));
+        assertEquals(0, counterDao.countMismatchedCounters());
+    }
+
+    @Test
+    public void categoryRelatedCount_countsSameParentAndChildOnce() {
+        // 父、子分类相同的物品只计一次（与按item表 parent OR child 统计一致）
+        Item item = new Item("牛奶", parentId, parentId, 1, 0, 1, "", 0, 0, 0);
+        item.setId(itemDao.insertItem(item)[0]);
+        insert("果汁", childId, 1, 0);
+        insert("汽水", parentId, 1, 1);
+
+        assertEquals(2, counterDao.getCategoryRelatedCount(parentId));
+        assertEquals(1, counterDao.getCategoryRelatedCount(childId));
+
+        item.setIsDeleted(1);
+        itemDao.updateItem(item);
+        assertEquals(1, counterDao.getCategoryRelatedCount(parentId));
+        assertEquals(0, counterDao.countMismatchedCounters());
+
+        // 改为普通父/子分类后不再扣除重叠
+        item.setIsDeleted(0);
+        item.setChildCategoryId(otherChildId);
+        itemDao.updateItem(item);
+        assertEquals(2, counterDao.getCategoryRelatedCount(parentId));
+        assertEquals(1, counterDao.getCategoryRelatedCount(otherChildId));
+        assertEquals(0, counterDao.getCount(ItemCounter.KIND_SELF_PAIR, parentId));
+        assertEquals(0, counterDao.countMismatchedCounters());
+    }
+
+    @Test
+    public void physicalDelete_decrementsActiveItemsOnly() {
+        Item active = insert("牛奶", childId, 1, 0);
+        Item deleted = insert("汽水", childId, 1, 1);
+
+        itemDao.deleteItem(deleted);
+        assertEquals(1, counterDao.getCount(ItemCounter.KIND_CHILD_CATEGORY, childId));
+
+        itemDao.deleteItem(active);
+        assertEquals(0, counterDao.getCount(ItemCounter.KIND_CHILD_CATEGORY, childId));
+        assertEquals(0, counterDao.countMismatchedCounters());
+    }
+
+    @Test
+    public void consistencyCheck_detectsDriftAndRebuildFixesIt() {
+        insert("牛奶", childId, 1, 0);
+        db.getOpenHelper().getWritableDatabase().execSQL("UPDATE item_counter SET activeCount = 5");
+        assertEquals(3, counterDao.countMismatchedCounters());
+
+        db.runInTransaction(() -> DatabaseMigrations.rebuildItemCounters(db.getOpenHelper().getWritableDatabase()));
+        assertEquals(0, counterDao.countMismatchedCounters());
+        assertEquals(1, counterDao.getCount(ItemCounter.KIND_PARENT_CATEGORY, parentId));
+    }
+
+    private Item insert(String name, long child, long locationId, int isDeleted) {
+        Item item = new Item(name, parentId, child, locationId, 0, 1, "", 0, 0, isDeleted);
+        item.setId(itemDao.insertItem(item)[0]);
+        return item;
+    }
+}
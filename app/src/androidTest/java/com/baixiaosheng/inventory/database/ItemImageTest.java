@@ -0,0 +1,99 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.dao.ItemImageDao;
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * item_image表测试：按顺序读取、封面查询，以及物品物理删除时级联删除
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemImageTest {
+
+    private InventoryDatabase db;
+    private ItemImageDao imageDao;
+    private long itemId;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .addCallback(InventoryDatabase.CREATE_TRIGGERS_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+        imageDao = db.itemImageDao();
+        itemId = db.itemDao().insertItem(new Item("牛奶", 0, 0, 0, 0, 1, "", 0, 0))[0];
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void images_returnedInOrdinalOrder() {
+        // 插入顺序与ordinal不一致
+        imageDao.insertImages(Arrays.asList(image(2, "/c.jpg"), image(0, "/a.jpg"), image(1, "/b.jpg")));
+
+        List<String> paths = new ArrayList<>();
+        for (ItemImage image : imageDao.getImagesByItemId(itemId)) {
+            paths.add(image.getPath());
+        }
+        assertEquals(Arrays.asList("/a.jpg", "/b.jpg", "/c.jpg"), paths);
+        assertEquals("/a.jpg", imageDao.getFirstImage(itemId).getPath());
+    }
+
+    @Test
+    public void manyLongPaths_storedWithoutTruncation() {
+        List<ItemImage> images = new ArrayList<>();
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longName.append('x');
+        }
+        for (int i = 0; i < 20; i++) {
+            images.add(image(i, "/store/" + longName + i + ".jpg"));
+        }
+        imageDao.insertImages(images);
+
+        List<ItemImage> stored = imageDao.getImagesByItemId(itemId);
+        assertEquals(20, stored.size());
+        assertTrue(stored.get(19).getPath().endsWith(longName + "19.jpg"));
+    }
+
+    @Test
+    public void physicalDelete_cascadesImages() {
+        imageDao.insertImages(Arrays.asList(image(0, "/a.jpg"), image(1, "/b.jpg")));
+
+        db.itemDao().deleteItemById(itemId);
+        assertTrue(imageDao.getImagesByItemId(itemId).isEmpty());
+        assertNull(imageDao.getFirstImage(itemId));
+    }
+
+    private ItemImage image(int ordinal, String path) {
+        ItemImage image = new ItemImage(path);
+        image.setItemId(itemId);
+        image.setOrdinal(ordinal);
+        image.setWidth(1600);
+        image.setHeight(1200);
+        return image;
+    }
+}
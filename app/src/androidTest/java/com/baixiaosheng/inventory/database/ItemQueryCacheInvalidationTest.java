@@ -0,0 +1,125 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.database.entity.Location;
+import com.baixiaosheng.inventory.model.FilterCondition;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 查询缓存同步失效测试：DatabaseManager的写方法返回后，紧随其后的查询立即读到新数据
+ * 数据库的查询执行器不执行任何任务，InvalidationTracker的异步通知永远不会到达，只验证写方法自身的失效
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemQueryCacheInvalidationTest {
+
+    private InventoryDatabase db;
+    private DatabaseManager databaseManager;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .addCallback(InventoryDatabase.CREATE_TRIGGERS_CALLBACK)
+                .setQueryExecutor(command -> { })
+                .allowMainThreadQueries()
+                .build();
+        databaseManager = new DatabaseManager(db);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void itemWrites_visibleToNextPageQuery() {
+        Item milk = new Item("牛奶", 0, 0, 0, 1, 1, "", 0, 0);
+        databaseManager.addItem(milk);
+        // 写入首页缓存
+        assertEquals(Arrays.asList("牛奶"), pageNames(new FilterCondition()));
+
+        databaseManager.addItem(new Item("面包", 0, 0, 0, 2, 1, "", 0, 0));
+        assertEquals(Arrays.asList("牛奶", "面包"), pageNames(new FilterCondition()));
+
+        milk.setName("纯牛奶");
+        databaseManager.updateItem(milk);
+        assertEquals(Arrays.asList("纯牛奶", "面包"), pageNames(new FilterCondition()));
+
+        databaseManager.markItemAsDeleted(milk.getId());
+        assertEquals(Arrays.asList("面包"), pageNames(new FilterCondition()));
+
+        databaseManager.restoreItemById(milk.getId());
+        assertEquals(Arrays.asList("纯牛奶", "面包"), pageNames(new FilterCondition()));
+    }
+
+    @Test
+    public void locationWrites_visibleToNextPageAndIndexQuery() {
+        long fridge = databaseManager.addLocation(new Location("冰箱", "", 0, 0));
+        databaseManager.addItem(new Item("牛奶", 0, 0, fridge, 1, 1, "", 0, 0));
+        FilterCondition inFridge = new FilterCondition();
+        inFridge.setLocation("冰箱");
+        assertEquals(Arrays.asList("牛奶"), pageNames(inFridge));
+        assertEquals(Arrays.asList("牛奶"), names(databaseManager.queryItemsByColumnIndex(inFridge)));
+
+        // 删除位置（同一事务内清空物品的位置）后，缓存的页与列式索引均不能再命中
+        databaseManager.deleteLocationById(fridge);
+        assertEquals(Collections.emptyList(), pageNames(inFridge));
+        assertEquals(Collections.emptyList(), names(databaseManager.queryItemsByColumnIndex(inFridge)));
+    }
+
+    @Test
+    public void itemAndLocationWrites_keepColumnIndexInSync() {
+        long fridge = databaseManager.addLocation(new Location("冰箱", "", 0, 0));
+        Item milk = new Item("牛奶", 0, 0, fridge, 2, 1, "", 0, 0);
+        databaseManager.addItem(milk);
+        // 先构建索引，之后的物品写入走增量更新
+        databaseManager.getItemColumnIndex();
+
+        Item bread = new Item("面包", 0, 0, fridge, 1, 1, "", 0, 0);
+        databaseManager.addItem(bread);
+        FilterCondition inFridge = new FilterCondition();
+        inFridge.setLocation("冰箱");
+        assertEquals(Arrays.asList("面包", "牛奶"), names(databaseManager.queryItemsByColumnIndex(inFridge)));
+        databaseManager.markItemAsDeleted(bread.getId());
+        assertEquals(Arrays.asList("牛奶"), names(databaseManager.queryItemsByColumnIndex(inFridge)));
+
+        // 位置改名：索引重建，按新名称命中，旧名称不再命中
+        Location location = databaseManager.getLocationById(fridge);
+        location.setName("冷藏室");
+        databaseManager.updateLocation(location);
+        FilterCondition renamed = new FilterCondition();
+        renamed.setLocation("冷藏室");
+        assertEquals(Arrays.asList("牛奶"), names(databaseManager.queryItemsByColumnIndex(renamed)));
+        assertEquals(Collections.emptyList(), names(databaseManager.queryItemsByColumnIndex(inFridge)));
+    }
+
+    private List<String> pageNames(FilterCondition filter) {
+        return names(databaseManager.queryItemsPageByFilter(filter, null, 50));
+    }
+
+    private static List<String> names(List<ItemWithName> items) {
+        List<String> names = new ArrayList<>();
+        for (ItemWithName itemWithName : items) {
+            names.add(itemWithName.item.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,123 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteProgram;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.model.FilterCondition;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * 列表查询的执行计划测试（EXPLAIN QUERY PLAN）：
+ * 查询页按 (isDeleted, validTime) 索引、回收站按 (isDeleted, updateTime) 索引扫描，且排序不需要临时B树
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemQueryPlanTest {
+
+    private static final String VALID_TIME_INDEX = "index_item_isDeleted_validTime";
+    private static final String UPDATE_TIME_INDEX = "index_item_isDeleted_updateTime";
+    // 与ItemDao.getRecycleItemsFirstPage / getRecycleItemsPageAfter / getRecycleItemsUpTo相同的语句
+    private static final String RECYCLE_KEYWORD = " AND (? IS NULL OR i.name LIKE '%' || ? || '%')";
+    private static final String RECYCLE_FIRST_PAGE = ItemQueryBuilder.SELECT_ITEM_WITH_NAME +
+            " WHERE i.isDeleted = 1" + RECYCLE_KEYWORD + " ORDER BY i.updateTime DESC, i.id DESC LIMIT ?";
+    private static final String RECYCLE_PAGE_AFTER = ItemQueryBuilder.SELECT_ITEM_WITH_NAME +
+            " WHERE i.isDeleted = 1" + RECYCLE_KEYWORD + " AND i.updateTime <= ? AND (i.updateTime < ? OR i.id < ?)" +
+            " ORDER BY i.updateTime DESC, i.id DESC LIMIT ?";
+    private static final String RECYCLE_UP_TO = ItemQueryBuilder.SELECT_ITEM_WITH_NAME +
+            " WHERE i.isDeleted = 1" + RECYCLE_KEYWORD + " AND i.updateTime >= ? AND (i.updateTime > ? OR i.id >= ?)" +
+            " ORDER BY i.updateTime DESC, i.id DESC";
+
+    private InventoryDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .addCallback(InventoryDatabase.CREATE_TRIGGERS_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void queryPages_scanValidTimeIndex() {
+        assertIndexOrdered(ItemQueryBuilder.buildItemsWithNamePageQuery(new FilterCondition(), null, null, 50),
+                VALID_TIME_INDEX);
+        assertIndexOrdered(ItemQueryBuilder.buildItemsWithNamePageQuery(new FilterCondition(), 1700000000000L, 7L, 50),
+                VALID_TIME_INDEX);
+    }
+
+    @Test
+    public void recyclePages_scanUpdateTimeIndex() {
+        assertIndexOrdered(new SimpleSQLiteQuery(RECYCLE_FIRST_PAGE, new Object[]{null, null, 50}), UPDATE_TIME_INDEX);
+        assertIndexOrdered(new SimpleSQLiteQuery(RECYCLE_PAGE_AFTER,
+                new Object[]{"奶", "奶", 1700000000000L, 1700000000000L, 7L, 50}), UPDATE_TIME_INDEX);
+        assertIndexOrdered(new SimpleSQLiteQuery(RECYCLE_UP_TO,
+                new Object[]{null, null, 1700000000000L, 1700000000000L, 7L}), UPDATE_TIME_INDEX);
+    }
+
+    @Test
+    public void queryWindow_scansValidTimeIndex() {
+        assertIndexOrdered(ItemQueryBuilder.buildItemsWithNameUpToQuery(new FilterCondition(), 1700000000000L, 7L),
+                VALID_TIME_INDEX);
+    }
+
+    // 计划中item表走指定索引，且ORDER BY直接由索引顺序满足
+    private void assertIndexOrdered(SupportSQLiteQuery query, String indexName) {
+        String plan = explain(query);
+        assertTrue(plan, plan.contains("USING INDEX " + indexName));
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    private String explain(SupportSQLiteQuery query) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query(new ExplainQuery(query))) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    // 在原查询前加EXPLAIN QUERY PLAN，绑定参数不变
+    private static class ExplainQuery implements SupportSQLiteQuery {
+        private final SupportSQLiteQuery query;
+
+        ExplainQuery(SupportSQLiteQuery query) {
+            this.query = query;
+        }
+
+        @Override
+        public String getSql() {
+            return "EXPLAIN QUERY PLAN " + query.getSql();
+        }
+
+        @Override
+        public void bindTo(SupportSQLiteProgram statement) {
+            query.bindTo(statement);
+        }
+
+        @Override
+        public int getArgCount() {
+            return query.getArgCount();
+        }
+    }
+}
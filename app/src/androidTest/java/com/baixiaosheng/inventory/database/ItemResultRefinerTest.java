@@ -0,0 +1,247 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemNgram;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.database.entity.Location;
+import com.baixiaosheng.inventory.model.FilterCondition;
+import com.baixiaosheng.inventory.utils.NgramUtils;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 内存细化正确性测试：条件收窄时，过滤旧结果与直接执行SQL的结果必须完全一致（含顺序）
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemResultRefinerTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long BASE_TIME = 1700000000000L;
+
+    private InventoryDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+
+        long food = db.categoryDao().insertCategory(new Category(0, "食品", 0, 0));
+        long drink = db.categoryDao().insertCategory(new Category(food, "饮料", 0, 0));
+        long snack = db.categoryDao().insertCategory(new Category(food, "零食", 0, 0));
+        long daily = db.categoryDao().insertCategory(new Category(0, "日用品", 0, 0));
+        long toiletry = db.categoryDao().insertCategory(new Category(daily, "洗漱", 0, 0));
+        long fridge = db.locationDao().insertLocation(new Location("冰箱", "", 0, 0));
+        long cabinet = db.locationDao().insertLocation(new Location("柜子", "", 0, 0));
+
+        insert("牛奶", food, drink, fridge, 1, 3);
+        insert("纯牛奶", food, drink, fridge, 2, 6);
+        insert("牛奶糖", food, snack, cabinet, 5, 10);
+        insert("牛肉干", food, snack, cabinet, 8, 20);
+        insert("酸奶", food, drink, fridge, 3, 2);
+        insert("Milk Tea", food, drink, fridge, 4, 1);
+        insert("MILK粉", food, drink, cabinet, 6, 4);
+        insert("奶茶_原味", food, drink, fridge, 7, 5);
+        insert("洗漱用品", daily, toiletry, cabinet, 9, 12);
+        insert("牙刷", daily, toiletry, cabinet, 10, 2);
+        insert("无分类物品", 0, 0, 0, 11, 1);
+        // 已删除物品不应出现在任何结果中
+        Item deleted = insert("牛奶（已删除）", food, drink, fridge, 12, 1);
+        deleted.setIsDeleted(1);
+        db.itemDao().updateItem(deleted);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void narrowing_isDetectedPerCondition() {
+        assertTrue(narrower(filter(""), filter("牛")));
+        assertTrue(narrower(filter("牛"), filter("牛奶")));
+        assertTrue(narrower(filter("牛奶"), filter("纯牛奶")));
+        assertTrue(narrower(filter("mi"), filter("milk")));
+        assertTrue(narrower(filter("MI"), filter("milk")));
+        assertTrue(narrower(filter("m"), filter("m奶")));
+        assertTrue(narrower(filter("牛奶"), filter("牛奶")));
+        assertTrue(narrower(filter(""), withLocation(filter(""), "冰箱")));
+        assertTrue(narrower(withQuantity(filter(""), 2, 10), withQuantity(filter(""), 3, 8)));
+
+        // 放宽或改变条件必须回退到SQL
+        assertFalse(narrower(filter("牛奶"), filter("牛")));
+        assertFalse(narrower(filter("牛"), filter("奶")));
+        assertFalse(narrower(filter("牛"), filter("")));
+        assertFalse(narrower(filter("ni"), filter("xni")));
+        assertFalse(narrower(withLocation(filter(""), "冰箱"), withLocation(filter(""), "柜子")));
+        assertFalse(narrower(withLocation(filter(""), "冰箱"), filter("")));
+        assertFalse(narrower(withQuantity(filter(""), 3, 8), withQuantity(filter(""), 2, 8)));
+        assertFalse(narrower(withQuantity(filter(""), 3, 8), withQuantity(filter(""), null, 8)));
+        // LIKE通配符无法在内存中复现
+        assertFalse(narrower(filter(""), filter("奶_")));
+        assertFalse(narrower(filter("奶"), filter("奶%")));
+    }
+
+    @Test
+    public void refinedResult_equalsSqlResult_forEveryNarrowerPair() {
+        List<FilterCondition> filters = buildFilters();
+        int refinedPairs = 0;
+        for (FilterCondition wide : filters) {
+            List<ItemWithName> wideResult = queryAll(wide);
+            for (FilterCondition narrow : filters) {
+                if (!ItemResultRefiner.isNarrowerOrEqual(wide, narrow)) {
+                    continue;
+                }
+                refinedPairs++;
+                assertEquals(describe(wide, narrow), ids(queryAll(narrow)),
+                        ids(ItemResultRefiner.refine(wideResult, narrow)));
+            }
+        }
+        assertTrue(refinedPairs > filters.size());
+    }
+
+    @Test
+    public void refinedPrefix_continuesFromOldCursor() {
+        // 与QueryViewModel相同：细化已加载的前缀，再从旧游标之后按新条件分页
+        List<FilterCondition> filters = buildFilters();
+        for (FilterCondition wide : filters) {
+            List<ItemWithName> prefix = queryPage(wide, null, 3);
+            ItemWithName cursor = prefix.isEmpty() ? null : prefix.get(prefix.size() - 1);
+            for (FilterCondition narrow : filters) {
+                if (!ItemResultRefiner.isNarrowerOrEqual(wide, narrow)) {
+                    continue;
+                }
+                List<ItemWithName> result = ItemResultRefiner.refine(prefix, narrow);
+                if (cursor != null) {
+                    ItemWithName pageCursor = cursor;
+                    List<ItemWithName> page;
+                    do {
+                        page = queryPage(narrow, pageCursor, 2);
+                        result.addAll(page);
+                        if (!page.isEmpty()) {
+                            pageCursor = page.get(page.size() - 1);
+                        }
+                    } while (page.size() == 2);
+                }
+                assertEquals(describe(wide, narrow), ids(queryAll(narrow)), ids(result));
+            }
+        }
+    }
+
+    // ==================== 测试数据 ====================
+
+    private List<FilterCondition> buildFilters() {
+        List<FilterCondition> filters = new ArrayList<>();
+        for (String keyword : Arrays.asList("", "牛", "牛奶", "纯牛奶", "奶", "m", "mi", "MILK", "milk t",
+                "n", "nn", "nnai", "xs", "xsyp", "奶茶", "奶茶_原味")) {
+            filters.add(filter(keyword));
+            filters.add(withLocation(filter(keyword), "冰箱"));
+            filters.add(withCategory(filter(keyword), "食品", "饮料"));
+            filters.add(withCategory(filter(keyword), "食品", ""));
+            filters.add(withQuantity(filter(keyword), 2, 10));
+            filters.add(withQuantity(filter(keyword), 3, 6));
+            filters.add(withExpire(filter(keyword), 2, 8));
+            filters.add(withExpire(withLocation(filter(keyword), "柜子"), 4, 9));
+        }
+        return filters;
+    }
+
+    private Item insert(String name, long parentId, long childId, long locationId, int validDays, int count) {
+        Item item = new Item(name, parentId, childId, locationId, BASE_TIME + validDays * DAY, count,
+                "", 0, 0);
+        item.setNamePinyin(PinyinUtils.toPinyin(name));
+        item.setNameInitials(PinyinUtils.toInitials(name));
+        item.setId(db.itemDao().insertItem(item)[0]);
+        List<ItemNgram> ngrams = new ArrayList<>();
+        for (String gram : NgramUtils.buildIndexGrams(name)) {
+            ngrams.add(new ItemNgram(gram, item.getId()));
+        }
+        if (!ngrams.isEmpty()) {
+            db.itemNgramDao().insertNgrams(ngrams);
+        }
+        return item;
+    }
+
+    private static FilterCondition filter(String keyword) {
+        FilterCondition filter = new FilterCondition();
+        filter.setSearchKeyword(keyword);
+        return filter;
+    }
+
+    private static FilterCondition withLocation(FilterCondition filter, String location) {
+        filter.setLocation(location);
+        return filter;
+    }
+
+    private static FilterCondition withCategory(FilterCondition filter, String parent, String child) {
+        filter.setParentCategory(parent);
+        filter.setChildCategory(child);
+        return filter;
+    }
+
+    private static FilterCondition withQuantity(FilterCondition filter, Integer min, Integer max) {
+        filter.setQuantityMin(min);
+        filter.setQuantityMax(max);
+        return filter;
+    }
+
+    private static FilterCondition withExpire(FilterCondition filter, int startDays, int endDays) {
+        filter.setExpireStart(new Date(BASE_TIME + startDays * DAY));
+        filter.setExpireEnd(new Date(BASE_TIME + endDays * DAY));
+        return filter;
+    }
+
+    private static boolean narrower(FilterCondition previous, FilterCondition next) {
+        return ItemResultRefiner.isNarrowerOrEqual(previous, next);
+    }
+
+    private List<ItemWithName> queryAll(FilterCondition filter) {
+        return queryPage(filter, null, Integer.MAX_VALUE);
+    }
+
+    private List<ItemWithName> queryPage(FilterCondition filter, ItemWithName after, int limit) {
+        return db.itemDao().queryItemsWithNameSync(ItemQueryBuilder.buildItemsWithNamePageQuery(filter,
+                after != null ? after.item.getValidTime() : null,
+                after != null ? after.item.getId() : null,
+                limit));
+    }
+
+    private static List<Long> ids(List<ItemWithName> rows) {
+        List<Long> ids = new ArrayList<>();
+        for (ItemWithName row : rows) {
+            ids.add(row.item.getId());
+        }
+        return ids;
+    }
+
+    private static String describe(FilterCondition wide, FilterCondition narrow) {
+        return describe(wide) + " → " + describe(narrow);
+    }
+
+    private static String describe(FilterCondition filter) {
+        return "[" + filter.getSearchKeyword() + "|" + filter.getParentCategory() + "/" + filter.getChildCategory()
+                + "|" + filter.getLocation() + "|" + filter.getQuantityMin() + "~" + filter.getQuantityMax()
+                + "|" + filter.getExpireStart() + "~" + filter.getExpireEnd() + "]";
+    }
+}
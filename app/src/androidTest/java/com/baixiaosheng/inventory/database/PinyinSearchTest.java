@@ -0,0 +1,148 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.Location;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 纯字母关键词检索测试：拼音前缀命中之外，英文名称、名称/说明中的字母子串仍按LIKE命中
+ */
+@RunWith(AndroidJUnit4.class)
+public class PinyinSearchTest {
+
+    private InventoryDatabase db;
+    private long itemOrder;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void items_matchPinyinPrefixAsciiNameAndRemark() throws Exception {
+        insertItem("洗漱用品", "");
+        insertItem("Type-C Cable", "");
+        insertItem("数据线", "usb hub adapter");
+        insertItem("牙刷", "soft brush head");
+
+        assertEquals(Arrays.asList("洗漱用品"), searchItemNames("xsyp"));
+        // 名称中间的英文子串
+        assertEquals(Arrays.asList("Type-C Cable"), searchItemNames("Cable"));
+        // 说明中的字母子串
+        assertEquals(Arrays.asList("数据线"), searchItemNames("hub"));
+        // 拼音前缀命中（数据线）与说明子串命中（牙刷）取并集
+        assertEquals(Arrays.asList("数据线", "牙刷"), searchItemNames("sh"));
+    }
+
+    @Test
+    public void categoriesAndLocations_matchAsciiNameSubstring() {
+        insertCategory("饮料");
+        insertCategory("USB配件");
+        insertLocation("冰箱");
+        insertLocation("Garage Shelf");
+
+        assertEquals(Arrays.asList("USB配件"), categoryNames("usb"));
+        assertEquals(Arrays.asList("饮料"), categoryNames("yl"));
+        assertEquals(Arrays.asList("Garage Shelf"), locationNames("Shelf"));
+        assertEquals(Arrays.asList("冰箱"), locationNames("bx"));
+    }
+
+    private List<String> searchItemNames(String keyword) throws InterruptedException {
+        String prefix = PinyinUtils.normalizePrefix(keyword);
+        List<String> names = new ArrayList<>();
+        for (Item item : await(db.itemDao().searchItemByPinyin(prefix, PinyinUtils.prefixUpperBound(prefix), keyword))) {
+            names.add(item.getName());
+        }
+        return names;
+    }
+
+    private List<String> categoryNames(String keyword) {
+        String prefix = PinyinUtils.normalizePrefix(keyword);
+        List<String> names = new ArrayList<>();
+        for (Category category : db.categoryDao().searchCategoriesByPinyin(prefix, PinyinUtils.prefixUpperBound(prefix), keyword)) {
+            names.add(category.getCategoryName());
+        }
+        return names;
+    }
+
+    private List<String> locationNames(String keyword) {
+        String prefix = PinyinUtils.normalizePrefix(keyword);
+        List<String> names = new ArrayList<>();
+        for (Location location : db.locationDao().searchLocationByPinyin(prefix, PinyinUtils.prefixUpperBound(prefix), keyword)) {
+            names.add(location.getName());
+        }
+        return names;
+    }
+
+    // 在主线程观察LiveData，等待Room在后台完成首次查询
+    private static <T> T await(LiveData<T> liveData) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Object[] value = new Object[1];
+        Observer<T> observer = new Observer<T>() {
+            @Override
+            public void onChanged(T t) {
+                value[0] = t;
+                latch.countDown();
+            }
+        };
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.observeForever(observer));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.removeObserver(observer));
+        @SuppressWarnings("unchecked")
+        T result = (T) value[0];
+        return result;
+    }
+
+    private void insertItem(String name, String remark) {
+        // validTime按插入顺序递增，结果顺序固定
+        Item item = new Item(name, 0, 0, 0, ++itemOrder, 1, remark, 0, 0);
+        item.setNamePinyin(PinyinUtils.toPinyin(name));
+        item.setNameInitials(PinyinUtils.toInitials(name));
+        db.itemDao().insertItem(item);
+    }
+
+    private void insertCategory(String name) {
+        Category category = new Category(0, name, 0, 0);
+        category.setCategoryNamePinyin(PinyinUtils.toPinyin(name));
+        category.setCategoryNameInitials(PinyinUtils.toInitials(name));
+        db.categoryDao().insertCategory(category);
+    }
+
+    private void insertLocation(String name) {
+        Location location = new Location(name, "", 0, 0);
+        location.setNamePinyin(PinyinUtils.toPinyin(name));
+        location.setNameInitials(PinyinUtils.toInitials(name));
+        db.locationDao().insertLocation(location);
+    }
+}
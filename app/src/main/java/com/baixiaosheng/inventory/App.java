@@ -2,6 +2,8 @@ package com.baixiaosheng.inventory;
 
 import android.app.Application;
 
+import com.baixiaosheng.inventory.utils.ImageStore;
+
 public class App extends Application {
     private static App instance;
 
@@ -9,6 +11,8 @@ public class App extends Application {
     public void onCreate() {
         super.onCreate();
         instance = this;
+        // 后台补全升级迁移留下的图片元数据
+        ImageStore.getInstance(this).fillMissingImageMetadata();
     }
 
     // 获取全局应用实例
@@ -3,16 +3,36 @@ package com.baixiaosheng.inventory.database;
 import android.content.Context;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
 import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.FacetCountRow;
+import com.baixiaosheng.inventory.database.entity.ImageBlob;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemCounter;
+import com.baixiaosheng.inventory.database.entity.ItemDetail;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+import com.baixiaosheng.inventory.database.entity.ItemImageRef;
+import com.baixiaosheng.inventory.database.entity.ItemNgram;
 import com.baixiaosheng.inventory.database.entity.ItemWithName;
 import com.baixiaosheng.inventory.database.entity.Location;
 import com.baixiaosheng.inventory.database.entity.Recycle;
+import com.baixiaosheng.inventory.model.FacetCounts;
 import com.baixiaosheng.inventory.model.FilterCondition;
+import com.baixiaosheng.inventory.utils.NgramUtils;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -22,9 +42,38 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class DatabaseManager {
     private static DatabaseManager INSTANCE;
     private final InventoryDatabase db;
+    // 物品分页查询结果缓存（item/category/location表变更时清空）
+    private final ItemQueryCache itemQueryCache = new ItemQueryCache(ItemQueryCache.DEFAULT_MAX_PAGES);
+    // 单次增量更新列式索引的最多物品数（更多时置空，下次使用时重建）
+    private static final int COLUMN_INDEX_MAX_CHANGED_ITEMS = 200;
+    // 内存列式索引（首次使用时构建；物品写入后只替换变更的行，分类/位置变更后置空重建；受columnIndexLock保护）
+    private final Object columnIndexLock = new Object();
+    private ItemColumnIndex columnIndex;
+    private long columnIndexGeneration;
+    // 串行化索引的增量更新与兜底校验（两者都要读取当前快照并写回）
+    private final Object columnIndexUpdateLock = new Object();
 
     private DatabaseManager(Context context) {
-        db = InventoryDatabase.getInstance(context);
+        this(InventoryDatabase.getInstance(context));
+    }
+
+    // 供测试注入数据库（如内存数据库）
+    @VisibleForTesting
+    DatabaseManager(InventoryDatabase db) {
+        this.db = db;
+        // 本类的写方法已在写入后同步失效；InvalidationTracker的异步通知只作兜底（如迁移、绕过本类的写入）
+        db.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("item", "category", "location") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                if (tables.contains("category") || tables.contains("location")) {
+                    invalidateItemQueries();
+                } else {
+                    // 只有物品表变更：列式索引已由写方法增量更新，这里只校验
+                    itemQueryCache.invalidate();
+                    verifyColumnIndex();
+                }
+            }
+        });
     }
 
     public static DatabaseManager getInstance(Context context) {
@@ -44,7 +93,97 @@ public class DatabaseManager {
      * @param runnable 事务内要执行的逻辑
      */
     public void runInTransaction(Runnable runnable) {
-        db.runInTransaction(runnable);
+        try {
+            db.runInTransaction(runnable);
+        } finally {
+            // 事务内的写方法在提交前失效，提交（或回滚）后须再失效一次
+            invalidateItemQueries();
+        }
+    }
+
+    /**
+     * 清空物品查询缓存与列式索引（item/category/location写入提交后同步调用）
+     * 紧随写入的查询不会读到写入前缓存的结果，不依赖InvalidationTracker的异步通知
+     */
+    private void invalidateItemQueries() {
+        itemQueryCache.invalidate();
+        synchronized (columnIndexLock) {
+            columnIndex = null;
+            columnIndexGeneration++;
+        }
+    }
+
+    /**
+     * 物品写入提交后同步调用：清空查询缓存；列式索引只重新读取变更的物品，生成新快照替换
+     * 事务中调用时只整体失效（未提交的数据不能进入索引，由事务的发起方在提交后再失效）
+     * @param itemIds 新增/修改/删除/恢复的物品ID
+     */
+    private void invalidateItems(Collection<Long> itemIds) {
+        if (db.inTransaction() || itemIds.size() > COLUMN_INDEX_MAX_CHANGED_ITEMS) {
+            invalidateItemQueries();
+            return;
+        }
+        itemQueryCache.invalidate();
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        synchronized (columnIndexUpdateLock) {
+            ItemColumnIndex base;
+            long generation;
+            synchronized (columnIndexLock) {
+                base = columnIndex;
+                // 使更新期间开始的全量构建作废（它可能读到写入前的数据）
+                generation = ++columnIndexGeneration;
+            }
+            if (base == null) {
+                return;
+            }
+            Set<Long> changedIds = new HashSet<>(itemIds);
+            ItemColumnIndex updated = base.withItems(changedIds, db.itemDao().queryItemsWithNameSync(
+                    ItemQueryBuilder.buildActiveItemsWithNameByIdsQuery(new ArrayList<>(changedIds))));
+            synchronized (columnIndexLock) {
+                // 期间有整体失效（分类/位置变更等）时不写回
+                if (generation == columnIndexGeneration) {
+                    columnIndex = updated;
+                }
+            }
+        }
+    }
+
+    private void invalidateItem(long itemId) {
+        invalidateItems(Collections.singletonList(itemId));
+    }
+
+    // 兜底校验：索引的物品数或最大更新时间与item表不一致（有绕过本类的写入）时置空
+    private void verifyColumnIndex() {
+        synchronized (columnIndexUpdateLock) {
+            ItemColumnIndex index;
+            synchronized (columnIndexLock) {
+                index = columnIndex;
+            }
+            if (index == null) {
+                return;
+            }
+            if (db.itemDao().countActiveItems() != index.size()
+                    || db.itemDao().getActiveItemsMaxUpdateTime() != index.maxUpdateTime()) {
+                synchronized (columnIndexLock) {
+                    columnIndex = null;
+                    columnIndexGeneration++;
+                }
+            }
+        }
+    }
+
+    /**
+     * 注册表变更监听（如内存中缓存的查询结果需在表变更后失效）
+     * 不再使用时必须调用removeInvalidationObserver，避免泄漏
+     */
+    public void addInvalidationObserver(InvalidationTracker.Observer observer) {
+        db.getInvalidationTracker().addObserver(observer);
+    }
+
+    public void removeInvalidationObserver(InvalidationTracker.Observer observer) {
+        db.getInvalidationTracker().removeObserver(observer);
     }
 
     // ==================== 分类表操作 ====================
@@ -53,20 +192,30 @@ public class DatabaseManager {
         long currentTime = System.currentTimeMillis();
         category.setCreateTime(currentTime);
         category.setUpdateTime(currentTime);
-        return db.categoryDao().insertCategory(category);
+        fillPinyin(category);
+        long id = db.categoryDao().insertCategory(category);
+        invalidateItemQueries();
+        return id;
     }
 
     public int updateCategory(Category category) {
         category.setUpdateTime(System.currentTimeMillis());
-        return db.categoryDao().updateCategory(category);
+        fillPinyin(category);
+        int rows = db.categoryDao().updateCategory(category);
+        invalidateItemQueries();
+        return rows;
     }
 
     public int deleteCategory(Category category) {
-        return db.categoryDao().deleteCategory(category);
+        int rows = db.categoryDao().deleteCategory(category);
+        invalidateItemQueries();
+        return rows;
     }
 
     public int deleteCategoryById(long categoryId) {
-        return db.categoryDao().deleteCategoryById(categoryId);
+        int rows = db.categoryDao().deleteCategoryById(categoryId);
+        invalidateItemQueries();
+        return rows;
     }
 
     public Category getCategoryById(long categoryId) {
@@ -85,7 +234,14 @@ public class DatabaseManager {
         return db.categoryDao().listAllCategories();
     }
 
+    /**
+     * 搜索分类：按名称模糊匹配，纯字母关键词额外按拼音/首字母前缀检索
+     */
     public List<Category> searchCategoriesByKeyword(String keyword) {
+        if (PinyinUtils.isPinyinQuery(keyword)) {
+            String prefix = PinyinUtils.normalizePrefix(keyword);
+            return db.categoryDao().searchCategoriesByPinyin(prefix, PinyinUtils.prefixUpperBound(prefix), keyword.trim());
+        }
         return db.categoryDao().searchCategoriesByKeyword(keyword);
     }
 
@@ -94,11 +250,11 @@ public class DatabaseManager {
     }
 
     public int countItemsByParentCategoryId(long categoryId) {
-        return db.categoryDao().countItemsByParentCategoryId(categoryId);
+        return db.itemCounterDao().getCount(ItemCounter.KIND_PARENT_CATEGORY, categoryId);
     }
 
     public int countItemsByChildCategoryId(long categoryId) {
-        return db.categoryDao().countItemsByChildCategoryId(categoryId);
+        return db.itemCounterDao().getCount(ItemCounter.KIND_CHILD_CATEGORY, categoryId);
     }
 
     public int countChildCategoriesByParentId(long parentCategoryId) {
@@ -106,25 +262,21 @@ public class DatabaseManager {
     }
 
     public int getRelatedItemCount(long categoryId) {
-        return db.categoryDao().getRelatedItemCount(categoryId);
+        return db.itemCounterDao().getCategoryRelatedCount(categoryId);
     }
 
     public int countAllItemsByParentCategoryId(long parentId) {
-        int parentItemCount = db.categoryDao().countItemsByParentCategoryId(parentId);
-        List<Category> childCategories = listChildCategoriesByParentId(parentId);
-        int childItemTotal = 0;
-        for (Category child : childCategories) {
-            childItemTotal += db.categoryDao().countItemsByChildCategoryId(child.getId());
-        }
-        return parentItemCount + childItemTotal;
+        return db.itemCounterDao().getParentCategoryTotalCount(parentId);
     }
 
     public void clearItemChildCategoryId(long childId) {
         db.categoryDao().clearItemChildCategoryId(childId);
+        invalidateItemQueries();
     }
 
     public void clearItemParentCategoryId(long parentId) {
         db.categoryDao().clearItemParentCategoryId(parentId);
+        invalidateItemQueries();
     }
 
     public void deleteParentCategoryWithTransaction(long parentId) {
@@ -137,6 +289,7 @@ public class DatabaseManager {
             }
             deleteCategoryById(parentId);
         });
+        invalidateItemQueries();
     }
 
 
@@ -164,6 +317,7 @@ public class DatabaseManager {
     public void clearItemParentAndChildCategoryId(long parentCategoryId) {
         // 需实现Room DAO方法：UPDATE item SET parentCategoryId=0, childCategoryId=0 WHERE parentCategoryId=?
         db.itemDao().clearParentAndChildCategory(parentCategoryId);
+        invalidateItemQueries();
     }
 
 
@@ -174,16 +328,24 @@ public class DatabaseManager {
         long currentTime = System.currentTimeMillis();
         location.setCreateTime(currentTime);
         location.setUpdateTime(currentTime);
-        return db.locationDao().insertLocation(location);
+        fillPinyin(location);
+        long id = db.locationDao().insertLocation(location);
+        invalidateItemQueries();
+        return id;
     }
 
     public int updateLocation(Location location) {
         location.setUpdateTime(System.currentTimeMillis());
-        return db.locationDao().updateLocation(location);
+        fillPinyin(location);
+        int rows = db.locationDao().updateLocation(location);
+        invalidateItemQueries();
+        return rows;
     }
 
     public int deleteLocation(Location location) {
-        return db.locationDao().deleteLocation(location);
+        int rows = db.locationDao().deleteLocation(location);
+        invalidateItemQueries();
+        return rows;
     }
 
     public Location getLocationById(long id) {
@@ -198,6 +360,17 @@ public class DatabaseManager {
         return db.locationDao().getAllLocations();
     }
 
+    /**
+     * 搜索位置：按名称模糊匹配，纯字母关键词额外按拼音/首字母前缀检索
+     */
+    public List<Location> searchLocations(String keyword) {
+        if (PinyinUtils.isPinyinQuery(keyword)) {
+            String prefix = PinyinUtils.normalizePrefix(keyword);
+            return db.locationDao().searchLocationByPinyin(prefix, PinyinUtils.prefixUpperBound(prefix), keyword.trim());
+        }
+        return db.locationDao().searchLocation(keyword);
+    }
+
     /**
      * 检查位置名称是否重复（排除编辑中的ID）
      * @param name 位置名称
@@ -218,6 +391,7 @@ public class DatabaseManager {
             // 再删除位置本身
             db.locationDao().deleteLocationById(locationId);
         });
+        invalidateItemQueries();
         return 1;
     }
 
@@ -227,38 +401,200 @@ public class DatabaseManager {
      * @return 关联物品数量
      */
     public int getLocationRelatedItemCount(long locationId) {
-        return db.locationDao().getRelatedItemCount(locationId);
+        return db.itemCounterDao().getCount(ItemCounter.KIND_LOCATION, locationId);
+    }
+
+    // ==================== 物品计数表 ====================
+    /**
+     * 校验item_counter与item表是否一致，不一致时整表重建
+     * @return true 计数一致；false 发现不一致并已重建
+     */
+    public boolean checkItemCounters() {
+        int mismatched = db.itemCounterDao().countMismatchedCounters();
+        if (mismatched == 0) {
+            return true;
+        }
+        Log.w("DatabaseManager", "物品计数不一致（" + mismatched + "项），重建计数表");
+        db.runInTransaction(() -> DatabaseMigrations.rebuildItemCounters(db.getOpenHelper().getWritableDatabase()));
+        return false;
     }
 
     public void clearItemLocationByLocationId(long locationId) {
         // 调用Dao层方法（需在子线程执行，此处已由ViewModel的ExecutorService保证）
         db.itemDao().clearItemLocationByLocationId(locationId);
+        invalidateItemQueries();
+    }
+
+
+
+    // ==================== 图片内容存储（引用计数由触发器维护，文件由ImageStore管理） ====================
+
+    public ImageBlob getImageBlob(String hash) {
+        return db.imageBlobDao().getBlob(hash);
     }
 
+    /**
+     * 新增图片记录
+     * @return false 相同hash的记录已存在
+     */
+    public boolean addImageBlob(ImageBlob blob) {
+        return db.imageBlobDao().insertBlob(blob) != -1;
+    }
 
+    public int updateImageBlobFile(String hash, String path, long byteSize, long attachTime) {
+        return db.imageBlobDao().updateBlobFile(hash, path, byteSize, attachTime);
+    }
+
+    public int touchImageBlob(String hash, long attachTime) {
+        return db.imageBlobDao().touchBlob(hash, attachTime);
+    }
+
+    // 未被任何物品引用、且入库时间早于before的图片
+    public List<ImageBlob> getUnreferencedImageBlobs(long before) {
+        return db.imageBlobDao().getUnreferencedBlobs(before);
+    }
+
+    /**
+     * 删除未被引用、且入库时间早于before的图片记录
+     * @return true 已删除；false 已被重新引用、重新入库或记录不存在
+     */
+    public boolean deleteImageBlobIfUnreferenced(String hash, long before) {
+        return db.imageBlobDao().deleteBlobIfUnreferenced(hash, before) > 0;
+    }
 
     // ==================== 物品表操作 ====================
 
+    /**
+     * 新增物品（同一事务内写入名称N-gram倒排表、图片记录及图片引用）
+     */
     public long addItem(Item item) {
         long currentTime = System.currentTimeMillis();
         item.setCreateTime(currentTime);
         item.setUpdateTime(currentTime);
-        return db.itemDao().insertItem(item)[0];
+        fillPinyin(item);
+        long id = db.runInTransaction(() -> {
+            long itemId = db.itemDao().insertItem(item)[0];
+            item.setId(itemId);
+            rebuildItemNgrams(item);
+            rewriteItemImages(item);
+            return itemId;
+        });
+        invalidateItem(id);
+        return id;
     }
 
+    /**
+     * 更新物品（同一事务内重建名称N-gram倒排表；item.images不为null时重写图片记录及图片引用）
+     */
     public int updateItem(Item item) {
         item.setUpdateTime(System.currentTimeMillis());
-        return db.itemDao().updateItem(item);
+        fillPinyin(item);
+        int updated = db.runInTransaction(() -> {
+            int rows = db.itemDao().updateItem(item);
+            if (rows > 0) {
+                rebuildItemNgrams(item);
+                rewriteItemImages(item);
+            }
+            return rows;
+        });
+        invalidateItem(item.getId());
+        return updated;
+    }
+
+    // ==================== 拼音列生成（写入时计算一次，查询时直接走索引） ====================
+
+    private static void fillPinyin(Item item) {
+        item.setNamePinyin(PinyinUtils.toPinyin(item.getName()));
+        item.setNameInitials(PinyinUtils.toInitials(item.getName()));
+    }
+
+    private static void fillPinyin(Category category) {
+        category.setCategoryNamePinyin(PinyinUtils.toPinyin(category.getCategoryName()));
+        category.setCategoryNameInitials(PinyinUtils.toInitials(category.getCategoryName()));
+    }
+
+    private static void fillPinyin(Location location) {
+        location.setNamePinyin(PinyinUtils.toPinyin(location.getName()));
+        location.setNameInitials(PinyinUtils.toInitials(location.getName()));
+    }
+
+    // 重建单个物品的名称词条（物理删除由外键级联清理，无需处理）
+    private void rebuildItemNgrams(Item item) {
+        db.itemNgramDao().deleteNgramsByItemId(item.getId());
+        List<ItemNgram> ngrams = new ArrayList<>();
+        for (String gram : NgramUtils.buildIndexGrams(item.getName())) {
+            ngrams.add(new ItemNgram(gram, item.getId()));
+        }
+        if (!ngrams.isEmpty()) {
+            db.itemNgramDao().insertNgrams(ngrams);
+        }
+    }
+
+    // 重写单个物品的图片记录及图片引用（images为null时不修改；物理删除由外键级联清理，触发器同步减少引用计数）
+    // 图片引用只登记内容存储中的图片
+    private void rewriteItemImages(Item item) {
+        List<ItemImage> images = item.getImages();
+        if (images == null) {
+            return;
+        }
+        db.itemImageDao().deleteImagesByItemId(item.getId());
+        db.imageBlobDao().deleteRefsByItemId(item.getId());
+        if (images.isEmpty()) {
+            return;
+        }
+        List<ItemImageRef> refs = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            ItemImage image = images.get(i);
+            image.setId(0);
+            image.setItemId(item.getId());
+            image.setOrdinal(i);
+            String hash = db.imageBlobDao().getHashByPath(image.getPath());
+            if (hash != null) {
+                refs.add(new ItemImageRef(item.getId(), hash));
+            }
+        }
+        db.itemImageDao().insertImages(images);
+        if (!refs.isEmpty()) {
+            db.imageBlobDao().insertRefs(refs);
+        }
+    }
+
+    // 物品图片（按顺序）
+    public List<ItemImage> getItemImages(long itemId) {
+        return db.itemImageDao().getImagesByItemId(itemId);
+    }
+
+    // 物品第一张图片（列表封面，无图片时返回null）
+    public ItemImage getItemCoverImage(long itemId) {
+        return db.itemImageDao().getFirstImage(itemId);
+    }
+
+    // 元数据尚未读取的图片（一批）
+    public List<ItemImage> getImagesMissingMetadata(int limit) {
+        return db.itemImageDao().getImagesMissingMetadata(limit);
+    }
+
+    // 写入图片元数据（按image.id）
+    public int updateImageMetadata(ItemImage image) {
+        return db.itemImageDao().updateImageMetadata(image.getId(), image.getWidth(), image.getHeight(),
+                image.getOrientation(), image.getByteSize(), image.getThumbPath());
     }
 
     public int deleteItem(Item item) {
-        return db.itemDao().deleteItem(item);
+        int rows = db.itemDao().deleteItem(item);
+        invalidateItem(item.getId());
+        return rows;
     }
 
     public Item getItemByIdNotDeleted(long id) {
         return db.itemDao().getItemByIdNotDeleted(id);
     }
 
+    // 物品详情（含分类/位置名称，单次关联查询）
+    public LiveData<ItemDetail> getItemDetailLive(long id) {
+        return db.itemDao().getItemDetailLive(id);
+    }
+
     public Item getItemById(long id) {
         return db.itemDao().getItemById(id);
     }
@@ -267,10 +603,26 @@ public class DatabaseManager {
         return db.itemDao().getItemByUuid(uuid);
     }
 
+    public boolean existsItemByUuid(String uuid) {
+        return db.itemDao().existsItemByUuid(uuid);
+    }
+
     public LiveData<List<Item>> getAllItems() {
         return db.itemDao().getAllItems();
     }
 
+    /**
+     * 关键词搜索物品（名称+说明）
+     * 纯字母关键词按拼音/首字母前缀检索，并与名称/说明模糊匹配取并集，其余按名称/说明模糊匹配
+     */
+    public LiveData<List<Item>> searchItems(String keyword) {
+        if (PinyinUtils.isPinyinQuery(keyword)) {
+            String prefix = PinyinUtils.normalizePrefix(keyword);
+            return db.itemDao().searchItemByPinyin(prefix, PinyinUtils.prefixUpperBound(prefix), keyword.trim());
+        }
+        return db.itemDao().searchItem(keyword == null ? "" : keyword.trim());
+    }
+
     public List<Item> getExpiredItems(long currentTime, long startDate, long endDate, int isDeleted) {
         return db.itemDao().getExpiredItems(currentTime, startDate, endDate, isDeleted);
     }
@@ -284,6 +636,7 @@ public class DatabaseManager {
         if (item != null) {
             long currentTime = System.currentTimeMillis();
             db.itemDao().markItemAsDeleted(item.getUuid(), currentTime);
+            invalidateItem(itemId);
         }
     }
 
@@ -299,6 +652,7 @@ public class DatabaseManager {
         item.setIsDeleted(0);
         item.setUpdateTime(System.currentTimeMillis());
         int updateResult = db.itemDao().updateItem(item);
+        invalidateItem(itemId);
         Log.d("DatabaseManager", "物品ID=" + itemId + " 更新结果：" + updateResult);
         if (updateResult <= 0) {
             Log.e("DatabaseManager", "恢复失败：物品ID=" + itemId + " 更新isDeleted失败，返回值=" + updateResult);
@@ -313,23 +667,21 @@ public class DatabaseManager {
     }
 
     public int deleteItemById(long itemId) {
-        return db.itemDao().deleteItemById(itemId);
+        int rows = db.itemDao().deleteItemById(itemId);
+        invalidateItem(itemId);
+        return rows;
     }
 
     public int deleteItemsByIds(List<Long> itemIds) {
-        return db.itemDao().deleteItemsByIds(itemIds);
+        int rows = db.itemDao().deleteItemsByIds(itemIds);
+        invalidateItems(itemIds);
+        return rows;
     }
 
     public List<Item> getDeletedItems() {
         return db.itemDao().getDeletedItems();
     }
 
-    // 添加这个方法
-    public LiveData<List<Item>> getDeletedItemsLive() {
-        // 需要在ItemDao中添加对应的LiveData查询方法
-        return db.itemDao().getDeletedItemsLive();
-    }
-
     // ==================== 复杂查询方法 ====================
 
     public LiveData<List<ItemWithName>> queryItemsWithName(
@@ -341,9 +693,11 @@ public class DatabaseManager {
             Integer quantityMax,
             Long expireStart,
             Long expireEnd) {
-        return db.itemDao().queryItemsWithName(
-                keyword, parentCategoryName, childCategoryName, locationName,
-                quantityMin, quantityMax, expireStart, expireEnd);
+        FilterCondition filter = new FilterCondition(keyword, parentCategoryName, childCategoryName, locationName,
+                quantityMin, quantityMax,
+                expireStart != null ? new Date(expireStart) : null,
+                expireEnd != null ? new Date(expireEnd) : null);
+        return queryItemsByFilter(filter);
     }
 
 
@@ -365,31 +719,114 @@ public class DatabaseManager {
         List<Long> locationIds = locationId != null ?
                 Arrays.asList(locationId) : null;
 
-        return db.itemDao().queryItemsByCondition(
-                keyword,
-                parentIds,       // 现在传List
-                childIds,        // 现在传List
-                locationIds,     // 现在传List
-                quantityMin, quantityMax, expireStart, expireEnd);
+        return db.itemDao().queryItemsByCondition(ItemQueryBuilder.buildItemsByConditionQuery(
+                keyword, parentIds, childIds, locationIds,
+                quantityMin, quantityMax, expireStart, expireEnd));
     }
 
+    /**
+     * 按筛选条件查询物品（仅拼接已设置的条件，见ItemQueryBuilder）
+     */
     public LiveData<List<ItemWithName>> queryItemsByFilter(FilterCondition filter) {
-        String keyword = (filter.getSearchKeyword() == null || filter.getSearchKeyword().isEmpty())
-                ? null : filter.getSearchKeyword();
-        String parentCategoryName = (filter.getParentCategory() == null || filter.getParentCategory().isEmpty())
-                ? null : filter.getParentCategory();
-        String childCategoryName = (filter.getChildCategory() == null || filter.getChildCategory().isEmpty())
-                ? null : filter.getChildCategory();
-        String locationName = (filter.getLocation() == null || filter.getLocation().isEmpty())
-                ? null : filter.getLocation();
+        return db.itemDao().queryItemsWithName(ItemQueryBuilder.buildItemsWithNameQuery(filter));
+    }
+
+    /**
+     * 按筛选条件分页查询物品（键集分页，按有效期、ID升序）
+     * 结果经过LRU缓存，相同条件+分页位置重复查询时直接返回（返回的列表不可修改）
+     * @param after 上一页最后一条数据（首页传null）
+     * @param pageSize 每页条数
+     */
+    public List<ItemWithName> queryItemsPageByFilter(FilterCondition filter, ItemWithName after, int pageSize) {
+        Long afterValidTime = after != null ? after.item.getValidTime() : null;
+        Long afterId = after != null ? after.item.getId() : null;
+        ItemQueryCache.Key key = new ItemQueryCache.Key(filter, afterValidTime, afterId, pageSize);
+        List<ItemWithName> cached = itemQueryCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = itemQueryCache.getGeneration();
+        List<ItemWithName> page = db.itemDao().queryItemsWithNameSync(
+                ItemQueryBuilder.buildItemsWithNamePageQuery(filter, afterValidTime, afterId, pageSize));
+        return itemQueryCache.put(key, generation, page);
+    }
+
+    /**
+     * 按筛选条件重新查询已加载的窗口：从首行直到until（含）的全部匹配物品（需在子线程调用）
+     * 用于数据变更后原位刷新列表，不经过分页缓存
+     * @param until 已加载的最后一行（键集分页游标）
+     */
+    public List<ItemWithName> queryItemsUpToByFilter(FilterCondition filter, ItemWithName until) {
+        return db.itemDao().queryItemsWithNameSync(ItemQueryBuilder.buildItemsWithNameUpToQuery(
+                filter, until.item.getValidTime(), until.item.getId()));
+    }
 
-        Long expireStart = filter.getExpireStart() != null ? filter.getExpireStart().getTime() : null;
-        Long expireEnd = filter.getExpireEnd() != null ? filter.getExpireEnd().getTime() : null;
+    /**
+     * 通过内存列式索引按筛选条件查询全部匹配物品（顺序与分页查询一致，需在子线程调用）
+     * 索引在首次调用或表变更后的下一次调用时全量构建
+     * @return 匹配的物品；条件无法在内存中精确匹配时返回null，调用方应改走SQL
+     */
+    public List<ItemWithName> queryItemsByColumnIndex(FilterCondition filter) {
+        return getItemColumnIndex().query(filter);
+    }
 
-        return db.itemDao().queryItemsWithName(
-                keyword, parentCategoryName, childCategoryName, locationName,
-                filter.getQuantityMin(), filter.getQuantityMax(),
-                expireStart, expireEnd);
+    /**
+     * 计算筛选项计数（一次GROUP BY查询，需在子线程调用）
+     */
+    public FacetCounts queryFacetCounts(FilterCondition filter) {
+        FacetCounts.Builder builder = new FacetCounts.Builder(filter);
+        for (FacetCountRow row : db.itemDao().queryFacetCountRows(ItemQueryBuilder.buildFacetCountQuery(filter))) {
+            builder.add(row.parentCategoryName, row.childCategoryName, row.locationName, row.itemCount);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 通过内存列式索引计算筛选项计数（一次遍历，需在子线程调用）
+     * 条件无法在内存中精确匹配时改走SQL
+     */
+    public FacetCounts countFacetsByColumnIndex(FilterCondition filter) {
+        FacetCounts counts = getItemColumnIndex().countFacets(filter);
+        return counts != null ? counts : queryFacetCounts(filter);
+    }
+
+    /**
+     * 获取内存列式索引（已置空时全量构建，需在子线程调用）
+     */
+    public ItemColumnIndex getItemColumnIndex() {
+        long generation;
+        synchronized (columnIndexLock) {
+            if (columnIndex != null) {
+                return columnIndex;
+            }
+            generation = columnIndexGeneration;
+        }
+        ItemColumnIndex index = new ItemColumnIndex(
+                db.itemDao().queryItemsWithNameSync(ItemQueryBuilder.buildActiveItemsWithNameQuery()));
+        synchronized (columnIndexLock) {
+            // 构建期间表有变更时不保留，本次结果仍可返回给调用方
+            if (generation == columnIndexGeneration) {
+                columnIndex = index;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 设置物品查询缓存容量（最多缓存的页数）
+     */
+    public void setItemQueryCacheSize(int maxPages) {
+        itemQueryCache.resize(maxPages);
+    }
+
+    /** 物品查询缓存命中次数（用于调整缓存容量） */
+    public int getItemQueryCacheHitCount() {
+        return itemQueryCache.hitCount();
+    }
+
+    /** 物品查询缓存未命中次数 */
+    public int getItemQueryCacheMissCount() {
+        return itemQueryCache.missCount();
     }
 
 
@@ -522,24 +959,43 @@ public class DatabaseManager {
                 .toList();
         long updateTime = System.currentTimeMillis();
         db.itemDao().batchMarkDeleted(uuidList, updateTime);
+        invalidateItems(itemIds);
     }
 
     // 封装：恢复回收站物品（按uuid，上层无需接触Dao）
     public void restoreItemFromRecycle(String uuid) {
         long updateTime = System.currentTimeMillis();
         db.itemDao().restoreItemFromRecycle(uuid, updateTime);
+        invalidateItemQueries();
     }
 
     // 封装：批量恢复回收站物品（按uuidList，上层无需接触Dao）
     public void batchRestoreFromRecycle(List<String> uuidList) {
         long updateTime = System.currentTimeMillis();
         db.itemDao().batchRestoreFromRecycle(uuidList, updateTime);
+        invalidateItemQueries();
     }
 
-    // 封装：获取回收站物品（分页+关键词，上层无需处理offset）
-    public LiveData<List<Item>> getRecycleItems(String keyword, int pageNum, int pageSize) {
-        int offset = (pageNum - 1) * pageSize;
-        return db.itemDao().getRecycleItems(keyword, pageSize, offset);
+    /**
+     * 封装：分页获取回收站物品及分类/位置名称（键集分页，按删除时间倒序）
+     * @param keyword 名称关键词（可为null，查询全部）
+     * @param after 上一页最后一个物品（首页传null）
+     * @param pageSize 每页条数
+     */
+    public List<ItemWithName> getRecycleItemsPage(String keyword, ItemWithName after, int pageSize) {
+        if (after == null) {
+            return db.itemDao().getRecycleItemsFirstPage(keyword, pageSize);
+        }
+        return db.itemDao().getRecycleItemsPageAfter(keyword, after.item.getUpdateTime(), after.item.getId(), pageSize);
+    }
+
+    /**
+     * 封装：重新获取回收站已加载的窗口（首行直到until，含），用于数据变更后原位刷新
+     * @param keyword 名称关键词（可为null，查询全部）
+     * @param until 已加载的最后一个物品（键集分页游标）
+     */
+    public List<ItemWithName> getRecycleItemsUpTo(String keyword, ItemWithName until) {
+        return db.itemDao().getRecycleItemsUpTo(keyword, until.item.getUpdateTime(), until.item.getId());
     }
 
     // 封装：获取回收站物品总数（上层无需调用Dao）
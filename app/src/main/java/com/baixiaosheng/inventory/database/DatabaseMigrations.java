@@ -0,0 +1,352 @@
+package com.baixiaosheng.inventory.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.baixiaosheng.inventory.database.entity.ItemCounter;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+import com.baixiaosheng.inventory.utils.NgramUtils;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
+
+/**
+ * 数据库版本迁移脚本
+ * 每次升级InventoryDatabase版本号时在此追加对应的Migration，并在ALL中注册
+ */
+public final class DatabaseMigrations {
+
+    private DatabaseMigrations() {}
+
+    /**
+     * 1 → 2：为item/category/location/recycle补充索引
+     * 索引名遵循Room的 index_表名_列名 规则，保证迁移后的表结构与实体声明一致
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // 建唯一索引前先修正重复uuid（保留最早的一条，其余重新生成）
+            db.execSQL("UPDATE item SET uuid = lower(hex(randomblob(16))) " +
+                    "WHERE uuid IS NOT NULL AND id NOT IN (SELECT MIN(id) FROM item WHERE uuid IS NOT NULL GROUP BY uuid)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_isDeleted_validTime` ON `item` (`isDeleted`, `validTime`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_isDeleted_updateTime` ON `item` (`isDeleted`, `updateTime`)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_item_uuid` ON `item` (`uuid`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_parentCategoryId_childCategoryId` ON `item` (`parentCategoryId`, `childCategoryId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_childCategoryId` ON `item` (`childCategoryId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_locationId` ON `item` (`locationId`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_category_parentCategoryId_categoryName` ON `category` (`parentCategoryId`, `categoryName`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_location_name` ON `location` (`name`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recycle_itemId` ON `recycle` (`itemId`)");
+        }
+    };
+
+    /**
+     * 2 → 3：新增item_fts全文检索表及同步触发器（与Room为@Fts4(contentEntity)生成的语句一致）
+     * 创建后执行rebuild，用item表现有数据填充索引
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `item_fts` USING FTS4(`name` TEXT, `remark` TEXT, tokenize=unicode61, content=`item`)");
+            createItemFtsTriggers(db);
+            db.execSQL("INSERT INTO `item_fts`(`item_fts`) VALUES ('rebuild')");
+        }
+    };
+
+    /**
+     * 3 → 4：新增item_ngram名称倒排表，并为已有物品生成词条
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_ngram` (`gram` TEXT NOT NULL, `itemId` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`gram`, `itemId`), " +
+                    "FOREIGN KEY(`itemId`) REFERENCES `item`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_ngram_itemId` ON `item_ngram` (`itemId`)");
+
+            try (Cursor cursor = db.query("SELECT id, name FROM item")) {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    long itemId = cursor.getLong(0);
+                    for (String gram : NgramUtils.buildIndexGrams(cursor.getString(1))) {
+                        values.clear();
+                        values.put("gram", gram);
+                        values.put("itemId", itemId);
+                        db.insert("item_ngram", SQLiteDatabase.CONFLICT_IGNORE, values);
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * 4 → 5：item/category/location新增名称全拼、首字母列及索引，并为已有数据生成拼音
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `item` ADD COLUMN `namePinyin` TEXT");
+            db.execSQL("ALTER TABLE `item` ADD COLUMN `nameInitials` TEXT");
+            db.execSQL("ALTER TABLE `category` ADD COLUMN `categoryNamePinyin` TEXT");
+            db.execSQL("ALTER TABLE `category` ADD COLUMN `categoryNameInitials` TEXT");
+            db.execSQL("ALTER TABLE `location` ADD COLUMN `namePinyin` TEXT");
+            db.execSQL("ALTER TABLE `location` ADD COLUMN `nameInitials` TEXT");
+
+            fillPinyinColumns(db, "item", "name", "namePinyin", "nameInitials");
+            fillPinyinColumns(db, "category", "categoryName", "categoryNamePinyin", "categoryNameInitials");
+            fillPinyinColumns(db, "location", "name", "namePinyin", "nameInitials");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_namePinyin` ON `item` (`namePinyin`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_nameInitials` ON `item` (`nameInitials`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_category_categoryNamePinyin` ON `category` (`categoryNamePinyin`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_category_categoryNameInitials` ON `category` (`categoryNameInitials`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_location_namePinyin` ON `location` (`namePinyin`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_location_nameInitials` ON `location` (`nameInitials`)");
+        }
+    };
+
+    /**
+     * 5 → 6：新增item_counter计数表及维护触发器，并按item表现有数据回填
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_counter` (`kind` INTEGER NOT NULL, `refId` INTEGER NOT NULL, " +
+                    "`activeCount` INTEGER NOT NULL, PRIMARY KEY(`kind`, `refId`))");
+            createItemCounterTriggers(db);
+            rebuildItemCounters(db);
+        }
+    };
+
+    /**
+     * 6 → 7：新增image_blob图片内容表、item_image_ref物品-图片引用表及引用计数触发器
+     * 已有图片不在内容存储中，保持原路径不受管理（不会被垃圾回收）
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `image_blob` (`hash` TEXT NOT NULL, `path` TEXT NOT NULL, " +
+                    "`byteSize` INTEGER NOT NULL, `refCount` INTEGER NOT NULL, `attachTime` INTEGER NOT NULL, PRIMARY KEY(`hash`))");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_image_blob_path` ON `image_blob` (`path`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_image_ref` (`itemId` INTEGER NOT NULL, `hash` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`itemId`, `hash`), " +
+                    "FOREIGN KEY(`itemId`) REFERENCES `item`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_ref_hash` ON `item_image_ref` (`hash`)");
+            createImageRefTriggers(db);
+        }
+    };
+
+    /**
+     * 7 → 8：图片从item.imagePaths（逗号拼接）迁移到item_image表，每张图片一行
+     * 迁移中只复制路径和顺序，不访问图片文件；宽高等元数据标记为未读取，由ImageStore.fillMissingImageMetadata在后台补全
+     * SQLite（minSdk 24）不支持DROP COLUMN，按新结构重建item表后复制数据（id不变，item_fts的docid仍对应），
+     * 再重建item上的索引及全文检索、计数触发器
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_image` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`itemId` INTEGER NOT NULL, `ordinal` INTEGER NOT NULL, `path` TEXT NOT NULL, `width` INTEGER NOT NULL, " +
+                    "`height` INTEGER NOT NULL, `orientation` INTEGER NOT NULL, `byteSize` INTEGER NOT NULL, `thumbPath` TEXT, " +
+                    "FOREIGN KEY(`itemId`) REFERENCES `item`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_itemId` ON `item_image` (`itemId`)");
+
+            try (Cursor cursor = db.query("SELECT id, imagePaths FROM item WHERE imagePaths IS NOT NULL AND imagePaths != ''")) {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    long itemId = cursor.getLong(0);
+                    int ordinal = 0;
+                    for (String path : cursor.getString(1).split(",")) {
+                        if (path.trim().isEmpty()) {
+                            continue;
+                        }
+                        values.clear();
+                        values.put("itemId", itemId);
+                        values.put("ordinal", ordinal++);
+                        values.put("path", path.trim());
+                        values.put("width", 0);
+                        values.put("height", 0);
+                        values.put("orientation", 0);
+                        values.put("byteSize", ItemImage.BYTE_SIZE_UNKNOWN);
+                        db.insert("item_image", SQLiteDatabase.CONFLICT_NONE, values);
+                    }
+                }
+            }
+
+            String columns = "`id`, `uuid`, `name`, `namePinyin`, `nameInitials`, `parentCategoryId`, `childCategoryId`, " +
+                    "`locationId`, `validTime`, `count`, `remark`, `createTime`, `updateTime`, `isDeleted`";
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `uuid` TEXT, " +
+                    "`name` TEXT, `namePinyin` TEXT, `nameInitials` TEXT, `parentCategoryId` INTEGER NOT NULL, " +
+                    "`childCategoryId` INTEGER NOT NULL, `locationId` INTEGER NOT NULL, `validTime` INTEGER NOT NULL, " +
+                    "`count` INTEGER NOT NULL, `remark` TEXT, `createTime` INTEGER NOT NULL, `updateTime` INTEGER NOT NULL, " +
+                    "`isDeleted` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `item_new` (" + columns + ") SELECT " + columns + " FROM `item`");
+            // 删除旧表时其上的索引和触发器一并删除（迁移期间外键约束未启用，子表数据不受影响）
+            db.execSQL("DROP TABLE `item`");
+            db.execSQL("ALTER TABLE `item_new` RENAME TO `item`");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_isDeleted_validTime` ON `item` (`isDeleted`, `validTime`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_isDeleted_updateTime` ON `item` (`isDeleted`, `updateTime`)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_item_uuid` ON `item` (`uuid`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_parentCategoryId_childCategoryId` ON `item` (`parentCategoryId`, `childCategoryId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_childCategoryId` ON `item` (`childCategoryId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_locationId` ON `item` (`locationId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_namePinyin` ON `item` (`namePinyin`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_nameInitials` ON `item` (`nameInitials`)");
+            createItemFtsTriggers(db);
+            createItemCounterTriggers(db);
+        }
+    };
+
+    /**
+     * 8 → 9：item_counter新增KIND_SELF_PAIR计数（父、子分类相同的物品），分类关联数不再回查item表
+     * 表结构不变：重建计数触发器并按item表回填
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            dropItemCounterTriggers(db);
+            createItemCounterTriggers(db);
+            rebuildItemCounters(db);
+        }
+    };
+
+    /**
+     * 9 → 10：删除item_fts全文检索表及其同步触发器
+     * unicode61分词不切分中文，无法按中文子串命中；关键词检索由item_ngram与拼音列承担，该表只增加写入开销
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_item_fts_BEFORE_UPDATE");
+            db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_item_fts_BEFORE_DELETE");
+            db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_item_fts_AFTER_UPDATE");
+            db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_item_fts_AFTER_INSERT");
+            db.execSQL("DROP TABLE IF EXISTS `item_fts`");
+        }
+    };
+
+    // 全部迁移脚本（按版本顺序）
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+
+    /**
+     * 创建item_fts的内容同步触发器（与Room为@Fts4(contentEntity)生成的语句一致，2 → 3与7 → 8迁移共用，9 → 10删除）
+     */
+    static void createItemFtsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_BEFORE_UPDATE BEFORE UPDATE ON `item` " +
+                "BEGIN DELETE FROM `item_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_BEFORE_DELETE BEFORE DELETE ON `item` " +
+                "BEGIN DELETE FROM `item_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_AFTER_UPDATE AFTER UPDATE ON `item` " +
+                "BEGIN INSERT INTO `item_fts`(`docid`, `name`, `remark`) VALUES (NEW.`rowid`, NEW.`name`, NEW.`remark`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_AFTER_INSERT AFTER INSERT ON `item` " +
+                "BEGIN INSERT INTO `item_fts`(`docid`, `name`, `remark`) VALUES (NEW.`rowid`, NEW.`name`, NEW.`remark`); END");
+    }
+
+    /**
+     * 创建item_counter的维护触发器（新建数据库与5 → 6、7 → 8、8 → 9迁移共用）
+     * 只统计isDeleted = 0的物品：插入/物理删除时增减，更新时若删除状态或分类/位置变化，先减旧值再加新值
+     */
+    static void createItemCounterTriggers(SupportSQLiteDatabase db) {
+        String changed = "(OLD.isDeleted != NEW.isDeleted OR OLD.parentCategoryId != NEW.parentCategoryId " +
+                "OR OLD.childCategoryId != NEW.childCategoryId OR OLD.locationId != NEW.locationId)";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS item_counter_AFTER_INSERT AFTER INSERT ON `item` " +
+                "WHEN NEW.isDeleted = 0 BEGIN " + adjustCounters("NEW", 1) + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS item_counter_AFTER_DELETE AFTER DELETE ON `item` " +
+                "WHEN OLD.isDeleted = 0 BEGIN " + adjustCounters("OLD", -1) + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS item_counter_AFTER_UPDATE_OLD " +
+                "AFTER UPDATE OF isDeleted, parentCategoryId, childCategoryId, locationId ON `item` " +
+                "WHEN OLD.isDeleted = 0 AND " + changed + " BEGIN " + adjustCounters("OLD", -1) + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS item_counter_AFTER_UPDATE_NEW " +
+                "AFTER UPDATE OF isDeleted, parentCategoryId, childCategoryId, locationId ON `item` " +
+                "WHEN NEW.isDeleted = 0 AND " + changed + " BEGIN " + adjustCounters("NEW", 1) + "END");
+    }
+
+    // 删除item_counter的维护触发器（触发器体变化时先删后建）
+    private static void dropItemCounterTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS item_counter_AFTER_INSERT");
+        db.execSQL("DROP TRIGGER IF EXISTS item_counter_AFTER_DELETE");
+        db.execSQL("DROP TRIGGER IF EXISTS item_counter_AFTER_UPDATE_OLD");
+        db.execSQL("DROP TRIGGER IF EXISTS item_counter_AFTER_UPDATE_NEW");
+    }
+
+    /**
+     * 按item表全量重建item_counter（迁移回填及一致性校验失败时使用，需在事务中调用）
+     */
+    static void rebuildItemCounters(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM `item_counter`");
+        db.execSQL("INSERT INTO `item_counter` (kind, refId, activeCount) SELECT " + ItemCounter.KIND_PARENT_CATEGORY +
+                ", parentCategoryId, COUNT(*) FROM `item` WHERE isDeleted = 0 GROUP BY parentCategoryId");
+        db.execSQL("INSERT INTO `item_counter` (kind, refId, activeCount) SELECT " + ItemCounter.KIND_CHILD_CATEGORY +
+                ", childCategoryId, COUNT(*) FROM `item` WHERE isDeleted = 0 GROUP BY childCategoryId");
+        db.execSQL("INSERT INTO `item_counter` (kind, refId, activeCount) SELECT " + ItemCounter.KIND_LOCATION +
+                ", locationId, COUNT(*) FROM `item` WHERE isDeleted = 0 GROUP BY locationId");
+        db.execSQL("INSERT INTO `item_counter` (kind, refId, activeCount) SELECT " + ItemCounter.KIND_SELF_PAIR +
+                ", parentCategoryId, COUNT(*) FROM `item` WHERE isDeleted = 0 AND parentCategoryId = childCategoryId " +
+                "GROUP BY parentCategoryId");
+    }
+
+    /**
+     * 创建image_blob.refCount的维护触发器（新建数据库与6 → 7迁移共用）
+     * 引用插入/删除时增减；物品物理删除经外键级联删除引用，同样会触发
+     */
+    static void createImageRefTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS image_ref_AFTER_INSERT AFTER INSERT ON `item_image_ref` " +
+                "BEGIN UPDATE `image_blob` SET refCount = refCount + 1 WHERE hash = NEW.hash; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS image_ref_AFTER_DELETE AFTER DELETE ON `item_image_ref` " +
+                "BEGIN UPDATE `image_blob` SET refCount = refCount - 1 WHERE hash = OLD.hash; END");
+    }
+
+    // 触发器体：对row（NEW/OLD）所属的父分类、子分类、位置三个计数各加delta（计数行不存在时先补0）；
+    // 父、子分类相同时同时调整该分类的KIND_SELF_PAIR计数
+    private static String adjustCounters(String row, int delta) {
+        StringBuilder sql = new StringBuilder();
+        appendAdjust(sql, ItemCounter.KIND_PARENT_CATEGORY, row + ".parentCategoryId", delta, null);
+        appendAdjust(sql, ItemCounter.KIND_CHILD_CATEGORY, row + ".childCategoryId", delta, null);
+        appendAdjust(sql, ItemCounter.KIND_LOCATION, row + ".locationId", delta, null);
+        appendAdjust(sql, ItemCounter.KIND_SELF_PAIR, row + ".parentCategoryId", delta,
+                row + ".parentCategoryId = " + row + ".childCategoryId");
+        return sql.toString();
+    }
+
+    // condition不为null时，只在条件成立时调整
+    private static void appendAdjust(StringBuilder sql, int kind, String refId, int delta, String condition) {
+        String where = condition == null ? "" : " WHERE " + condition;
+        String and = condition == null ? "" : " AND " + condition;
+        sql.append("INSERT OR IGNORE INTO `item_counter` (kind, refId, activeCount) SELECT ")
+                .append(kind).append(", ").append(refId).append(", 0").append(where).append("; ");
+        sql.append("UPDATE `item_counter` SET activeCount = activeCount + (").append(delta)
+                .append(") WHERE kind = ").append(kind).append(" AND refId = ").append(refId).append(and).append("; ");
+    }
+
+    // 按名称列为整张表生成拼音列
+    private static void fillPinyinColumns(SupportSQLiteDatabase db, String table, String nameColumn,
+                                          String pinyinColumn, String initialsColumn) {
+        try (Cursor cursor = db.query("SELECT id, `" + nameColumn + "` FROM `" + table + "`")) {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                String name = cursor.getString(1);
+                values.clear();
+                values.put(pinyinColumn, PinyinUtils.toPinyin(name));
+                values.put(initialsColumn, PinyinUtils.toInitials(name));
+                db.update(table, SQLiteDatabase.CONFLICT_NONE, values, "id = ?",
+                        new Object[]{cursor.getLong(0)});
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.baixiaosheng.inventory.database;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+
+import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.Location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 分类/位置字典缓存（进程级单例，线程安全）
+ * 持有 id→实体、(父分类ID, 名称)→id 的哈希表，名称与ID互查均为O(1)
+ * 通过Room的InvalidationTracker监听category/location表变更，只更新发生变化的那张表：
+ * 只读取updateTime不早于快照最大值的行（DatabaseManager的写方法新增、修改时都会刷新updateTime），
+ * 行数与快照不一致时再读取ID列表剔除已删除的行，不再整表重读
+ * 每次更新生成新的不可变快照并整体替换，读取方无需加锁；
+ * 首次读取时若后台加载尚未完成，在调用线程同步加载，不返回空字典
+ */
+public class DictionaryCache {
+    private static final String TABLE_CATEGORY = "category";
+    private static final String TABLE_LOCATION = "location";
+
+    private static volatile DictionaryCache INSTANCE;
+
+    private final InventoryDatabase db;
+    // 单线程重建，避免并发查询
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    // 合并短时间内的多次变更通知（已排队的重建未执行前不再重复提交）
+    private final AtomicBoolean categoryReloadPending = new AtomicBoolean(false);
+    private final AtomicBoolean locationReloadPending = new AtomicBoolean(false);
+
+    // 快照为null表示尚未加载；写入快照在对应的锁内进行（后台更新与首次同步加载互斥）
+    private final Object categoryLock = new Object();
+    private final Object locationLock = new Object();
+    private volatile Categories categories;
+    private volatile Locations locations;
+    private final MutableLiveData<Categories> categoriesLive = new MutableLiveData<>();
+    private final MutableLiveData<Locations> locationsLive = new MutableLiveData<>();
+
+    private DictionaryCache(Context context) {
+        db = InventoryDatabase.getInstance(context);
+        db.getInvalidationTracker().addObserver(new InvalidationTracker.Observer(TABLE_CATEGORY, TABLE_LOCATION) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                if (tables.contains(TABLE_CATEGORY)) {
+                    reloadCategories();
+                }
+                if (tables.contains(TABLE_LOCATION)) {
+                    reloadLocations();
+                }
+            }
+        });
+        reloadCategories();
+        reloadLocations();
+    }
+
+    public static DictionaryCache getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (DictionaryCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DictionaryCache(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 当前分类字典快照（后台首次加载尚未完成时在调用线程同步加载）
+     */
+    public Categories getCategories() {
+        Categories snapshot = categories;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (categoryLock) {
+            if (categories == null) {
+                categories = new Categories(db.categoryDao().listAllCategories());
+                categoriesLive.postValue(categories);
+            }
+            return categories;
+        }
+    }
+
+    /**
+     * 当前位置字典快照（后台首次加载尚未完成时在调用线程同步加载）
+     */
+    public Locations getLocations() {
+        Locations snapshot = locations;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (locationLock) {
+            if (locations == null) {
+                locations = new Locations(db.locationDao().getAllLocations());
+                locationsLive.postValue(locations);
+            }
+            return locations;
+        }
+    }
+
+    /**
+     * 分类字典LiveData：首次加载及每次category表变更重建后发送新快照
+     */
+    public LiveData<Categories> getCategoriesLive() {
+        return categoriesLive;
+    }
+
+    /**
+     * 位置字典LiveData：首次加载及每次location表变更重建后发送新快照
+     */
+    public LiveData<Locations> getLocationsLive() {
+        return locationsLive;
+    }
+
+    private void reloadCategories() {
+        if (!categoryReloadPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            categoryReloadPending.set(false);
+            Categories updated;
+            synchronized (categoryLock) {
+                updated = categories == null
+                        ? new Categories(db.categoryDao().listAllCategories())
+                        : refreshCategories(categories);
+                categories = updated;
+            }
+            categoriesLive.postValue(updated);
+        });
+    }
+
+    // 在base上合并新增/修改的行，有删除时按ID列表剔除；合并结果仍与表不一致（并发写入）时整表重读
+    private Categories refreshCategories(Categories base) {
+        List<Category> changed = db.categoryDao().listCategoriesUpdatedSince(base.maxUpdateTime);
+        Categories merged = base.merge(changed, null);
+        if (merged.size() == db.categoryDao().countCategories()) {
+            return merged;
+        }
+        Set<Long> ids = new HashSet<>(db.categoryDao().listCategoryIds());
+        merged = base.merge(changed, ids);
+        return merged.size() == ids.size() ? merged : new Categories(db.categoryDao().listAllCategories());
+    }
+
+    private void reloadLocations() {
+        if (!locationReloadPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            locationReloadPending.set(false);
+            Locations updated;
+            synchronized (locationLock) {
+                updated = locations == null
+                        ? new Locations(db.locationDao().getAllLocations())
+                        : refreshLocations(locations);
+                locations = updated;
+            }
+            locationsLive.postValue(updated);
+        });
+    }
+
+    // 同refreshCategories
+    private Locations refreshLocations(Locations base) {
+        List<Location> changed = db.locationDao().getLocationsUpdatedSince(base.maxUpdateTime);
+        Locations merged = base.merge(changed, null);
+        if (merged.size() == db.locationDao().countLocations()) {
+            return merged;
+        }
+        Set<Long> ids = new HashSet<>(db.locationDao().getLocationIds());
+        merged = base.merge(changed, ids);
+        return merged.size() == ids.size() ? merged : new Locations(db.locationDao().getAllLocations());
+    }
+
+    // ==================== 不可变快照 ====================
+
+    /**
+     * 分类字典快照（构建后只读）
+     */
+    public static final class Categories {
+        // 与CategoryDao.listAllCategories的排序一致
+        private static final Comparator<Category> ORDER = (a, b) -> {
+            if (a.getParentCategoryId() != b.getParentCategoryId()) {
+                return Long.compare(a.getParentCategoryId(), b.getParentCategoryId());
+            }
+            if (a.getCreateTime() != b.getCreateTime()) {
+                return Long.compare(b.getCreateTime(), a.getCreateTime());
+            }
+            return Long.compare(b.getId(), a.getId());
+        };
+
+        private final List<Category> all;
+        // 快照中最大的updateTime，增量更新时只读取不早于它的行
+        private final long maxUpdateTime;
+        private final Map<Long, Category> byId = new HashMap<>();
+        // 父分类ID → (名称 → 分类ID)
+        private final Map<Long, Map<String, Long>> idByParentAndName = new HashMap<>();
+        // 父分类ID → 按名称排序的子分类（顶级分类的父ID为0）
+        private final Map<Long, List<Category>> childrenByParent = new HashMap<>();
+
+        Categories(List<Category> source) {
+            all = Collections.unmodifiableList(new ArrayList<>(source));
+            Map<Long, List<Category>> children = new HashMap<>();
+            long maxTime = 0;
+            for (Category category : source) {
+                maxTime = Math.max(maxTime, category.getUpdateTime());
+                byId.put(category.getId(), category);
+                Map<String, Long> names = idByParentAndName.get(category.getParentCategoryId());
+                if (names == null) {
+                    names = new HashMap<>();
+                    idByParentAndName.put(category.getParentCategoryId(), names);
+                }
+                // 同名分类保留第一条（与原先按列表顺序线性匹配的结果一致）
+                if (!names.containsKey(category.getCategoryName())) {
+                    names.put(category.getCategoryName(), category.getId());
+                }
+                List<Category> list = children.get(category.getParentCategoryId());
+                if (list == null) {
+                    list = new ArrayList<>();
+                    children.put(category.getParentCategoryId(), list);
+                }
+                list.add(category);
+            }
+            Comparator<Category> byName = (a, b) -> {
+                String nameA = a.getCategoryName() == null ? "" : a.getCategoryName();
+                String nameB = b.getCategoryName() == null ? "" : b.getCategoryName();
+                return nameA.compareTo(nameB);
+            };
+            for (Map.Entry<Long, List<Category>> entry : children.entrySet()) {
+                Collections.sort(entry.getValue(), byName);
+                childrenByParent.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+            maxUpdateTime = maxTime;
+        }
+
+        /**
+         * 合并变更生成新快照（本快照不变）
+         * @param changed 新增或修改的分类（按ID替换）
+         * @param existingIds 表中现有的全部ID，不为null时剔除其余的行
+         */
+        Categories merge(List<Category> changed, Set<Long> existingIds) {
+            Map<Long, Category> merged = new HashMap<>(byId);
+            for (Category category : changed) {
+                merged.put(category.getId(), category);
+            }
+            if (existingIds != null) {
+                merged.keySet().retainAll(existingIds);
+            }
+            List<Category> list = new ArrayList<>(merged.values());
+            Collections.sort(list, ORDER);
+            return new Categories(list);
+        }
+
+        int size() {
+            return all.size();
+        }
+
+        /** 全部分类（listAllCategories的顺序） */
+        public List<Category> getAll() {
+            return all;
+        }
+
+        /** 按ID获取分类，不存在返回null */
+        public Category get(long id) {
+            return byId.get(id);
+        }
+
+        /** 按ID获取分类名称，不存在返回null */
+        public String getName(long id) {
+            Category category = byId.get(id);
+            return category == null ? null : category.getCategoryName();
+        }
+
+        /**
+         * 按父分类ID+名称获取分类ID
+         * @param parentId 父分类ID（查顶级分类传0）
+         * @return 分类ID，不存在返回0
+         */
+        public long getId(long parentId, String name) {
+            Map<String, Long> names = idByParentAndName.get(parentId);
+            Long id = (names == null || name == null) ? null : names.get(name);
+            return id == null ? 0 : id;
+        }
+
+        /** 顶级分类（按名称排序） */
+        public List<Category> getTopLevel() {
+            return getChildren(0);
+        }
+
+        /** 指定父分类下的子分类（按名称排序） */
+        public List<Category> getChildren(long parentId) {
+            List<Category> children = childrenByParent.get(parentId);
+            return children == null ? Collections.emptyList() : children;
+        }
+    }
+
+    /**
+     * 位置字典快照（构建后只读）
+     */
+    public static final class Locations {
+        // 与LocationDao.getAllLocations的排序一致
+        private static final Comparator<Location> ORDER = (a, b) -> {
+            if (a.getCreateTime() != b.getCreateTime()) {
+                return Long.compare(b.getCreateTime(), a.getCreateTime());
+            }
+            return Long.compare(b.getId(), a.getId());
+        };
+
+        private final List<Location> all;
+        private final Map<Long, Location> byId = new HashMap<>();
+        // 去除首尾空白后的名称 → 使用该名称的全部位置ID（按all的顺序）
+        private final Map<String, List<Long>> idsByName = new HashMap<>();
+        // 快照中最大的updateTime，增量更新时只读取不早于它的行
+        private final long maxUpdateTime;
+
+        Locations(List<Location> source) {
+            all = Collections.unmodifiableList(new ArrayList<>(source));
+            long maxTime = 0;
+            for (Location location : source) {
+                maxTime = Math.max(maxTime, location.getUpdateTime());
+                byId.put(location.getId(), location);
+                String key = normalize(location.getName());
+                List<Long> ids = idsByName.get(key);
+                if (ids == null) {
+                    ids = new ArrayList<>(1);
+                    idsByName.put(key, ids);
+                }
+                ids.add(location.getId());
+            }
+            maxUpdateTime = maxTime;
+        }
+
+        /**
+         * 合并变更生成新快照（本快照不变）
+         * @param changed 新增或修改的位置（按ID替换）
+         * @param existingIds 表中现有的全部ID，不为null时剔除其余的行
+         */
+        Locations merge(List<Location> changed, Set<Long> existingIds) {
+            Map<Long, Location> merged = new HashMap<>(byId);
+            for (Location location : changed) {
+                merged.put(location.getId(), location);
+            }
+            if (existingIds != null) {
+                merged.keySet().retainAll(existingIds);
+            }
+            List<Location> list = new ArrayList<>(merged.values());
+            Collections.sort(list, ORDER);
+            return new Locations(list);
+        }
+
+        int size() {
+            return all.size();
+        }
+
+        /** 全部位置（getAllLocations的顺序） */
+        public List<Location> getAll() {
+            return all;
+        }
+
+        /** 按ID获取位置，不存在返回null */
+        public Location get(long id) {
+            return byId.get(id);
+        }
+
+        /** 按ID获取位置名称，不存在返回null */
+        public String getName(long id) {
+            Location location = byId.get(id);
+            return location == null ? null : location.getName();
+        }
+
+        /** 按名称获取位置ID（同名位置取排在最前的一个），不存在返回0 */
+        public long getId(String name) {
+            List<Long> ids = idsByName.get(normalize(name));
+            return ids == null ? 0 : ids.get(0);
+        }
+
+        /** 名称是否已被其他位置使用（排除excludeId；已有同名位置时，编辑其中任一个都算重复） */
+        public boolean isNameDuplicate(String name, long excludeId) {
+            if (name == null || name.trim().isEmpty()) {
+                return false;
+            }
+            List<Long> ids = idsByName.get(normalize(name));
+            if (ids == null) {
+                return false;
+            }
+            for (long id : ids) {
+                if (id != excludeId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String normalize(String name) {
+            return name == null ? "" : name.trim();
+        }
+    }
+}
@@ -2,28 +2,42 @@ package com.baixiaosheng.inventory.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.baixiaosheng.inventory.database.dao.CategoryDao;
+import com.baixiaosheng.inventory.database.dao.ImageBlobDao;
+import com.baixiaosheng.inventory.database.dao.ItemCounterDao;
 import com.baixiaosheng.inventory.database.dao.ItemDao;
+import com.baixiaosheng.inventory.database.dao.ItemImageDao;
+import com.baixiaosheng.inventory.database.dao.ItemNgramDao;
 import com.baixiaosheng.inventory.database.dao.LocationDao;
 import com.baixiaosheng.inventory.database.dao.RecycleDao;
 import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.ImageBlob;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemCounter;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+import com.baixiaosheng.inventory.database.entity.ItemImageRef;
+import com.baixiaosheng.inventory.database.entity.ItemNgram;
 import com.baixiaosheng.inventory.database.entity.Location;
 import com.baixiaosheng.inventory.database.entity.Recycle;
 
 /**
  * Room数据库核心类（单例模式）
- * 版本号：1（后续升级需修改版本号并编写迁移脚本）
- * 包含4张表：Category、Location、Item、Recycle
+ * 版本号：10（升级需修改版本号并在DatabaseMigrations中编写迁移脚本）
+ * 包含4张表：Category、Location、Item、Recycle，以及item的名称N-gram倒排表ItemNgram、
+ * 触发器维护的分类/位置物品计数表ItemCounter、物品图片表ItemImage、图片内容表ImageBlob及物品-图片引用表ItemImageRef
+ * Schema导出到 app/schemas（见build.gradle的room.schemaLocation），需随代码一起提交
  */
 @Database(
-        entities = {Category.class, Location.class, Item.class, Recycle.class},
-        version = 1,
-        exportSchema = false // 国内环境关闭Schema导出，避免报错
+        entities = {Category.class, Location.class, Item.class, Recycle.class, ItemNgram.class,
+                ItemCounter.class, ItemImage.class, ImageBlob.class, ItemImageRef.class},
+        version = 10,
+        exportSchema = true
 )
 public abstract class InventoryDatabase extends RoomDatabase {
     // 数据库名称
@@ -36,6 +50,19 @@ public abstract class InventoryDatabase extends RoomDatabase {
     public abstract LocationDao locationDao();
     public abstract ItemDao itemDao();
     public abstract RecycleDao recycleDao();
+    public abstract ItemNgramDao itemNgramDao();
+    public abstract ItemCounterDao itemCounterDao();
+    public abstract ItemImageDao itemImageDao();
+    public abstract ImageBlobDao imageBlobDao();
+
+    // 新建数据库时创建item_counter、image_blob引用计数维护触发器（Room不管理触发器，升级路径见MIGRATION_5_6、MIGRATION_6_7、MIGRATION_8_9）
+    static final Callback CREATE_TRIGGERS_CALLBACK = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            DatabaseMigrations.createItemCounterTriggers(db);
+            DatabaseMigrations.createImageRefTriggers(db);
+        }
+    };
 
     // 单例获取方法（线程安全）
     public static InventoryDatabase getInstance(Context context) {
@@ -49,6 +76,8 @@ public abstract class InventoryDatabase extends RoomDatabase {
                                     DATABASE_NAME
                             )
                             // .allowMainThreadQueries() 注意：正式环境需替换为异步操作，此处为测试方便
+                            .addMigrations(DatabaseMigrations.ALL)
+                            .addCallback(CREATE_TRIGGERS_CALLBACK)
                             .build();
                 }
             }
@@ -0,0 +1,240 @@
+package com.baixiaosheng.inventory.database;
+
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.model.FacetCounts;
+import com.baixiaosheng.inventory.model.FilterCondition;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 未删除物品的内存列式索引（不可变快照，线程安全）
+ * 行按 (validTime, id) 升序排列，与分页查询顺序一致；各字段按列存成基本类型数组，
+ * 分类/位置条件按名称预建位图，筛选时先做位图求交，再按有效期二分截取区间，最后逐行校验数量与关键词
+ * 匹配规则与ItemQueryBuilder一致（关键词部分复用ItemResultRefiner）
+ * 物品写入后由withItems生成新快照（只替换变更的行）；分类/位置增删改后由DatabaseManager整体重建
+ */
+public final class ItemColumnIndex {
+    // 行顺序：与分页查询相同的 (validTime, id) 升序
+    private static final Comparator<ItemWithName> ORDER = (a, b) -> {
+        int byValidTime = Long.compare(a.item.getValidTime(), b.item.getValidTime());
+        return byValidTime != 0 ? byValidTime : Long.compare(a.item.getId(), b.item.getId());
+    };
+
+    private final ItemWithName[] rows;
+    private final long[] validTime;
+    private final int[] count;
+    private final String[] name;
+    private final String[] namePinyin;
+    private final String[] nameInitials;
+    // 行中最大的updateTime（与item表比对，发现绕过DatabaseManager的写入）
+    private final long maxUpdateTime;
+    // 名称 → 行位图：SQL按名称筛选（id IN (SELECT id ... WHERE name = ?)），同名的多个分类/位置合并到同一位图；
+    // 行中的名称来自构建时的关联查询，分类/位置改名后索引须重建（见DatabaseManager）
+    private final Map<String, BitSet> rowsByParentCategory = new HashMap<>();
+    private final Map<String, BitSet> rowsByChildCategory = new HashMap<>();
+    private final Map<String, BitSet> rowsByLocation = new HashMap<>();
+
+    /**
+     * @param source 未删除物品，须按 (validTime, id) 升序（见ItemQueryBuilder.buildActiveItemsWithNameQuery）
+     */
+    ItemColumnIndex(List<ItemWithName> source) {
+        int size = source.size();
+        rows = source.toArray(new ItemWithName[0]);
+        validTime = new long[size];
+        count = new int[size];
+        name = new String[size];
+        namePinyin = new String[size];
+        nameInitials = new String[size];
+        long maxUpdate = 0;
+        for (int i = 0; i < size; i++) {
+            Item item = rows[i].item;
+            validTime[i] = item.getValidTime();
+            count[i] = item.getCount();
+            maxUpdate = Math.max(maxUpdate, item.getUpdateTime());
+            name[i] = item.getName();
+            namePinyin[i] = item.getNamePinyin();
+            nameInitials[i] = item.getNameInitials();
+            addRow(rowsByParentCategory, rows[i].parentCategoryName, i);
+            addRow(rowsByChildCategory, rows[i].categoryName, i);
+            addRow(rowsByLocation, rows[i].locationName, i);
+        }
+        maxUpdateTime = maxUpdate;
+    }
+
+    /**
+     * 应用物品变更，生成新的快照：其余行直接复用，只需从数据库读取变更的物品（原快照不变）
+     * @param changedIds 新增/修改/删除/恢复的物品ID
+     * @param changedRows 这些物品中当前未删除的行，须按 (validTime, id) 升序
+     */
+    ItemColumnIndex withItems(Set<Long> changedIds, List<ItemWithName> changedRows) {
+        List<ItemWithName> merged = new ArrayList<>(rows.length + changedRows.size());
+        int next = 0;
+        for (ItemWithName row : rows) {
+            if (changedIds.contains(row.item.getId())) {
+                continue;
+            }
+            while (next < changedRows.size() && ORDER.compare(changedRows.get(next), row) < 0) {
+                merged.add(changedRows.get(next++));
+            }
+            merged.add(row);
+        }
+        while (next < changedRows.size()) {
+            merged.add(changedRows.get(next++));
+        }
+        return new ItemColumnIndex(merged);
+    }
+
+    /** 索引中的物品数 */
+    public int size() {
+        return rows.length;
+    }
+
+    /** 索引中最大的物品更新时间（没有物品时为0） */
+    long maxUpdateTime() {
+        return maxUpdateTime;
+    }
+
+    /**
+     * 按筛选条件查询（结果顺序与SQL分页查询一致）
+     * @return 匹配的物品；关键词含LIKE通配符无法精确匹配时返回null，调用方应改走SQL
+     */
+    public List<ItemWithName> query(FilterCondition filter) {
+        BitSet matched = match(filter);
+        if (matched == null) {
+            return null;
+        }
+        List<ItemWithName> result = new ArrayList<>(matched.cardinality());
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            result.add(rows[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 一次遍历计算筛选项计数（分类/位置维度各自不受本维度条件限制，见FacetCounts）
+     * @return 关键词含LIKE通配符时返回null，调用方应改走SQL
+     */
+    public FacetCounts countFacets(FilterCondition filter) {
+        if (!ItemResultRefiner.isKeywordSupported(filter.getSearchKeyword())) {
+            return null;
+        }
+        BitSet bits = expireRange(filter);
+        applyRowConditions(bits, filter);
+        FacetCounts.Builder builder = new FacetCounts.Builder(filter);
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            builder.add(rows[i].parentCategoryName, rows[i].categoryName, rows[i].locationName, 1);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 计算匹配行的位图
+     * @return 不支持的条件返回null
+     */
+    BitSet match(FilterCondition filter) {
+        if (!ItemResultRefiner.isKeywordSupported(filter.getSearchKeyword())) {
+            return null;
+        }
+        BitSet bits = expireRange(filter);
+        if (bits.isEmpty()
+                || !intersect(bits, rowsByParentCategory, filter.getParentCategory())
+                || !intersect(bits, rowsByChildCategory, filter.getChildCategory())
+                || !intersect(bits, rowsByLocation, filter.getLocation())) {
+            return bits;
+        }
+        applyRowConditions(bits, filter);
+        return bits;
+    }
+
+    // 有效期：行已按validTime排序，二分得到区间[from, to)
+    private BitSet expireRange(FilterCondition filter) {
+        int from = filter.getExpireStart() != null ? lowerBound(filter.getExpireStart().getTime()) : 0;
+        int to = filter.getExpireEnd() != null ? upperBound(filter.getExpireEnd().getTime()) : rows.length;
+        BitSet bits = new BitSet(rows.length);
+        if (from < to) {
+            bits.set(from, to);
+        }
+        return bits;
+    }
+
+    // 数量与关键词：逐行校验，清除不满足的行
+    private void applyRowConditions(BitSet bits, FilterCondition filter) {
+        String keyword = filter.getSearchKeyword();
+        Integer quantityMin = filter.getQuantityMin();
+        Integer quantityMax = filter.getQuantityMax();
+        if (quantityMin == null && quantityMax == null && keyword.isEmpty()) {
+            return;
+        }
+        int min = quantityMin != null ? quantityMin : Integer.MIN_VALUE;
+        int max = quantityMax != null ? quantityMax : Integer.MAX_VALUE;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            if (count[i] < min || count[i] > max
+                    || !ItemResultRefiner.keywordMatches(keyword, name[i], namePinyin[i], nameInitials[i])) {
+                bits.clear(i);
+            }
+        }
+    }
+
+    // 名称条件：与对应位图求交，位图为空时返回false（结果已为空，无需继续）
+    private static boolean intersect(BitSet bits, Map<String, BitSet> index, String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        BitSet rowsWithValue = index.get(value);
+        if (rowsWithValue == null) {
+            bits.clear();
+            return false;
+        }
+        bits.and(rowsWithValue);
+        return !bits.isEmpty();
+    }
+
+    // 第一个 validTime >= time 的行
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (validTime[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // 第一个 validTime > time 的行
+    private int upperBound(long time) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (validTime[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void addRow(Map<String, BitSet> index, String key, int row) {
+        if (key == null) {
+            return;
+        }
+        BitSet bits = index.get(key);
+        if (bits == null) {
+            bits = new BitSet();
+            index.put(key, bits);
+        }
+        bits.set(row);
+    }
+}
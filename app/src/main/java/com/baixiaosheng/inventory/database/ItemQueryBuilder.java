@@ -0,0 +1,262 @@
+package com.baixiaosheng.inventory.database;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import com.baixiaosheng.inventory.model.FilterCondition;
+import com.baixiaosheng.inventory.utils.NgramUtils;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 物品动态查询构造器
+ * 根据筛选条件只拼接实际生效的谓词，避免 (:x IS NULL OR col = :x) 写法导致SQLite无法选择索引
+ * 生成的查询交给ItemDao的@RawQuery方法执行
+ */
+public final class ItemQueryBuilder {
+    // 物品+分类/位置名称的关联查询（与ItemDao.queryItemsWithName保持一致的列名）
+    static final String SELECT_ITEM_WITH_NAME =
+            "SELECT i.*, c1.categoryName AS parentCategoryName, c2.categoryName AS categoryName, l.name AS locationName " +
+            "FROM item i " +
+            "LEFT JOIN category c1 ON i.parentCategoryId = c1.id " +
+            "LEFT JOIN category c2 ON i.childCategoryId = c2.id " +
+            "LEFT JOIN location l ON i.locationId = l.id";
+
+    // 仅查询物品表
+    static final String SELECT_ITEM = "SELECT i.* FROM item i";
+
+    // 按 (父分类, 子分类, 位置) 分组计数（列名与FacetCountRow一致）
+    static final String SELECT_FACET_COUNTS =
+            "SELECT c1.categoryName AS parentCategoryName, c2.categoryName AS childCategoryName, " +
+            "l.name AS locationName, COUNT(*) AS itemCount " +
+            "FROM item i " +
+            "LEFT JOIN category c1 ON i.parentCategoryId = c1.id " +
+            "LEFT JOIN category c2 ON i.childCategoryId = c2.id " +
+            "LEFT JOIN location l ON i.locationId = l.id";
+
+    private final StringBuilder sql;
+    private final List<Object> args = new ArrayList<>();
+
+    private ItemQueryBuilder(String select) {
+        sql = new StringBuilder(select);
+        // 查询页只展示未删除物品，作为固定的首个谓词
+        sql.append(" WHERE i.isDeleted = 0");
+    }
+
+    /**
+     * 根据筛选条件构造「物品+名称」查询
+     * 分类/位置按名称筛选时改写为 id IN (子查询)，让item表上的外键列可以走索引
+     */
+    public static SimpleSQLiteQuery buildItemsWithNameQuery(FilterCondition filter) {
+        return new ItemQueryBuilder(SELECT_ITEM_WITH_NAME)
+                .filter(filter)
+                .build();
+    }
+
+    /**
+     * 根据筛选条件构造「物品+名称」分页查询（按 (validTime, id) 做键集分页，不使用OFFSET）
+     * 深分页与首页代价相同：直接从上一页最后一行的位置继续扫描 (isDeleted, validTime) 索引
+     * @param afterValidTime 上一页最后一行的有效期（首页传null）
+     * @param afterId 上一页最后一行的ID（首页传null）
+     * @param limit 每页条数
+     */
+    public static SimpleSQLiteQuery buildItemsWithNamePageQuery(FilterCondition filter,
+                                                                Long afterValidTime,
+                                                                Long afterId,
+                                                                int limit) {
+        ItemQueryBuilder builder = new ItemQueryBuilder(SELECT_ITEM_WITH_NAME).filter(filter);
+        if (afterValidTime != null && afterId != null) {
+            // 先给出validTime的下界，SQLite才能把它用作索引范围起点，再在同一有效期内按id排除已读行
+            builder.sql.append(" AND i.validTime >= ? AND (i.validTime > ? OR i.id > ?)");
+            builder.args.add(afterValidTime);
+            builder.args.add(afterValidTime);
+            builder.args.add(afterId);
+        }
+        builder.sql.append(" ORDER BY i.validTime ASC, i.id ASC LIMIT ?");
+        builder.args.add(limit);
+        return builder.build();
+    }
+
+    /**
+     * 根据筛选条件构造「物品+名称」窗口查询：从首行直到游标行（含）的全部匹配行
+     * 数据变更后按原游标重查已加载的窗口，列表不回到首页；窗口内的新增/删除随之体现
+     * @param untilValidTime 已加载最后一行的有效期
+     * @param untilId 已加载最后一行的ID
+     */
+    public static SimpleSQLiteQuery buildItemsWithNameUpToQuery(FilterCondition filter,
+                                                                long untilValidTime,
+                                                                long untilId) {
+        ItemQueryBuilder builder = new ItemQueryBuilder(SELECT_ITEM_WITH_NAME).filter(filter);
+        // 与分页查询对称：先给出validTime的上界作为索引范围终点，再在同一有效期内按id截断
+        builder.sql.append(" AND i.validTime <= ? AND (i.validTime < ? OR i.id <= ?)");
+        builder.args.add(untilValidTime);
+        builder.args.add(untilValidTime);
+        builder.args.add(untilId);
+        builder.sql.append(" ORDER BY i.validTime ASC, i.id ASC");
+        return builder.build();
+    }
+
+    /**
+     * 构造筛选项计数查询：一次GROUP BY得到所有 (父分类, 子分类, 位置) 组合的物品数
+     * 只拼接关键词/数量/有效期条件，分类/位置条件由FacetCounts.Builder按维度分别判断
+     */
+    public static SimpleSQLiteQuery buildFacetCountQuery(FilterCondition filter) {
+        ItemQueryBuilder builder = new ItemQueryBuilder(SELECT_FACET_COUNTS);
+        if (filter != null) {
+            builder.keyword(filter.getSearchKeyword())
+                    .range("i.count", filter.getQuantityMin(), filter.getQuantityMax())
+                    .range("i.validTime",
+                            filter.getExpireStart() != null ? filter.getExpireStart().getTime() : null,
+                            filter.getExpireEnd() != null ? filter.getExpireEnd().getTime() : null);
+        }
+        builder.sql.append(" GROUP BY i.parentCategoryId, i.childCategoryId, i.locationId");
+        return builder.build();
+    }
+
+    /**
+     * 构造全部未删除物品的「物品+名称」查询（与分页查询相同的 (validTime, id) 顺序，供内存列式索引构建使用）
+     */
+    public static SimpleSQLiteQuery buildActiveItemsWithNameQuery() {
+        ItemQueryBuilder builder = new ItemQueryBuilder(SELECT_ITEM_WITH_NAME);
+        builder.sql.append(" ORDER BY i.validTime ASC, i.id ASC");
+        return builder.build();
+    }
+
+    /**
+     * 构造指定物品中未删除者的「物品+名称」查询（(validTime, id) 顺序，供内存列式索引应用物品变更）
+     */
+    public static SimpleSQLiteQuery buildActiveItemsWithNameByIdsQuery(List<Long> ids) {
+        ItemQueryBuilder builder = new ItemQueryBuilder(SELECT_ITEM_WITH_NAME).idIn("i.id", ids);
+        builder.sql.append(" ORDER BY i.validTime ASC, i.id ASC");
+        return builder.build();
+    }
+
+    /**
+     * 根据ID条件构造物品查询（对应原ItemDao.queryItemsByCondition）
+     */
+    public static SimpleSQLiteQuery buildItemsByConditionQuery(String keyword,
+                                                               List<Long> parentCategoryIds,
+                                                               List<Long> childCategoryIds,
+                                                               List<Long> locationIds,
+                                                               Integer quantityMin,
+                                                               Integer quantityMax,
+                                                               Long expireStart,
+                                                               Long expireEnd) {
+        return new ItemQueryBuilder(SELECT_ITEM)
+                .keyword(keyword)
+                .idIn("i.parentCategoryId", parentCategoryIds)
+                .idIn("i.childCategoryId", childCategoryIds)
+                .idIn("i.locationId", locationIds)
+                .range("i.count", quantityMin, quantityMax)
+                .range("i.validTime", expireStart, expireEnd)
+                .build();
+    }
+
+    // ==================== 谓词拼接 ====================
+
+    private ItemQueryBuilder filter(FilterCondition filter) {
+        if (filter == null) {
+            return this;
+        }
+        return keyword(filter.getSearchKeyword())
+                .nameIn("i.parentCategoryId", "SELECT id FROM category WHERE categoryName = ?", filter.getParentCategory())
+                .nameIn("i.childCategoryId", "SELECT id FROM category WHERE categoryName = ?", filter.getChildCategory())
+                .nameIn("i.locationId", "SELECT id FROM location WHERE name = ?", filter.getLocation())
+                .range("i.count", filter.getQuantityMin(), filter.getQuantityMax())
+                .range("i.validTime",
+                        filter.getExpireStart() != null ? filter.getExpireStart().getTime() : null,
+                        filter.getExpireEnd() != null ? filter.getExpireEnd().getTime() : null);
+    }
+
+    /**
+     * 关键词条件
+     * 纯字母关键词额外按拼音全拼/首字母做前缀范围查询（与名称子串匹配为OR关系）
+     */
+    private ItemQueryBuilder keyword(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return this;
+        }
+        String trimmed = keyword.trim();
+        if (!PinyinUtils.isPinyinQuery(trimmed)) {
+            sql.append(" AND ");
+            nameContains(trimmed);
+            return this;
+        }
+        String prefix = PinyinUtils.normalizePrefix(trimmed);
+        String upperBound = PinyinUtils.prefixUpperBound(prefix);
+        sql.append(" AND ((i.namePinyin >= ? AND i.namePinyin < ?)")
+                .append(" OR (i.nameInitials >= ? AND i.nameInitials < ?) OR (");
+        args.add(prefix);
+        args.add(upperBound);
+        args.add(prefix);
+        args.add(upperBound);
+        nameContains(trimmed);
+        sql.append("))");
+        return this;
+    }
+
+    /**
+     * 名称子串条件
+     * 关键词≥2个字时先用item_ngram倒排表求交集得到候选ID，再用LIKE校验，避免全表扫描
+     */
+    private void nameContains(String keyword) {
+        List<String> grams = NgramUtils.buildQueryGrams(keyword);
+        if (grams.size() == 1) {
+            sql.append("i.id IN (SELECT itemId FROM item_ngram WHERE gram = ?) AND ");
+            args.add(grams.get(0));
+        } else if (grams.size() > 1) {
+            sql.append("i.id IN (SELECT itemId FROM item_ngram WHERE gram IN (");
+            for (int i = 0; i < grams.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                args.add(grams.get(i));
+            }
+            sql.append(") GROUP BY itemId HAVING COUNT(*) = ?) AND ");
+            args.add(grams.size());
+        }
+        sql.append("i.name LIKE ?");
+        args.add("%" + keyword + "%");
+    }
+
+    private ItemQueryBuilder nameIn(String column, String subQuery, String name) {
+        if (name != null && !name.isEmpty()) {
+            sql.append(" AND ").append(column).append(" IN (").append(subQuery).append(")");
+            args.add(name);
+        }
+        return this;
+    }
+
+    private ItemQueryBuilder idIn(String column, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return this;
+        }
+        if (ids.size() == 1) {
+            sql.append(" AND ").append(column).append(" = ?");
+            args.add(ids.get(0));
+            return this;
+        }
+        sql.append(" AND ").append(column).append(" IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args.add(ids.get(i));
+        }
+        sql.append(")");
+        return this;
+    }
+
+    private ItemQueryBuilder range(String column, Object min, Object max) {
+        if (min != null) {
+            sql.append(" AND ").append(column).append(" >= ?");
+            args.add(min);
+        }
+        if (max != null) {
+            sql.append(" AND ").append(column).append(" <= ?");
+            args.add(max);
+        }
+        return this;
+    }
+
+    private SimpleSQLiteQuery build() {
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+}
@@ -0,0 +1,105 @@
+package com.baixiaosheng.inventory.database;
+
+import android.util.LruCache;
+
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.model.FilterCondition;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 物品分页查询结果缓存（LRU，按条目数限制大小，线程安全）
+ * 键为规范化的筛选条件+分页位置；item/category/location表任一变更即整体失效（由DatabaseManager通过InvalidationTracker驱动）
+ * 缓存的列表不可修改，调用方需自行复制后再追加数据
+ */
+final class ItemQueryCache {
+    // 默认最多缓存的页数
+    static final int DEFAULT_MAX_PAGES = 32;
+
+    private final LruCache<Key, List<ItemWithName>> cache;
+    // 失效代数：查询开始前记录，写入时若已变化说明期间表有变更，结果不再缓存
+    private long generation;
+
+    ItemQueryCache(int maxPages) {
+        cache = new LruCache<>(Math.max(1, maxPages));
+    }
+
+    /** 当前失效代数（查询数据库之前获取） */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /** 命中时返回缓存的页（同时计入命中/未命中次数） */
+    List<ItemWithName> get(Key key) {
+        return cache.get(key);
+    }
+
+    /**
+     * 写入查询结果
+     * @param generation 查询开始前的失效代数，与当前不一致时丢弃
+     */
+    synchronized List<ItemWithName> put(Key key, long generation, List<ItemWithName> page) {
+        List<ItemWithName> value = Collections.unmodifiableList(page);
+        if (generation == this.generation) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /** 表变更：清空缓存并使进行中的查询结果不再写入 */
+    synchronized void invalidate() {
+        generation++;
+        cache.evictAll();
+    }
+
+    void resize(int maxPages) {
+        cache.resize(Math.max(1, maxPages));
+    }
+
+    int hitCount() {
+        return cache.hitCount();
+    }
+
+    int missCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * 缓存键：筛选条件副本 + 上一页末尾 (validTime, id) + 每页条数
+     */
+    static final class Key {
+        private final FilterCondition filter;
+        private final Long afterValidTime;
+        private final Long afterId;
+        private final int pageSize;
+
+        Key(FilterCondition filter, Long afterValidTime, Long afterId, int pageSize) {
+            this.filter = filter != null ? filter.copy() : new FilterCondition();
+            this.afterValidTime = afterValidTime;
+            this.afterId = afterId;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return pageSize == that.pageSize
+                    && filter.equals(that.filter)
+                    && Objects.equals(afterValidTime, that.afterValidTime)
+                    && Objects.equals(afterId, that.afterId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, afterValidTime, afterId, pageSize);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.baixiaosheng.inventory.database;
+
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.model.FilterCondition;
+import com.baixiaosheng.inventory.utils.PinyinUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 物品查询结果的内存细化器
+ * 新筛选条件比上一次更窄（如"牛"→"牛奶"、在已有条件上追加位置）时，新结果必然是旧结果的子集，
+ * 可直接在内存中过滤已加载的结果，无需重新查询SQLite
+ * 匹配规则与ItemQueryBuilder生成的谓词逐条对应，修改任一方时需同步修改另一方
+ */
+public final class ItemResultRefiner {
+
+    private ItemResultRefiner() {
+    }
+
+    /**
+     * 判断next的结果是否一定是previous结果的子集（逐个条件判断「不比之前宽」）
+     * 关键词含LIKE通配符（% _）时无法在内存中精确复现，返回false走SQL查询
+     */
+    public static boolean isNarrowerOrEqual(FilterCondition previous, FilterCondition next) {
+        if (previous == null || next == null) {
+            return false;
+        }
+        return keywordNarrower(previous.getSearchKeyword(), next.getSearchKeyword())
+                && nameNarrower(previous.getParentCategory(), next.getParentCategory())
+                && nameNarrower(previous.getChildCategory(), next.getChildCategory())
+                && nameNarrower(previous.getLocation(), next.getLocation())
+                && minNarrower(previous.getQuantityMin(), next.getQuantityMin())
+                && maxNarrower(previous.getQuantityMax(), next.getQuantityMax())
+                && minNarrower(toTime(previous.getExpireStart()), toTime(next.getExpireStart()))
+                && maxNarrower(toTime(previous.getExpireEnd()), toTime(next.getExpireEnd()));
+    }
+
+    /**
+     * 按筛选条件过滤已加载的结果（保持原有顺序，需在子线程调用）
+     * 调用前需确认isNarrowerOrEqual(旧条件, filter)为true
+     */
+    public static List<ItemWithName> refine(List<ItemWithName> source, FilterCondition filter) {
+        List<ItemWithName> result = new ArrayList<>();
+        for (ItemWithName row : source) {
+            if (matches(filter, row)) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 单条结果是否满足筛选条件（未删除条件由SQL保证，这里不再判断）
+     */
+    public static boolean matches(FilterCondition filter, ItemWithName row) {
+        Item item = row.item;
+        return keywordMatches(filter.getSearchKeyword(), item.getName(), item.getNamePinyin(), item.getNameInitials())
+                && nameMatches(filter.getParentCategory(), row.parentCategoryName)
+                && nameMatches(filter.getChildCategory(), row.categoryName)
+                && nameMatches(filter.getLocation(), row.locationName)
+                && inRange(item.getCount(), filter.getQuantityMin(), filter.getQuantityMax())
+                && inRange(item.getValidTime(), toTime(filter.getExpireStart()), toTime(filter.getExpireEnd()));
+    }
+
+    // ==================== 收窄判断 ====================
+
+    /**
+     * 关键词收窄：新关键词包含旧关键词（LIKE子串条件收窄）；
+     * 新关键词按拼音检索时，旧关键词也须按拼音检索且为其前缀（拼音前缀条件收窄）
+     */
+    private static boolean keywordNarrower(String previous, String next) {
+        if (previous.isEmpty()) {
+            return !hasLikeWildcard(next);
+        }
+        if (next.isEmpty() || hasLikeWildcard(previous) || hasLikeWildcard(next)) {
+            return false;
+        }
+        if (!asciiLowerCase(next).contains(asciiLowerCase(previous))) {
+            return false;
+        }
+        if (!PinyinUtils.isPinyinQuery(next)) {
+            return true;
+        }
+        return PinyinUtils.isPinyinQuery(previous)
+                && PinyinUtils.normalizePrefix(next).startsWith(PinyinUtils.normalizePrefix(previous));
+    }
+
+    // 名称等值条件：之前未筛选，或与之前相同
+    private static boolean nameNarrower(String previous, String next) {
+        return previous.isEmpty() || previous.equals(next);
+    }
+
+    // 下界：之前无下界，或新下界不低于旧下界
+    private static <T extends Comparable<T>> boolean minNarrower(T previous, T next) {
+        return previous == null || (next != null && next.compareTo(previous) >= 0);
+    }
+
+    // 上界：之前无上界，或新上界不高于旧上界
+    private static <T extends Comparable<T>> boolean maxNarrower(T previous, T next) {
+        return previous == null || (next != null && next.compareTo(previous) <= 0);
+    }
+
+    // ==================== 条件匹配（对应ItemQueryBuilder的谓词） ====================
+
+    /**
+     * 关键词：名称包含关键词（SQLite LIKE仅对ASCII字母不区分大小写）；
+     * 纯字母关键词额外匹配全拼/首字母前缀
+     * 关键词含LIKE通配符时结果与SQL不一致，调用前需用isKeywordSupported判断
+     */
+    static boolean keywordMatches(String keyword, String name, String namePinyin, String nameInitials) {
+        if (keyword.isEmpty()) {
+            return true;
+        }
+        if (name != null && asciiLowerCase(name).contains(asciiLowerCase(keyword))) {
+            return true;
+        }
+        if (!PinyinUtils.isPinyinQuery(keyword)) {
+            return false;
+        }
+        String prefix = PinyinUtils.normalizePrefix(keyword);
+        return startsWith(namePinyin, prefix) || startsWith(nameInitials, prefix);
+    }
+
+    /** 关键词能否在内存中精确匹配（不含LIKE通配符） */
+    static boolean isKeywordSupported(String keyword) {
+        return !hasLikeWildcard(keyword);
+    }
+
+    // 分类/位置名称：按名称等值匹配（对应 id IN (SELECT id ... WHERE name = ?)）
+    private static boolean nameMatches(String expected, String actual) {
+        return expected.isEmpty() || expected.equals(actual);
+    }
+
+    private static boolean inRange(long value, Number min, Number max) {
+        return (min == null || value >= min.longValue()) && (max == null || value <= max.longValue());
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value != null && value.startsWith(prefix);
+    }
+
+    private static boolean hasLikeWildcard(String keyword) {
+        return keyword.indexOf('%') >= 0 || keyword.indexOf('_') >= 0;
+    }
+
+    // 只转换ASCII字母，与SQLite默认LIKE的大小写规则一致
+    private static String asciiLowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    private static Long toTime(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+}
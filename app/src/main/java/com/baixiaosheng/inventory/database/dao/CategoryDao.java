@@ -52,22 +52,33 @@ public interface CategoryDao {
     List<Category> listChildCategoriesByParentId(long parentCategoryId);
 
     /** 查询所有分类（按父分类ID升序、创建时间降序） */
-    @Query("SELECT * FROM category ORDER BY parentCategoryId ASC, createTime DESC")
+    @Query("SELECT * FROM category ORDER BY parentCategoryId ASC, createTime DESC, id DESC")
     List<Category> listAllCategories();
 
+    // 字典缓存增量重建：updateTime不早于since的分类（新增或修改过的行）
+    @Query("SELECT * FROM category WHERE updateTime >= :since")
+    List<Category> listCategoriesUpdatedSince(long since);
+
+    // 字典缓存增量重建：分类总数（与快照行数不一致时说明有删除）
+    @Query("SELECT COUNT(*) FROM category")
+    int countCategories();
+
+    // 字典缓存增量重建：全部分类ID（只在有删除时读取）
+    @Query("SELECT id FROM category")
+    List<Long> listCategoryIds();
+
     /** 模糊搜索分类（按名称） */
     @Query("SELECT * FROM category WHERE categoryName LIKE '%' || :keyword || '%'")
     List<Category> searchCategoriesByKeyword(String keyword);
 
-    // ==================== 关联物品操作 ====================
-    /** 查询指定父分类关联的有效物品数量 */
-    @Query("SELECT COUNT(*) FROM item WHERE parentCategoryId = :categoryId AND isDeleted = 0")
-    int countItemsByParentCategoryId(long categoryId);
-
-    /** 查询指定子分类关联的有效物品数量 */
-    @Query("SELECT COUNT(*) FROM item WHERE childCategoryId = :categoryId AND isDeleted = 0")
-    int countItemsByChildCategoryId(long categoryId);
+    /** 拼音前缀搜索分类（全拼或首字母，upperBound为前缀上界，不含），同时保留按名称模糊匹配 */
+    @Query("SELECT * FROM category " +
+            "WHERE (categoryNamePinyin >= :prefix AND categoryNamePinyin < :upperBound) " +
+            "OR (categoryNameInitials >= :prefix AND categoryNameInitials < :upperBound) " +
+            "OR categoryName LIKE '%' || :keyword || '%'")
+    List<Category> searchCategoriesByPinyin(String prefix, String upperBound, String keyword);
 
+    // ==================== 关联物品操作 ====================
     /** 根据名称+父分类ID查询分类（导入去重） */
     @Query("SELECT * FROM category WHERE categoryName = :categoryName AND parentCategoryId = :parentCategoryId")
     List<Category> getCategoriesByCategoryNameAndParentId(String categoryName, long parentCategoryId);
@@ -77,10 +88,6 @@ public interface CategoryDao {
     @Query("SELECT COUNT(*) FROM category WHERE parentCategoryId = :parentCategoryId")
     int countChildCategoriesByParentId(long parentCategoryId);
     // ==================== 关联物品统计与清理 ====================
-    /** 获取分类关联的物品数量（包括作为父分类或子分类） */
-    @Query("SELECT COUNT(*) FROM item WHERE (parentCategoryId = :categoryId OR childCategoryId = :categoryId) AND isDeleted = 0")
-    int getRelatedItemCount(long categoryId);
-
     /** 清空父分类关联物品的分类信息（包括父分类ID和子分类ID） */
     @Query("UPDATE item SET parentCategoryId = 0, childCategoryId = 0 WHERE parentCategoryId = :parentId")
     void clearItemParentCategoryId(long parentId);
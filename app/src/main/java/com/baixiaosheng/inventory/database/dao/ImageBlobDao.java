@@ -0,0 +1,52 @@
+package com.baixiaosheng.inventory.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.baixiaosheng.inventory.database.entity.ImageBlob;
+import com.baixiaosheng.inventory.database.entity.ItemImageRef;
+
+import java.util.List;
+
+/**
+ * 图片内容表及物品-图片引用表数据访问接口（refCount由触发器维护，此处不直接修改）
+ */
+@Dao
+public interface ImageBlobDao {
+    @Query("SELECT * FROM image_blob WHERE hash = :hash")
+    ImageBlob getBlob(String hash);
+
+    /** 按存储路径查hash（不在存储中的图片返回null） */
+    @Query("SELECT hash FROM image_blob WHERE path = :path")
+    String getHashByPath(String path);
+
+    /** 新增图片（hash已存在时忽略，保留原引用计数） */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertBlob(ImageBlob blob);
+
+    /** 更新存储文件信息（文件丢失后重新写入时使用） */
+    @Query("UPDATE image_blob SET path = :path, byteSize = :byteSize, attachTime = :attachTime WHERE hash = :hash")
+    int updateBlobFile(String hash, String path, long byteSize, long attachTime);
+
+    /** 刷新入库时间（重复图片再次入库时延后回收） */
+    @Query("UPDATE image_blob SET attachTime = :attachTime WHERE hash = :hash")
+    int touchBlob(String hash, long attachTime);
+
+    /** 未被引用且入库时间早于before的图片（垃圾回收候选） */
+    @Query("SELECT * FROM image_blob WHERE refCount <= 0 AND attachTime < :before")
+    List<ImageBlob> getUnreferencedBlobs(long before);
+
+    /** 删除未被引用的图片记录（期间被重新引用或重新入库时不删除） */
+    @Query("DELETE FROM image_blob WHERE hash = :hash AND refCount <= 0 AND attachTime < :before")
+    int deleteBlobIfUnreferenced(String hash, long before);
+
+    /** 批量插入引用（重复引用忽略） */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertRefs(List<ItemImageRef> refs);
+
+    /** 删除指定物品的全部引用（图片变更时重建） */
+    @Query("DELETE FROM item_image_ref WHERE itemId = :itemId")
+    void deleteRefsByItemId(long itemId);
+}
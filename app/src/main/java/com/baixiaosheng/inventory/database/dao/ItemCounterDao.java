@@ -0,0 +1,46 @@
+package com.baixiaosheng.inventory.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.baixiaosheng.inventory.database.entity.ItemCounter;
+
+/**
+ * 物品计数表数据访问接口（计数由触发器维护，此处只读）
+ */
+@Dao
+public interface ItemCounterDao {
+    /** 查询指定维度的未删除物品数（无记录时为0） */
+    @Query("SELECT IFNULL(SUM(activeCount), 0) FROM item_counter WHERE kind = :kind AND refId = :refId")
+    int getCount(int kind, long refId);
+
+    /**
+     * 分类关联的物品数（作为父分类或子分类，每个物品只计一次）
+     * 父、子分类都是该分类的物品在两个计数中各出现一次，减去触发器维护的KIND_SELF_PAIR计数，只读3行计数
+     */
+    @Query("SELECT IFNULL(SUM(CASE WHEN kind = " + ItemCounter.KIND_SELF_PAIR + " THEN -activeCount ELSE activeCount END), 0) " +
+            "FROM item_counter WHERE refId = :categoryId AND kind IN (" + ItemCounter.KIND_PARENT_CATEGORY + ", " +
+            ItemCounter.KIND_CHILD_CATEGORY + ", " + ItemCounter.KIND_SELF_PAIR + ")")
+    int getCategoryRelatedCount(long categoryId);
+
+    /** 父分类自身的物品数 + 其下各子分类的物品数 */
+    @Query("SELECT IFNULL(SUM(activeCount), 0) FROM item_counter " +
+            "WHERE (kind = " + ItemCounter.KIND_PARENT_CATEGORY + " AND refId = :parentId) " +
+            "OR (kind = " + ItemCounter.KIND_CHILD_CATEGORY + " AND refId IN (SELECT id FROM category WHERE parentCategoryId = :parentId))")
+    int getParentCategoryTotalCount(long parentId);
+
+    /**
+     * 一致性校验：对比计数表与item表实时统计，返回不一致的(kind, refId)数量
+     * 计数为正、实时统计取负后按维度求和，结果非0即为不一致
+     */
+    @Query("SELECT COUNT(*) FROM (" +
+            "SELECT kind, refId FROM (" +
+            "SELECT kind, refId, activeCount AS delta FROM item_counter " +
+            "UNION ALL SELECT " + ItemCounter.KIND_PARENT_CATEGORY + ", parentCategoryId, -COUNT(*) FROM item WHERE isDeleted = 0 GROUP BY parentCategoryId " +
+            "UNION ALL SELECT " + ItemCounter.KIND_CHILD_CATEGORY + ", childCategoryId, -COUNT(*) FROM item WHERE isDeleted = 0 GROUP BY childCategoryId " +
+            "UNION ALL SELECT " + ItemCounter.KIND_LOCATION + ", locationId, -COUNT(*) FROM item WHERE isDeleted = 0 GROUP BY locationId " +
+            "UNION ALL SELECT " + ItemCounter.KIND_SELF_PAIR + ", parentCategoryId, -COUNT(*) FROM item " +
+            "WHERE isDeleted = 0 AND parentCategoryId = childCategoryId GROUP BY parentCategoryId" +
+            ") GROUP BY kind, refId HAVING SUM(delta) != 0)")
+    int countMismatchedCounters();
+}
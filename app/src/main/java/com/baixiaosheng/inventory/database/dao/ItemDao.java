@@ -5,10 +5,17 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.FacetCountRow;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemDetail;
 import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.database.entity.Location;
 
 import java.util.List;
 
@@ -32,6 +39,20 @@ public interface ItemDao {
     @Query("SELECT * FROM item WHERE isDeleted = 0 AND (name LIKE '%' || :keyword || '%' OR remark LIKE '%' || :keyword || '%') ORDER BY validTime ASC")
     LiveData<List<Item>> searchItem(String keyword);
 
+    /**
+     * 纯字母关键词检索：拼音前缀（全拼或首字母）与名称/说明模糊匹配为OR关系
+     * 英文名称、型号及说明中的字母子串仍按原LIKE规则命中
+     * @param prefix 小写拼音前缀
+     * @param upperBound 前缀上界（不含），见PinyinUtils.prefixUpperBound
+     * @param keyword 原关键词（去首尾空白）
+     */
+    @Query("SELECT * FROM item WHERE isDeleted = 0 " +
+            "AND ((namePinyin >= :prefix AND namePinyin < :upperBound) " +
+            "OR (nameInitials >= :prefix AND nameInitials < :upperBound) " +
+            "OR name LIKE '%' || :keyword || '%' OR remark LIKE '%' || :keyword || '%') " +
+            "ORDER BY validTime ASC")
+    LiveData<List<Item>> searchItemByPinyin(String prefix, String upperBound, String keyword);
+
     // 新增：按过期时间范围筛选（补充isDeleted过滤）
     // 简化 filterItemByExpireTime
     @Query("SELECT * FROM item WHERE isDeleted = 0 " +
@@ -40,6 +61,13 @@ public interface ItemDao {
             "ORDER BY validTime ASC")
     LiveData<List<Item>> filterItemByExpireTime(Long startDate, Long endDate);
 
+    // 未删除物品的行数与最大更新时间（与内存列式索引比对，见DatabaseManager）
+    @Query("SELECT COUNT(*) FROM item WHERE isDeleted = 0")
+    int countActiveItems();
+
+    @Query("SELECT COALESCE(MAX(updateTime), 0) FROM item WHERE isDeleted = 0")
+    long getActiveItemsMaxUpdateTime();
+
     // 添加获取回收站总数的方法
     @Query("SELECT COUNT(*) FROM item WHERE isDeleted = 1 " +
             "AND (:keyword IS NULL OR name LIKE '%' || :keyword || '%')")
@@ -57,66 +85,51 @@ public interface ItemDao {
     @Query("SELECT * FROM item WHERE id = :id LIMIT 1")
     Item getItemById(long id);
 
-    @Query("SELECT * FROM item WHERE isDeleted = 1 ORDER BY updateTime DESC")
-    LiveData<List<Item>> getDeletedItemsLive();
-
-
-
-    // 支持多个分类ID查询
-    @Query("SELECT * FROM item WHERE isDeleted = 0 " +
-            "AND (:keyword IS NULL OR name LIKE '%' || :keyword || '%') " +
-            "AND (:parentCategoryIds IS NULL OR parentCategoryId IN (:parentCategoryIds)) " +
-            "AND (:childCategoryIds IS NULL OR childCategoryId IN (:childCategoryIds)) " +
-            "AND (:locationIds IS NULL OR locationId IN (:locationIds)) " +
-            "AND (:quantityMin IS NULL OR count >= :quantityMin) " +
-            "AND (:quantityMax IS NULL OR count <= :quantityMax) " +
-            "AND (:expireStart IS NULL OR validTime >= :expireStart) " +
-            "AND (:expireEnd IS NULL OR validTime <= :expireEnd)")
-    LiveData<List<Item>> queryItemsByCondition(
-            String keyword,
-            List<Long> parentCategoryIds,    // ← 改为 List
-            List<Long> childCategoryIds,     // ← 改为 List
-            List<Long> locationIds,          // ← 改为 List
-            Integer quantityMin,
-            Integer quantityMax,
-            Long expireStart,
-            Long expireEnd
-    );
-
-
-    // 直接查询Item的分类 / 位置名称
-    @Query("SELECT i.*, c1.categoryName as parentCategoryName, c2.categoryName as categoryName, l.name as locationName " +
+    // 物品详情（物品+父/子分类名称+位置名称单条关联查询，图片由@Relation在同一事务内加载；任一表变更时自动刷新）
+    @Transaction
+    @Query("SELECT i.*, c1.categoryName AS parentCategoryName, c2.categoryName AS childCategoryName, l.name AS locationName " +
             "FROM item i " +
-            // 关联父分类表（parentCategoryId对应分类ID）
             "LEFT JOIN category c1 ON i.parentCategoryId = c1.id " +
-            // 关联子分类表（childCategoryId对应分类ID）
             "LEFT JOIN category c2 ON i.childCategoryId = c2.id " +
-            // 关联位置表（locationId对应位置ID）
             "LEFT JOIN location l ON i.locationId = l.id " +
-            "WHERE i.isDeleted = 0 " +
-            "AND (:keyword IS NULL OR i.name LIKE '%' || :keyword || '%') " +
-            "AND (:parentCategoryName IS NULL OR c1.categoryName = :parentCategoryName) " +
-            "AND (:childCategoryName IS NULL OR c2.categoryName = :childCategoryName) " +
-            "AND (:locationName IS NULL OR l.name = :locationName) " +
-            "AND (:quantityMin IS NULL OR i.count >= :quantityMin) " +
-            "AND (:quantityMax IS NULL OR i.count <= :quantityMax) " +
-            "AND (:expireStart IS NULL OR i.validTime >= :expireStart) " +
-            "AND (:expireEnd IS NULL OR i.validTime <= :expireEnd)")
-    LiveData<List<ItemWithName>> queryItemsWithName(
-            String keyword,
-            String parentCategoryName,  // 直接传名称，无需查ID
-            String childCategoryName,
-            String locationName,
-            Integer quantityMin,
-            Integer quantityMax,
-            Long expireStart,
-            Long expireEnd
-    );
+            "WHERE i.id = :id AND i.isDeleted = 0")
+    LiveData<ItemDetail> getItemDetailLive(long id);
+
+
+
+    /**
+     * 动态条件查询物品（SQL由ItemQueryBuilder按实际生效的筛选条件拼接）
+     */
+    @RawQuery(observedEntities = {Item.class})
+    LiveData<List<Item>> queryItemsByCondition(SupportSQLiteQuery query);
+
+    /**
+     * 动态条件查询物品及分类/位置名称（SQL由ItemQueryBuilder按实际生效的筛选条件拼接）
+     * 观察item/category/location三张表，任一表变更都会刷新结果
+     */
+    @RawQuery(observedEntities = {Item.class, Category.class, Location.class})
+    LiveData<List<ItemWithName>> queryItemsWithName(SupportSQLiteQuery query);
+
+    /**
+     * 同步执行物品+名称查询（分页加载使用，需在子线程调用）
+     */
+    @RawQuery
+    List<ItemWithName> queryItemsWithNameSync(SupportSQLiteQuery query);
+
+    /**
+     * 同步执行筛选项分组计数查询（SQL见ItemQueryBuilder.buildFacetCountQuery，需在子线程调用）
+     */
+    @RawQuery
+    List<FacetCountRow> queryFacetCountRows(SupportSQLiteQuery query);
 
     // 新增：根据UUID查询单个物品
     @Query("SELECT * FROM item WHERE uuid = :uuid AND isDeleted = 0 LIMIT 1")
     Item getItemByUuid(String uuid);
 
+    // 判断UUID是否已存在（包含回收站中的物品，uuid为唯一索引）
+    @Query("SELECT COUNT(*) > 0 FROM item WHERE uuid = :uuid")
+    boolean existsItemByUuid(String uuid);
+
     // 修复：标记物品为删除（补充updateTime）
     @Query("UPDATE item SET isDeleted = 1, updateTime = :updateTime WHERE uuid = :uuid")
     void markItemAsDeleted(String uuid, long updateTime);
@@ -161,11 +174,41 @@ public interface ItemDao {
             "ORDER BY validTime ASC")
     List<Item> searchExpiredItems(String keyword, Long currentTime, Long startDate, Long endDate, int isDeleted);
 
-    // 新增：查询回收站物品（分页+关键词）
-    @Query("SELECT * FROM item WHERE isDeleted = 1 " +
-            "AND (:keyword IS NULL OR name LIKE '%' || :keyword || '%') " +
-            "ORDER BY updateTime DESC LIMIT :pageSize OFFSET :offset")
-    LiveData<List<Item>> getRecycleItems(String keyword, int pageSize, int offset);
+    // 回收站键集分页（首页，含分类/位置名称）：按 (updateTime DESC, id DESC) 倒序扫描 (isDeleted, updateTime) 索引
+    @Query("SELECT i.*, c1.categoryName AS parentCategoryName, c2.categoryName AS categoryName, l.name AS locationName " +
+            "FROM item i " +
+            "LEFT JOIN category c1 ON i.parentCategoryId = c1.id " +
+            "LEFT JOIN category c2 ON i.childCategoryId = c2.id " +
+            "LEFT JOIN location l ON i.locationId = l.id " +
+            "WHERE i.isDeleted = 1 " +
+            "AND (:keyword IS NULL OR i.name LIKE '%' || :keyword || '%') " +
+            "ORDER BY i.updateTime DESC, i.id DESC LIMIT :pageSize")
+    List<ItemWithName> getRecycleItemsFirstPage(String keyword, int pageSize);
+
+    // 回收站键集分页（后续页）：从上一页最后一行之后继续，深分页与首页代价相同
+    // 先给出updateTime的上界，SQLite才能把它用作索引范围起点，再在同一更新时间内按id排除已读行
+    @Query("SELECT i.*, c1.categoryName AS parentCategoryName, c2.categoryName AS categoryName, l.name AS locationName " +
+            "FROM item i " +
+            "LEFT JOIN category c1 ON i.parentCategoryId = c1.id " +
+            "LEFT JOIN category c2 ON i.childCategoryId = c2.id " +
+            "LEFT JOIN location l ON i.locationId = l.id " +
+            "WHERE i.isDeleted = 1 " +
+            "AND (:keyword IS NULL OR i.name LIKE '%' || :keyword || '%') " +
+            "AND i.updateTime <= :afterUpdateTime AND (i.updateTime < :afterUpdateTime OR i.id < :afterId) " +
+            "ORDER BY i.updateTime DESC, i.id DESC LIMIT :pageSize")
+    List<ItemWithName> getRecycleItemsPageAfter(String keyword, long afterUpdateTime, long afterId, int pageSize);
+
+    // 回收站已加载窗口（首行直到游标行，含）：数据变更后按原游标重查，已加载的页数不变
+    @Query("SELECT i.*, c1.categoryName AS parentCategoryName, c2.categoryName AS categoryName, l.name AS locationName " +
+            "FROM item i " +
+            "LEFT JOIN category c1 ON i.parentCategoryId = c1.id " +
+            "LEFT JOIN category c2 ON i.childCategoryId = c2.id " +
+            "LEFT JOIN location l ON i.locationId = l.id " +
+            "WHERE i.isDeleted = 1 " +
+            "AND (:keyword IS NULL OR i.name LIKE '%' || :keyword || '%') " +
+            "AND i.updateTime >= :untilUpdateTime AND (i.updateTime > :untilUpdateTime OR i.id >= :untilId) " +
+            "ORDER BY i.updateTime DESC, i.id DESC")
+    List<ItemWithName> getRecycleItemsUpTo(String keyword, long untilUpdateTime, long untilId);
 
 
     /**
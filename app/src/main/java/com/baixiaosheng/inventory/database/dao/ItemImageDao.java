@@ -0,0 +1,39 @@
+package com.baixiaosheng.inventory.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+
+import java.util.List;
+
+/**
+ * 物品图片表数据访问接口
+ */
+@Dao
+public interface ItemImageDao {
+    @Insert
+    void insertImages(List<ItemImage> images);
+
+    /** 删除指定物品的全部图片记录（图片变更时整体重写） */
+    @Query("DELETE FROM item_image WHERE itemId = :itemId")
+    void deleteImagesByItemId(long itemId);
+
+    /** 指定物品的图片（按顺序） */
+    @Query("SELECT * FROM item_image WHERE itemId = :itemId ORDER BY ordinal")
+    List<ItemImage> getImagesByItemId(long itemId);
+
+    /** 指定物品的第一张图片（列表封面，无图片时返回null） */
+    @Query("SELECT * FROM item_image WHERE itemId = :itemId ORDER BY ordinal LIMIT 1")
+    ItemImage getFirstImage(long itemId);
+
+    /** 元数据尚未读取的图片（每次取一批，后台补全） */
+    @Query("SELECT * FROM item_image WHERE byteSize < 0 LIMIT :limit")
+    List<ItemImage> getImagesMissingMetadata(int limit);
+
+    /** 写入图片元数据 */
+    @Query("UPDATE item_image SET width = :width, height = :height, orientation = :orientation, " +
+            "byteSize = :byteSize, thumbPath = :thumbPath WHERE id = :id")
+    int updateImageMetadata(long id, int width, int height, int orientation, long byteSize, String thumbPath);
+}
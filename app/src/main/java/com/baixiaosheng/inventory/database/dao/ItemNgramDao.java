@@ -0,0 +1,24 @@
+package com.baixiaosheng.inventory.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.baixiaosheng.inventory.database.entity.ItemNgram;
+
+import java.util.List;
+
+/**
+ * 物品名称N-gram倒排表数据访问接口
+ */
+@Dao
+public interface ItemNgramDao {
+    /** 批量插入词条（重复词条忽略） */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertNgrams(List<ItemNgram> ngrams);
+
+    /** 删除指定物品的全部词条（名称变更时重建） */
+    @Query("DELETE FROM item_ngram WHERE itemId = :itemId")
+    void deleteNgramsByItemId(long itemId);
+}
@@ -40,22 +40,37 @@ public interface LocationDao {
     List<Location> getLocationByName(String name);
 
     // 查询所有位置
-    @Query("SELECT * FROM location ORDER BY createTime DESC")
+    @Query("SELECT * FROM location ORDER BY createTime DESC, id DESC")
     List<Location> getAllLocations();
 
+    // 字典缓存增量重建：updateTime不早于since的位置（新增或修改过的行）
+    @Query("SELECT * FROM location WHERE updateTime >= :since")
+    List<Location> getLocationsUpdatedSince(long since);
+
+    // 字典缓存增量重建：位置总数（与快照行数不一致时说明有删除）
+    @Query("SELECT COUNT(*) FROM location")
+    int countLocations();
+
+    // 字典缓存增量重建：全部位置ID（只在有删除时读取）
+    @Query("SELECT id FROM location")
+    List<Long> getLocationIds();
+
     // 根据名称模糊查询
     @Query("SELECT * FROM location WHERE name LIKE '%' || :name || '%'")
     List<Location> searchLocation(String name);
 
+    // 拼音前缀查询（全拼或首字母，upperBound为前缀上界，不含），同时保留按名称模糊匹配
+    @Query("SELECT * FROM location " +
+            "WHERE (namePinyin >= :prefix AND namePinyin < :upperBound) " +
+            "OR (nameInitials >= :prefix AND nameInitials < :upperBound) " +
+            "OR name LIKE '%' || :keyword || '%'")
+    List<Location> searchLocationByPinyin(String prefix, String upperBound, String keyword);
+
     // 新增：根据ID删除分类（解决编译报错的核心）
     @Query("DELETE FROM location WHERE id = :locationId")
     int deleteLocationById(long locationId);
 
 
-    // 获取位置关联的物品数量
-    @Query("SELECT COUNT(*) FROM item WHERE locationId = :locationId AND isDeleted = 0")
-    int getRelatedItemCount(long locationId);
-
     //检查位置名称是否存在
 
     @Query("SELECT COUNT(*) > 0 FROM location WHERE name = :name AND id != :excludeId")
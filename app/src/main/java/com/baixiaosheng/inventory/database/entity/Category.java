@@ -2,6 +2,7 @@ package com.baixiaosheng.inventory.database.entity;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
@@ -9,10 +10,17 @@ import androidx.room.PrimaryKey;
  * id：主键自增
  * parentCategoryId：父分类ID（0表示一级分类）
  * categoryName：分类名称
+ * categoryNamePinyin / categoryNameInitials：分类名称全拼/首字母（用于拼音检索）
  * createTime：创建时间（时间戳）
  * updateTime：更新时间（时间戳）
+ * 索引：(parentCategoryId, categoryName) 用于子分类列表和同名校验，拼音列用于前缀查询
  */
-@Entity(tableName = "category")
+@Entity(tableName = "category",
+        indices = {
+                @Index(value = {"parentCategoryId", "categoryName"}),
+                @Index(value = {"categoryNamePinyin"}),
+                @Index(value = {"categoryNameInitials"})
+        })
 public class Category {
     // 主键自增
     @PrimaryKey(autoGenerate = true)
@@ -21,6 +29,9 @@ public class Category {
     private long parentCategoryId;
     // 分类名称（规范字段名：categoryName）
     private String categoryName;
+    // 分类名称全拼 / 首字母
+    private String categoryNamePinyin;
+    private String categoryNameInitials;
     // 创建时间（毫秒级时间戳）
     private long createTime;
     // 更新时间（毫秒级时间戳）
@@ -63,6 +74,22 @@ public class Category {
         this.categoryName = categoryName;
     }
 
+    public String getCategoryNamePinyin() {
+        return categoryNamePinyin;
+    }
+
+    public void setCategoryNamePinyin(String categoryNamePinyin) {
+        this.categoryNamePinyin = categoryNamePinyin;
+    }
+
+    public String getCategoryNameInitials() {
+        return categoryNameInitials;
+    }
+
+    public void setCategoryNameInitials(String categoryNameInitials) {
+        this.categoryNameInitials = categoryNameInitials;
+    }
+
     public long getCreateTime() {
         return createTime;
     }
@@ -0,0 +1,18 @@
+package com.baixiaosheng.inventory.database.entity;
+
+/**
+ * 筛选项计数的分组查询结果：每个 (父分类, 子分类, 位置) 组合下的物品数
+ */
+public class FacetCountRow {
+    // 父分类名称（未分类时为null）
+    public String parentCategoryName;
+
+    // 子分类名称（未分类时为null）
+    public String childCategoryName;
+
+    // 位置名称（未设置时为null）
+    public String locationName;
+
+    // 该组合下的物品数
+    public int itemCount;
+}
@@ -0,0 +1,82 @@
+package com.baixiaosheng.inventory.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 图片内容表（内容寻址存储，见ImageStore）
+ * hash：图片内容的SHA-256（十六进制小写），相同内容的图片只存一份
+ * path：存储文件路径（文件名即hash）
+ * byteSize：文件字节数
+ * refCount：引用该图片的物品数，由item_image_ref上的触发器维护（见DatabaseMigrations.createImageRefTriggers），代码中只读不写
+ * attachTime：最近一次入库时间；未被引用且超过保留期的图片由垃圾回收删除
+ */
+@Entity(tableName = "image_blob",
+        indices = {@Index(value = {"path"}, unique = true)})
+public class ImageBlob {
+    @PrimaryKey
+    @NonNull
+    private String hash = "";
+    @NonNull
+    private String path = "";
+    private long byteSize;
+    private int refCount;
+    private long attachTime;
+
+    // 空构造函数（Room要求）
+    public ImageBlob() {}
+
+    @Ignore
+    public ImageBlob(@NonNull String hash, @NonNull String path, long byteSize, long attachTime) {
+        this.hash = hash;
+        this.path = path;
+        this.byteSize = byteSize;
+        this.attachTime = attachTime;
+    }
+
+    // Getter & Setter
+    @NonNull
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(@NonNull String hash) {
+        this.hash = hash;
+    }
+
+    @NonNull
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(@NonNull String path) {
+        this.path = path;
+    }
+
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    public void setByteSize(long byteSize) {
+        this.byteSize = byteSize;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public long getAttachTime() {
+        return attachTime;
+    }
+
+    public void setAttachTime(long attachTime) {
+        this.attachTime = attachTime;
+    }
+}
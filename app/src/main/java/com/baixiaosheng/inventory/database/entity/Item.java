@@ -2,9 +2,11 @@ package com.baixiaosheng.inventory.database.entity;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -12,33 +14,50 @@ import java.util.UUID;
  * uuid：唯一标识（避免id自增重复问题）
  * id：主键自增
  * name：物品名称（必选）
+ * namePinyin / nameInitials：名称全拼/首字母（写入时由DatabaseManager生成，用于拼音检索）
  * parentCategoryId：父分类ID（关联Category表）
  * childCategoryId：子分类ID（关联Category表）
  * locationId：位置ID（关联Location表）
  * validTime：有效期（毫秒时间戳，可选）
  * count：物品数量（可选，默认1）
- * imagePaths：图片路径（多图用","分隔，如"/sdcard/1.jpg,/sdcard/2.jpg"）
+ * images：图片列表（存于item_image表，不是item表的列；为null时保存物品不修改已有图片）
  * remark：物品说明（可选）
  * createTime：创建时间
  * updateTime：更新时间
  * isDeleted：删除标记（0=未删除，1=已删除，默认0）
+ * 索引：(isDeleted, validTime) 列表排序、(isDeleted, updateTime) 回收站排序、uuid唯一、
+ * (parentCategoryId, childCategoryId) / childCategoryId / locationId 关联查询、
+ * namePinyin / nameInitials 拼音前缀查询
  */
-@Entity(tableName = "item")
+@Entity(tableName = "item",
+        indices = {
+                @Index(value = {"isDeleted", "validTime"}),
+                @Index(value = {"isDeleted", "updateTime"}),
+                @Index(value = {"uuid"}, unique = true),
+                @Index(value = {"parentCategoryId", "childCategoryId"}),
+                @Index(value = {"childCategoryId"}),
+                @Index(value = {"locationId"}),
+                @Index(value = {"namePinyin"}),
+                @Index(value = {"nameInitials"})
+        })
 public class Item implements Serializable { // 新增Serializable接口
     @PrimaryKey(autoGenerate = true)
     private long id;
     private String uuid; // 唯一标识，创建时生成UUID
     private String name;
+    private String namePinyin; // 名称全拼（小写无声调）
+    private String nameInitials; // 名称拼音首字母
     private long parentCategoryId; // 父分类ID，0表示未分类
     private long childCategoryId; // 子分类ID，0表示未分类
     private long locationId; // 位置ID，0表示未指定
     private long validTime; // 有效期，0表示永久
     private int count; // 数量，默认1
-    private String imagePaths; // 图片路径，多图逗号分隔
     private String remark; // 物品说明
     private long createTime;
     private long updateTime;
     private int isDeleted; // 删除标记：0=未删除，1=已删除
+    @Ignore
+    private List<ItemImage> images; // 图片列表（item_image表），null表示未加载
 
     // 空构造函数
     public Item() {
@@ -59,7 +78,7 @@ public class Item implements Serializable { // 新增Serializable接口
     // 带参构造函数（核心字段）
     @Ignore
     public Item(String name, long parentCategoryId, long childCategoryId, long locationId,
-                long validTime, int count, String imagePaths, String remark,
+                long validTime, int count, String remark,
                 long createTime, long updateTime) {
         this.uuid = UUID.randomUUID().toString();
         this.name = name;
@@ -68,7 +87,6 @@ public class Item implements Serializable { // 新增Serializable接口
         this.locationId = locationId;
         this.validTime = validTime;
         this.count = count;
-        this.imagePaths = imagePaths;
         this.remark = remark;
         this.createTime = createTime;
         this.updateTime = updateTime;
@@ -79,7 +97,7 @@ public class Item implements Serializable { // 新增Serializable接口
     // 扩展带参构造函数（包含isDeleted，按需使用）
     @Ignore
     public Item(String name, long parentCategoryId, long childCategoryId, long locationId,
-                long validTime, int count, String imagePaths, String remark,
+                long validTime, int count, String remark,
                 long createTime, long updateTime, int isDeleted) {
         this.uuid = UUID.randomUUID().toString();
         this.name = name;
@@ -88,7 +106,6 @@ public class Item implements Serializable { // 新增Serializable接口
         this.locationId = locationId;
         this.validTime = validTime;
         this.count = count;
-        this.imagePaths = imagePaths;
         this.remark = remark;
         this.createTime = createTime;
         this.updateTime = updateTime;
@@ -120,6 +137,22 @@ public class Item implements Serializable { // 新增Serializable接口
         this.name = name;
     }
 
+    public String getNamePinyin() {
+        return namePinyin;
+    }
+
+    public void setNamePinyin(String namePinyin) {
+        this.namePinyin = namePinyin;
+    }
+
+    public String getNameInitials() {
+        return nameInitials;
+    }
+
+    public void setNameInitials(String nameInitials) {
+        this.nameInitials = nameInitials;
+    }
+
     public long getParentCategoryId() {
         return parentCategoryId;
     }
@@ -160,12 +193,12 @@ public class Item implements Serializable { // 新增Serializable接口
         this.count = count;
     }
 
-    public String getImagePaths() {
-        return imagePaths;
+    public List<ItemImage> getImages() {
+        return images;
     }
 
-    public void setImagePaths(String imagePaths) {
-        this.imagePaths = imagePaths;
+    public void setImages(List<ItemImage> images) {
+        this.images = images;
     }
 
     public String getRemark() {
@@ -0,0 +1,55 @@
+package com.baixiaosheng.inventory.database.entity;
+
+import androidx.room.Entity;
+
+/**
+ * 物品计数表（按父分类/子分类/位置统计未删除物品数，另计父、子分类相同的物品数）
+ * kind：计数维度（见KIND_*常量）
+ * refId：对应的分类ID或位置ID
+ * activeCount：isDeleted = 0 的物品数量
+ * 数据由item表上的触发器维护（见DatabaseMigrations.createItemCounterTriggers），代码中只读不写
+ */
+@Entity(tableName = "item_counter",
+        primaryKeys = {"kind", "refId"})
+public class ItemCounter {
+    // 计数维度：父分类（item.parentCategoryId）
+    public static final int KIND_PARENT_CATEGORY = 0;
+    // 计数维度：子分类（item.childCategoryId）
+    public static final int KIND_CHILD_CATEGORY = 1;
+    // 计数维度：位置（item.locationId）
+    public static final int KIND_LOCATION = 2;
+    // 计数维度：父、子分类为同一分类的物品（refId为该分类），用于扣除父/子计数的重叠
+    public static final int KIND_SELF_PAIR = 3;
+
+    private int kind;
+    private long refId;
+    private int activeCount;
+
+    // 空构造函数（Room要求）
+    public ItemCounter() {}
+
+    // Getter & Setter
+    public int getKind() {
+        return kind;
+    }
+
+    public void setKind(int kind) {
+        this.kind = kind;
+    }
+
+    public long getRefId() {
+        return refId;
+    }
+
+    public void setRefId(long refId) {
+        this.refId = refId;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+}
@@ -0,0 +1,64 @@
+package com.baixiaosheng.inventory.database.entity;
+
+import androidx.room.Embedded;
+import androidx.room.Ignore;
+import androidx.room.Relation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 物品详情页的查询结果（物品+父/子分类名称+位置名称+图片列表）
+ * 分类/位置名称由一条关联查询返回，图片由@Relation在同一事务内加载，详情页无需再逐个查询
+ */
+public class ItemDetail {
+    // 嵌入原有Item实体（保留所有item表字段）
+    @Embedded
+    public Item item;
+
+    // 父分类名称（从category表关联）
+    public String parentCategoryName;
+
+    // 子分类名称（从category表关联）
+    public String childCategoryName;
+
+    // 位置名称（从location表关联）
+    public String locationName;
+
+    // 物品图片（从item_image表关联，Room不保证顺序）
+    @Relation(parentColumn = "id", entityColumn = "itemId")
+    public List<ItemImage> images;
+
+    // 按ordinal排序后的图片（首次访问时排序）
+    @Ignore
+    private List<ItemImage> sortedImages;
+
+    /**
+     * 获取按顺序排列的图片列表
+     */
+    public List<ItemImage> getImages() {
+        if (sortedImages == null) {
+            if (images == null || images.isEmpty()) {
+                sortedImages = Collections.emptyList();
+            } else {
+                List<ItemImage> sorted = new ArrayList<>(images);
+                Collections.sort(sorted, (a, b) -> Integer.compare(a.getOrdinal(), b.getOrdinal()));
+                sortedImages = Collections.unmodifiableList(sorted);
+            }
+        }
+        return sortedImages;
+    }
+
+    /**
+     * 获取按顺序排列的图片路径列表
+     */
+    public List<String> getImagePathList() {
+        List<ItemImage> sorted = getImages();
+        List<String> paths = new ArrayList<>(sorted.size());
+        for (ItemImage image : sorted) {
+            paths.add(image.getPath());
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,126 @@
+package com.baixiaosheng.inventory.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.io.Serializable;
+
+/**
+ * 物品图片表（每张图片一行，替代原item.imagePaths逗号拼接字符串）
+ * itemId：关联物品表的ID（物品物理删除时级联删除）
+ * ordinal：图片在物品中的顺序（从0开始，第一张为封面）
+ * path：图片文件路径
+ * width / height：像素宽高（未旋转）
+ * orientation：EXIF旋转角度（0/90/180/270，入库规范化的图片为0）
+ * byteSize：文件字节数（BYTE_SIZE_UNKNOWN表示元数据尚未读取，见ImageStore.fillMissingImageMetadata）
+ * thumbPath：缩略图路径（无缩略图时为null）
+ * 元数据在写入时记录，查询时无需访问文件系统
+ */
+@Entity(tableName = "item_image",
+        foreignKeys = @ForeignKey(entity = Item.class,
+                parentColumns = "id",
+                childColumns = "itemId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index(value = {"itemId"})})
+public class ItemImage implements Serializable {
+    // 元数据尚未读取（7 → 8迁移只复制路径，宽高等由后台补全）
+    public static final long BYTE_SIZE_UNKNOWN = -1;
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private long itemId;
+    private int ordinal;
+    @NonNull
+    private String path = "";
+    private int width;
+    private int height;
+    private int orientation;
+    private long byteSize;
+    private String thumbPath;
+
+    // 空构造函数（Room要求）
+    public ItemImage() {}
+
+    @Ignore
+    public ItemImage(@NonNull String path) {
+        this.path = path;
+    }
+
+    // Getter & Setter
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(long itemId) {
+        this.itemId = itemId;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    @NonNull
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(@NonNull String path) {
+        this.path = path;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public int getOrientation() {
+        return orientation;
+    }
+
+    public void setOrientation(int orientation) {
+        this.orientation = orientation;
+    }
+
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    public void setByteSize(long byteSize) {
+        this.byteSize = byteSize;
+    }
+
+    public String getThumbPath() {
+        return thumbPath;
+    }
+
+    public void setThumbPath(String thumbPath) {
+        this.thumbPath = thumbPath;
+    }
+}
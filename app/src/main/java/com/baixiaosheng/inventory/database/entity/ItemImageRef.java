@@ -0,0 +1,53 @@
+package com.baixiaosheng.inventory.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * 物品-图片引用表
+ * itemId：关联物品表的ID（物品物理删除时级联删除，触发器随之减少image_blob.refCount）
+ * hash：引用的图片内容hash（image_blob.hash）
+ * 同一物品多次引用相同内容的图片只记一次
+ */
+@Entity(tableName = "item_image_ref",
+        primaryKeys = {"itemId", "hash"},
+        foreignKeys = @ForeignKey(entity = Item.class,
+                parentColumns = "id",
+                childColumns = "itemId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index(value = {"hash"})})
+public class ItemImageRef {
+    private long itemId;
+    @NonNull
+    private String hash = "";
+
+    // 空构造函数（Room要求）
+    public ItemImageRef() {}
+
+    @Ignore
+    public ItemImageRef(long itemId, @NonNull String hash) {
+        this.itemId = itemId;
+        this.hash = hash;
+    }
+
+    // Getter & Setter
+    public long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(long itemId) {
+        this.itemId = itemId;
+    }
+
+    @NonNull
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(@NonNull String hash) {
+        this.hash = hash;
+    }
+}
@@ -0,0 +1,53 @@
+package com.baixiaosheng.inventory.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * 物品名称N-gram倒排表（中文子串检索）
+ * gram：名称中的二元/三元组（小写）
+ * itemId：关联物品表的ID（物品物理删除时级联删除）
+ * 主键(gram, itemId)即为按词条查物品的倒排索引
+ */
+@Entity(tableName = "item_ngram",
+        primaryKeys = {"gram", "itemId"},
+        foreignKeys = @ForeignKey(entity = Item.class,
+                parentColumns = "id",
+                childColumns = "itemId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index(value = {"itemId"})})
+public class ItemNgram {
+    @NonNull
+    private String gram = "";
+    private long itemId;
+
+    // 空构造函数（Room要求）
+    public ItemNgram() {}
+
+    @Ignore
+    public ItemNgram(@NonNull String gram, long itemId) {
+        this.gram = gram;
+        this.itemId = itemId;
+    }
+
+    // Getter & Setter
+    @NonNull
+    public String getGram() {
+        return gram;
+    }
+
+    public void setGram(@NonNull String gram) {
+        this.gram = gram;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(long itemId) {
+        this.itemId = itemId;
+    }
+}
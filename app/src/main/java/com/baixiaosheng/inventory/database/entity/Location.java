@@ -2,21 +2,31 @@ package com.baixiaosheng.inventory.database.entity;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * 位置表（存储物品放置位置）
  * id：主键自增
  * name：位置名称（如"仓库A-货架1"）
+ * namePinyin / nameInitials：位置名称全拼/首字母（用于拼音检索）
  * remark：位置备注（可选）
  * createTime：创建时间
  * updateTime：更新时间
+ * 索引：name 用于名称查重和按名称筛选，拼音列用于前缀查询
  */
-@Entity(tableName = "location")
+@Entity(tableName = "location",
+        indices = {
+                @Index(value = {"name"}),
+                @Index(value = {"namePinyin"}),
+                @Index(value = {"nameInitials"})
+        })
 public class Location {
     @PrimaryKey(autoGenerate = true)
     private long id;
     private String name;
+    private String namePinyin; // 名称全拼
+    private String nameInitials; // 名称拼音首字母
     private String remark; // 可选备注
     private long createTime;
     private long updateTime;
@@ -50,6 +60,22 @@ public class Location {
         this.name = name;
     }
 
+    public String getNamePinyin() {
+        return namePinyin;
+    }
+
+    public void setNamePinyin(String namePinyin) {
+        this.namePinyin = namePinyin;
+    }
+
+    public String getNameInitials() {
+        return nameInitials;
+    }
+
+    public void setNameInitials(String nameInitials) {
+        this.nameInitials = nameInitials;
+    }
+
     public String getRemark() {
         return remark;
     }
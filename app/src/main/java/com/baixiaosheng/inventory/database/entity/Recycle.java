@@ -2,6 +2,7 @@ package com.baixiaosheng.inventory.database.entity;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
@@ -12,8 +13,10 @@ import androidx.room.PrimaryKey;
  * itemName：物品名称（冗余存储，用于列表展示）
  * deleteTime：删除时间
  * deleteReason：删除原因（可选）
+ * 索引：itemId 用于按物品查回收站记录及与item表关联
  */
-@Entity(tableName = "recycle")
+@Entity(tableName = "recycle",
+        indices = {@Index(value = {"itemId"})})
 public class Recycle {
     @PrimaryKey(autoGenerate = true)
     private long id;
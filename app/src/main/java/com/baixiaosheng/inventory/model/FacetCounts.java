@@ -0,0 +1,89 @@
+package com.baixiaosheng.inventory.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 查询页筛选项计数（不可变）：当前筛选条件下，各父分类/子分类/位置对应的物品数
+ * 某一维度的计数不受该维度自身条件限制（如已选位置"冰箱"，位置计数表示改选其他位置时的结果数），
+ * 其余条件全部生效
+ */
+public final class FacetCounts {
+    private final Map<String, Integer> parentCategoryCounts;
+    private final Map<String, Integer> childCategoryCounts;
+    private final Map<String, Integer> locationCounts;
+
+    private FacetCounts(Builder builder) {
+        parentCategoryCounts = Collections.unmodifiableMap(builder.parentCategoryCounts);
+        childCategoryCounts = Collections.unmodifiableMap(builder.childCategoryCounts);
+        locationCounts = Collections.unmodifiableMap(builder.locationCounts);
+    }
+
+    /** 选择该父分类时的物品数 */
+    public int getParentCategoryCount(String name) {
+        return get(parentCategoryCounts, name);
+    }
+
+    /** 选择该子分类时的物品数 */
+    public int getChildCategoryCount(String name) {
+        return get(childCategoryCounts, name);
+    }
+
+    /** 选择该位置时的物品数 */
+    public int getLocationCount(String name) {
+        return get(locationCounts, name);
+    }
+
+    private static int get(Map<String, Integer> counts, String name) {
+        Integer count = counts.get(name);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 计数构造器：逐组累加 (父分类名, 子分类名, 位置名, 物品数)
+     * 传入的分组只需满足关键词/数量/有效期条件，分类/位置条件在累加时按维度分别判断
+     */
+    public static final class Builder {
+        private final String parentCategory;
+        private final String childCategory;
+        private final String location;
+        private final Map<String, Integer> parentCategoryCounts = new HashMap<>();
+        private final Map<String, Integer> childCategoryCounts = new HashMap<>();
+        private final Map<String, Integer> locationCounts = new HashMap<>();
+
+        public Builder(FilterCondition filter) {
+            parentCategory = filter.getParentCategory();
+            childCategory = filter.getChildCategory();
+            location = filter.getLocation();
+        }
+
+        public Builder add(String parentCategoryName, String childCategoryName, String locationName, int count) {
+            boolean parentMatched = parentCategory.isEmpty() || parentCategory.equals(parentCategoryName);
+            boolean childMatched = childCategory.isEmpty() || childCategory.equals(childCategoryName);
+            boolean locationMatched = location.isEmpty() || location.equals(locationName);
+            if (childMatched && locationMatched) {
+                increment(parentCategoryCounts, parentCategoryName, count);
+            }
+            if (parentMatched && locationMatched) {
+                increment(childCategoryCounts, childCategoryName, count);
+            }
+            if (parentMatched && childMatched) {
+                increment(locationCounts, locationName, count);
+            }
+            return this;
+        }
+
+        public FacetCounts build() {
+            return new FacetCounts(this);
+        }
+
+        private static void increment(Map<String, Integer> counts, String name, int count) {
+            if (name == null) {
+                return;
+            }
+            Integer current = counts.get(name);
+            counts.put(name, current == null ? count : current + count);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.baixiaosheng.inventory.model;
+
+/**
+ * 查询页Spinner选项：名称 + 物品数（Spinner通过toString显示）
+ */
+public final class FacetOption {
+    // 计数未知（尚未完成首次查询）
+    public static final int COUNT_UNKNOWN = -1;
+
+    private final String name;
+    private final int count;
+
+    public FacetOption(String name, int count) {
+        this.name = name;
+        this.count = count;
+    }
+
+    /** 名称（作为筛选条件使用） */
+    public String getName() {
+        return name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return count == COUNT_UNKNOWN ? name : name + " (" + count + ")";
+    }
+}
@@ -1,6 +1,7 @@
 package com.baixiaosheng.inventory.model;
 
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * 筛选条件实体类：封装查询页的多条件筛选参数
@@ -102,6 +103,49 @@ public class FilterCondition {
         this.expireEnd = expireEnd;
     }
 
+    /**
+     * 复制当前筛选条件（供后台查询使用，避免界面继续修改同一对象）
+     */
+    public FilterCondition copy() {
+        return new FilterCondition(searchKeyword, parentCategory, childCategory, location,
+                quantityMin, quantityMax,
+                expireStart != null ? new Date(expireStart.getTime()) : null,
+                expireEnd != null ? new Date(expireEnd.getTime()) : null);
+    }
+
+    /**
+     * 按规范化后的值比较（文本去除首尾空白、null与空串等价，日期按毫秒时间戳比较）
+     * 可作为查询结果缓存的键；作为键时应使用copy()，避免原对象被界面继续修改
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FilterCondition)) {
+            return false;
+        }
+        FilterCondition that = (FilterCondition) o;
+        return getSearchKeyword().equals(that.getSearchKeyword())
+                && getParentCategory().equals(that.getParentCategory())
+                && getChildCategory().equals(that.getChildCategory())
+                && getLocation().equals(that.getLocation())
+                && Objects.equals(quantityMin, that.quantityMin)
+                && Objects.equals(quantityMax, that.quantityMax)
+                && Objects.equals(toTime(expireStart), toTime(that.expireStart))
+                && Objects.equals(toTime(expireEnd), toTime(that.expireEnd));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getSearchKeyword(), getParentCategory(), getChildCategory(), getLocation(),
+                quantityMin, quantityMax, toTime(expireStart), toTime(expireEnd));
+    }
+
+    private static Long toTime(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
     /**
      * 判断是否为默认筛选条件（无任何筛选）
      */
@@ -0,0 +1,26 @@
+package com.baixiaosheng.inventory.model;
+
+import java.util.List;
+
+/**
+ * 查询页列表更新：行模型 + 是否为原位刷新
+ * 原位刷新（分页追加、数据变更后重查已加载窗口）保留多选状态，新查询则退出多选
+ */
+public final class ItemListUpdate {
+    private final List<ItemRow> rows;
+    private final boolean refresh;
+
+    public ItemListUpdate(List<ItemRow> rows, boolean refresh) {
+        this.rows = rows;
+        this.refresh = refresh;
+    }
+
+    public List<ItemRow> getRows() {
+        return rows;
+    }
+
+    /** 是否为同一查询的原位刷新（筛选条件未变） */
+    public boolean isRefresh() {
+        return refresh;
+    }
+}
@@ -0,0 +1,175 @@
+package com.baixiaosheng.inventory.model;
+
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+
+import java.text.SimpleDateFormat;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 查询页列表行的展示模型（不可变）：分类/位置/数量/有效期文案在后台线程一次性生成，
+ * 绑定列表项时只做setText，不再拼接字符串或格式化日期
+ */
+public final class ItemRow {
+    private final ItemWithName source;
+    private final String uuid;
+    private final CharSequence name;
+    private final CharSequence categoryLabel;
+    private final CharSequence locationLabel;
+    private final CharSequence quantityText;
+    private final CharSequence expireText;
+    // 物品说明，为空时不显示
+    private final CharSequence remark;
+
+    private ItemRow(ItemWithName source, SimpleDateFormat dateFormat) {
+        this.source = source;
+        this.uuid = source.item.getUuid();
+        this.name = source.item.getName();
+        this.categoryLabel = buildCategoryLabel(source);
+        this.locationLabel = buildLocationLabel(source);
+        this.quantityText = String.valueOf(source.item.getCount());
+        this.expireText = source.item.getValidTime() != 0 ? dateFormat.format(source.item.getValidTime()) : "无";
+        String remarkText = source.item.getRemark();
+        this.remark = remarkText != null && !remarkText.isEmpty() ? remarkText : null;
+    }
+
+    /** 原始查询结果（点击跳转、批量操作使用） */
+    public ItemWithName getSource() {
+        return source;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public CharSequence getName() {
+        return name;
+    }
+
+    public CharSequence getCategoryLabel() {
+        return categoryLabel;
+    }
+
+    public CharSequence getLocationLabel() {
+        return locationLabel;
+    }
+
+    public CharSequence getQuantityText() {
+        return quantityText;
+    }
+
+    public CharSequence getExpireText() {
+        return expireText;
+    }
+
+    public boolean hasRemark() {
+        return remark != null;
+    }
+
+    public CharSequence getRemark() {
+        return remark;
+    }
+
+    /** 展示内容是否一致（列表差分使用） */
+    public boolean sameContent(ItemRow other) {
+        return this == other
+                || (equalText(name, other.name)
+                && equalText(categoryLabel, other.categoryLabel)
+                && equalText(locationLabel, other.locationLabel)
+                && equalText(quantityText, other.quantityText)
+                && equalText(expireText, other.expireText)
+                && equalText(remark, other.remark));
+    }
+
+    /**
+     * 行列表的只读物品视图（不复制，按下标取原始查询结果）
+     */
+    public static List<ItemWithName> sources(List<ItemRow> rows) {
+        return new AbstractList<ItemWithName>() {
+            @Override
+            public ItemWithName get(int index) {
+                return rows.get(index).source;
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    /**
+     * 行列表中全部物品的UUID
+     */
+    public static Set<String> uuids(List<ItemRow> rows) {
+        Set<String> uuids = new HashSet<>(rows.size() * 2);
+        for (ItemRow row : rows) {
+            uuids.add(row.getUuid());
+        }
+        return uuids;
+    }
+
+    // 分类显示规则：未设置父分类显示"未设置"；名称缺失时显示ID；有子分类时显示"父/子"
+    private static CharSequence buildCategoryLabel(ItemWithName itemWithName) {
+        if (itemWithName.item.getParentCategoryId() == 0) {
+            return "未设置";
+        }
+        String parentCatName = itemWithName.parentCategoryName;
+        String displayParent = (parentCatName != null && !parentCatName.isEmpty())
+                ? parentCatName
+                : String.valueOf(itemWithName.item.getParentCategoryId());
+        if (itemWithName.item.getChildCategoryId() == 0) {
+            return displayParent;
+        }
+        String childCatName = itemWithName.categoryName;
+        String displayChild = (childCatName != null && !childCatName.isEmpty())
+                ? childCatName
+                : String.valueOf(itemWithName.item.getChildCategoryId());
+        return displayParent + "/" + displayChild;
+    }
+
+    private static CharSequence buildLocationLabel(ItemWithName itemWithName) {
+        if (itemWithName.locationName != null) {
+            return itemWithName.locationName;
+        }
+        return itemWithName.item.getLocationId() == 0 ? "未设置" : String.valueOf(itemWithName.item.getLocationId());
+    }
+
+    private static boolean equalText(CharSequence a, CharSequence b) {
+        return a == null ? b == null : b != null && a.toString().equals(b.toString());
+    }
+
+    /**
+     * 行模型生成器（非线程安全，须固定在同一后台线程使用）
+     * 按查询结果对象复用已生成的行：分页追加、内存细化后只为新出现的对象生成文案
+     */
+    public static final class Factory {
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.CHINA);
+        private Map<ItemWithName, ItemRow> rowsBySource = new IdentityHashMap<>();
+
+        public List<ItemRow> toRows(List<ItemWithName> items) {
+            Map<ItemWithName, ItemRow> current = new IdentityHashMap<>(items.size());
+            List<ItemRow> rows = new ArrayList<>(items.size());
+            for (ItemWithName itemWithName : items) {
+                if (itemWithName == null || itemWithName.item == null) {
+                    continue;
+                }
+                ItemRow row = rowsBySource.get(itemWithName);
+                if (row == null) {
+                    row = new ItemRow(itemWithName, dateFormat);
+                }
+                current.put(itemWithName, row);
+                rows.add(row);
+            }
+            // 只保留当前结果中的行，避免缓存随查询次数增长
+            rowsBySource = current;
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.baixiaosheng.inventory.utils;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitmap复用池（线程安全）：按分配字节数分桶保存不再显示的可变Bitmap，
+ * 解码时通过BitmapFactory.Options.inBitmap复用其内存，减少大块分配和GC
+ * 放入池中的Bitmap必须确认已不再被任何View显示
+ */
+public final class BitmapPool {
+    // 复用的Bitmap最多为所需大小的2倍，避免小图长期占用大块内存
+    private static final int MAX_SIZE_MULTIPLE = 2;
+
+    private final long maxBytes;
+    // 分配字节数 → 该大小的空闲Bitmap
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> buckets = new TreeMap<>();
+    private long currentBytes;
+    private int hitCount;
+    private int missCount;
+
+    /**
+     * @param maxBytes 池中空闲Bitmap的总字节上限
+     */
+    public BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 取出一个可容纳指定尺寸的Bitmap（供inBitmap使用）
+     * @return 没有合适的Bitmap时返回null
+     */
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        int required = width * height * bytesPerPixel(config);
+        Map.Entry<Integer, ArrayDeque<Bitmap>> entry = buckets.ceilingEntry(required);
+        if (entry == null || entry.getKey() > (long) required * MAX_SIZE_MULTIPLE) {
+            missCount++;
+            return null;
+        }
+        ArrayDeque<Bitmap> bucket = entry.getValue();
+        Bitmap bitmap = bucket.pollLast();
+        if (bucket.isEmpty()) {
+            buckets.remove(entry.getKey());
+        }
+        currentBytes -= entry.getKey();
+        hitCount++;
+        return bitmap;
+    }
+
+    /**
+     * 归还不再显示的Bitmap；不可变或已回收的Bitmap直接忽略
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if (size > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        ArrayDeque<Bitmap> bucket = buckets.get(size);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.put(size, bucket);
+        }
+        bucket.addLast(bitmap);
+        currentBytes += size;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * 清空池（内存紧张时调用）
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    // 超出上限时优先释放最大的Bitmap
+    private void trimToSize(long size) {
+        while (currentBytes > size && !buckets.isEmpty()) {
+            Map.Entry<Integer, ArrayDeque<Bitmap>> largest = buckets.lastEntry();
+            ArrayDeque<Bitmap> bucket = largest.getValue();
+            Bitmap bitmap = bucket.pollFirst();
+            if (bucket.isEmpty()) {
+                buckets.remove(largest.getKey());
+            }
+            currentBytes -= largest.getKey();
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+        }
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        return 4;
+    }
+}
@@ -3,7 +3,6 @@ package com.baixiaosheng.inventory.utils;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
-import android.os.Environment;
 import android.os.FileUtils;
 import android.util.Log;
 
@@ -13,6 +12,7 @@ import androidx.lifecycle.LiveData;
 import com.baixiaosheng.inventory.database.DatabaseManager;
 import com.baixiaosheng.inventory.database.entity.Category;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
 import com.baixiaosheng.inventory.database.entity.Location;
 
 import org.json.JSONArray;
@@ -27,7 +27,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -58,10 +60,15 @@ public class DataExportImportUtils {
             List<Item> items = itemLiveData.getValue() == null ? new ArrayList<>() : itemLiveData.getValue();
             List<Category> categories = DatabaseManager.getInstance(context).listAllCategories();
             List<Location> locations = DatabaseManager.getInstance(context).getAllLocations();
+            // 物品图片（item_image表，按顺序）
+            Map<Long, List<ItemImage>> imagesByItem = new HashMap<>();
+            for (Item item : items) {
+                imagesByItem.put(item.getId(), DatabaseManager.getInstance(context).getItemImages(item.getId()));
+            }
 
             // 2. 将数据转换为JSON
             JSONObject root = new JSONObject();
-            root.put("items", convertItemsToJson(items));
+            root.put("items", convertItemsToJson(items, imagesByItem));
             root.put("categories", convertCategoriesToJson(categories));
             root.put("locations", convertLocationsToJson(locations));
 
@@ -80,12 +87,8 @@ public class DataExportImportUtils {
 
             // 5. 写入图片文件
             for (Item item : items) {
-                if (item.getImagePaths() == null || item.getImagePaths().isEmpty()) {
-                    continue;
-                }
-                String[] imagePaths = item.getImagePaths().split(",");
-                for (String path : imagePaths) {
-                    File imageFile = new File(path);
+                for (ItemImage image : imagesByItem.get(item.getId())) {
+                    File imageFile = new File(image.getPath());
                     if (!imageFile.exists()) {
                         continue;
                     }
@@ -163,6 +166,8 @@ public class DataExportImportUtils {
             int locationCount = importLocations(context, root.getJSONArray("locations"));
             // 6. 导入物品数据（含图片）
             int itemCount = importItems(context, root.getJSONArray("items"), tempDir);
+            // 批量导入后校验分类/位置物品计数（不一致时自动重建）
+            DatabaseManager.getInstance(context).checkItemCounters();
 
             result.setSuccessCount(categoryCount + locationCount + itemCount);
             result.setFailReason("导入成功");
@@ -197,9 +202,9 @@ public class DataExportImportUtils {
     }
 
     /**
-     * 将物品列表转换为JSON数组
+     * 将物品列表转换为JSON数组（imagePaths为图片路径数组，按顺序）
      */
-    private static JSONArray convertItemsToJson(List<Item> items) throws Exception {
+    private static JSONArray convertItemsToJson(List<Item> items, Map<Long, List<ItemImage>> imagesByItem) throws Exception {
         JSONArray jsonArray = new JSONArray();
         for (Item item : items) {
             JSONObject json = new JSONObject();
@@ -210,7 +215,11 @@ public class DataExportImportUtils {
             json.put("locationId", item.getLocationId());
             json.put("validTime", item.getValidTime());
             json.put("count", item.getCount());
-            json.put("imagePaths", item.getImagePaths());
+            JSONArray imagePaths = new JSONArray();
+            for (ItemImage image : imagesByItem.get(item.getId())) {
+                imagePaths.put(image.getPath());
+            }
+            json.put("imagePaths", imagePaths);
             json.put("remark", item.getRemark());
             jsonArray.put(json);
         }
@@ -317,60 +326,66 @@ public class DataExportImportUtils {
             item.setUpdateTime(System.currentTimeMillis());
             item.setIsDeleted(0);
 
-            // 处理图片路径
-            String imagePaths = json.optString("imagePaths", "");
-            if (!imagePaths.isEmpty() && imageDir.exists()) {
-                String[] paths = imagePaths.split(",");
-                StringBuilder newImagePaths = new StringBuilder();
-                for (String path : paths) {
-                    File oldImageFile = new File(path);
-                    String imageName = item.getUuid() + "_" + oldImageFile.getName();
-                    File newImageFile = new File(imageDir, imageName);
-                    if (newImageFile.exists()) {
-                        // 复制图片到应用私有目录
-                        String appImagePath = copyImageToAppDir(context, newImageFile);
-                        if (newImagePaths.length() > 0) {
-                            newImagePaths.append(",");
+            // 避免重复插入（按UUID判断，回收站中的物品同样占用UUID），已存在的物品不再处理图片
+            if (dbManager.existsItemByUuid(item.getUuid())) {
+                continue;
+            }
+
+            // 处理图片（按原顺序写入item_image表）
+            List<ItemImage> images = new ArrayList<>();
+            List<String> storedPaths = new ArrayList<>();
+            try {
+                if (imageDir.exists()) {
+                    for (String path : readImagePaths(json)) {
+                        File oldImageFile = new File(path);
+                        String imageName = item.getUuid() + "_" + oldImageFile.getName();
+                        File newImageFile = new File(imageDir, imageName);
+                        if (newImageFile.exists()) {
+                            // 存入图片内容存储（相同图片只保留一份）
+                            String appImagePath = copyImageToAppDir(context, newImageFile);
+                            storedPaths.add(appImagePath);
+                            images.add(ImageUtils.describeImage(appImagePath));
                         }
-                        newImagePaths.append(appImagePath);
                     }
                 }
-                item.setImagePaths(newImagePaths.toString());
-            } else {
-                item.setImagePaths("");
-            }
+                item.setImages(images);
 
-            // 避免重复插入（按UUID判断）
-            Item existItem = dbManager.getItemByUuid(item.getUuid());
-            if (existItem == null) {
                 dbManager.addItem(item);
-                count++;
+            } finally {
+                // 引用已随物品写入（或导入失败放弃），释放存入时的钉住
+                ImageStore.getInstance(context).release(storedPaths);
             }
+            count++;
         }
         return count;
     }
 
     /**
-     * 复制图片到应用私有目录
+     * 读取物品的图片路径：当前版本为JSON数组，旧版导出文件为逗号分隔的字符串
      */
-    private static String copyImageToAppDir(Context context, File sourceFile) throws IOException {
-        File appImageDir = new File(context.getExternalFilesDir(Environment.DIRECTORY_PICTURES), "inventory");
-        if (!appImageDir.exists()) {
-            appImageDir.mkdirs();
+    private static List<String> readImagePaths(JSONObject json) throws Exception {
+        List<String> paths = new ArrayList<>();
+        JSONArray array = json.optJSONArray("imagePaths");
+        if (array != null) {
+            for (int i = 0; i < array.length(); i++) {
+                paths.add(array.getString(i));
+            }
+            return paths;
         }
-
-        File destFile = new File(appImageDir, sourceFile.getName());
-        FileInputStream fis = new FileInputStream(sourceFile);
-        FileOutputStream fos = new FileOutputStream(destFile);
-        byte[] buffer = new byte[1024];
-        int len;
-        while ((len = fis.read(buffer)) > 0) {
-            fos.write(buffer, 0, len);
+        for (String path : json.optString("imagePaths", "").split(",")) {
+            if (!path.trim().isEmpty()) {
+                paths.add(path.trim());
+            }
         }
-        fis.close();
-        fos.close();
+        return paths;
+    }
 
-        return destFile.getAbsolutePath();
+    /**
+     * 存入应用图片存储（按内容去重：相同图片已存在时不再复制，直接返回已有路径）
+     * 源文件位于导入临时目录，存入后即删除；返回的路径已钉住，物品写入后释放
+     */
+    private static String copyImageToAppDir(Context context, File sourceFile) throws IOException {
+        return ImageStore.getInstance(context).put(sourceFile, true);
     }
 
     /**
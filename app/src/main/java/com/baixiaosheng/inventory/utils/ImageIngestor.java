@@ -0,0 +1,276 @@
+package com.baixiaosheng.inventory.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 图片入库处理（单例）：拍照或选图后在后台线程统一规范化，保证每张图片的存储和后续解码开销有上限
+ * 1. 按EXIF方向旋转像素，输出文件不再依赖EXIF
+ * 2. 长边不超过maxLongEdge
+ * 3. 按quality重新编码为JPEG
+ * 4. 存入ImageStore（按内容去重），并在原图旁生成小尺寸缩略图（见thumbnailPathOf）
+ * 回调得到的图片在ImageStore中处于钉住状态，调用方保存引用或放弃图片后需调用ImageStore.release
+ */
+public class ImageIngestor {
+    private static final String TAG = "ImageIngestor";
+    private static final String THUMBNAIL_SUFFIX = "_thumb.jpg";
+    public static final int DEFAULT_MAX_LONG_EDGE = 1600;
+    public static final int DEFAULT_QUALITY = 85;
+    // 缩略图长边（列表、预览使用）
+    public static final int THUMBNAIL_LONG_EDGE = 320;
+    private static final int THUMBNAIL_QUALITY = 80;
+
+    /**
+     * 处理结果回调（主线程调用）
+     */
+    public interface Callback {
+        /**
+         * @param result 处理结果，失败时为null
+         */
+        void onIngested(Result result);
+    }
+
+    /**
+     * 处理结果：规范化后的图片及其缩略图
+     */
+    public static final class Result {
+        public final String path;
+        public final String thumbnailPath;
+        public final int width;
+        public final int height;
+        public final long byteSize;
+
+        Result(String path, String thumbnailPath, int width, int height, long byteSize) {
+            this.path = path;
+            this.thumbnailPath = thumbnailPath;
+            this.width = width;
+            this.height = height;
+            this.byteSize = byteSize;
+        }
+    }
+
+    private static volatile ImageIngestor INSTANCE;
+
+    private final Context context;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile int maxLongEdge = DEFAULT_MAX_LONG_EDGE;
+    private volatile int quality = DEFAULT_QUALITY;
+
+    private ImageIngestor(Context context) {
+        this.context = context;
+    }
+
+    public static ImageIngestor getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ImageIngestor.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ImageIngestor(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 设置长边上限（像素）
+     */
+    public void setMaxLongEdge(int maxLongEdge) {
+        this.maxLongEdge = Math.max(THUMBNAIL_LONG_EDGE, maxLongEdge);
+    }
+
+    /**
+     * 设置重新编码的JPEG质量（1~100）
+     */
+    public void setQuality(int quality) {
+        this.quality = Math.max(1, Math.min(100, quality));
+    }
+
+    /**
+     * 规范化相机拍摄的文件：处理完成后删除原始文件
+     */
+    public void ingest(File source, Callback callback) {
+        executor.execute(() -> {
+            Result result = normalize(() -> new FileInputStream(source));
+            if (result != null && !source.getAbsolutePath().equals(result.path)) {
+                source.delete();
+            }
+            deliver(callback, result);
+        });
+    }
+
+    /**
+     * 规范化相册选择的图片（原图不做修改）
+     */
+    public void ingest(Uri uri, Callback callback) {
+        executor.execute(() -> deliver(callback, normalize(() -> context.getContentResolver().openInputStream(uri))));
+    }
+
+    /**
+     * 图片对应的缩略图路径（与原图同目录）
+     */
+    public static String thumbnailPathOf(String imagePath) {
+        int dot = imagePath.lastIndexOf('.');
+        int slash = imagePath.lastIndexOf(File.separatorChar);
+        String base = dot > slash ? imagePath.substring(0, dot) : imagePath;
+        return base + THUMBNAIL_SUFFIX;
+    }
+
+    private void deliver(Callback callback, Result result) {
+        if (callback != null) {
+            mainHandler.post(() -> callback.onIngested(result));
+        } else if (result != null) {
+            // 无人接收的图片不会被引用，不再钉住
+            ImageStore.getInstance(context).release(result.path);
+        }
+    }
+
+    // 数据源需可重复打开：依次读取尺寸、EXIF和像素
+    private interface StreamSource {
+        InputStream open() throws IOException;
+    }
+
+    // 后台线程：解码 → 旋转+缩放 → 编码原图和缩略图
+    private Result normalize(StreamSource source) {
+        Bitmap decoded = null;
+        Bitmap normalized = null;
+        Bitmap thumbnail = null;
+        File output = null;
+        String path = null;
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            try (InputStream is = source.open()) {
+                BitmapFactory.decodeStream(is, null, options);
+            }
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                Log.e(TAG, "无法识别的图片格式");
+                return null;
+            }
+            int rotation = readRotation(source);
+
+            // 先按2的幂采样到不小于目标尺寸，再精确缩放
+            int limit = maxLongEdge;
+            options.inSampleSize = sampleSizeFor(Math.max(options.outWidth, options.outHeight), limit);
+            options.inJustDecodeBounds = false;
+            options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+            try (InputStream is = source.open()) {
+                decoded = BitmapFactory.decodeStream(is, null, options);
+            }
+            if (decoded == null) {
+                Log.e(TAG, "图片解码失败");
+                return null;
+            }
+
+            normalized = transform(decoded, rotation, limit);
+            output = ImageUtils.createImageFile(context);
+            if (!compress(normalized, output, quality)) {
+                output.delete();
+                return null;
+            }
+            // 存入内容存储（临时文件被移走；相同图片已存在时直接复用）
+            path = ImageStore.getInstance(context).put(output, true);
+            output = null;
+            String thumbnailPath = thumbnailPathOf(path);
+            if (!new File(thumbnailPath).exists()) {
+                thumbnail = transform(normalized, 0, THUMBNAIL_LONG_EDGE);
+                if (!compress(thumbnail, new File(thumbnailPath), THUMBNAIL_QUALITY)) {
+                    // 缩略图失败不影响原图，读取时回退到原图
+                    thumbnailPath = null;
+                }
+            }
+            return new Result(path, thumbnailPath, normalized.getWidth(), normalized.getHeight(), new File(path).length());
+        } catch (IOException | OutOfMemoryError e) {
+            Log.e(TAG, "图片入库处理失败：" + e.getMessage());
+            if (output != null) {
+                output.delete();
+            }
+            if (path != null) {
+                // 已存入但无法交给调用方：释放钉住，由回收处理
+                ImageStore.getInstance(context).release(path);
+            }
+            return null;
+        } finally {
+            // 中间Bitmap都不再使用（可能是同一对象，已回收的会跳过）
+            recycle(thumbnail);
+            recycle(normalized);
+            recycle(decoded);
+        }
+    }
+
+    // 旋转并缩放到长边不超过limit（一次像素拷贝完成）；无需变换时返回原Bitmap
+    private static Bitmap transform(Bitmap source, int rotation, int limit) {
+        int longEdge = Math.max(source.getWidth(), source.getHeight());
+        float scale = longEdge > limit ? limit / (float) longEdge : 1f;
+        if (rotation == 0 && scale == 1f) {
+            return source;
+        }
+        Matrix matrix = new Matrix();
+        matrix.postRotate(rotation);
+        matrix.postScale(scale, scale);
+        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    }
+
+    // 先写临时文件再改名，避免其他线程读取到写了一半的图片
+    private static boolean compress(Bitmap bitmap, File file, int quality) {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        boolean written;
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            written = bitmap.compress(Bitmap.CompressFormat.JPEG, quality, fos);
+        } catch (IOException e) {
+            Log.e(TAG, "写入图片失败：" + e.getMessage());
+            written = false;
+        }
+        if (!written || !temp.renameTo(file)) {
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+
+    // 采样率：采样后长边仍不小于limit的最大2的幂
+    private static int sampleSizeFor(int longEdge, int limit) {
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= limit) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // EXIF旋转角度（无EXIF或格式不支持时为0）
+    private static int readRotation(StreamSource source) {
+        try (InputStream is = source.open()) {
+            ExifInterface exif = new ExifInterface(is);
+            switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90: return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180: return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270: return 270;
+                default: return 0;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "读取EXIF失败：" + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void recycle(Bitmap bitmap) {
+        if (bitmap != null && !bitmap.isRecycled()) {
+            bitmap.recycle();
+        }
+    }
+}
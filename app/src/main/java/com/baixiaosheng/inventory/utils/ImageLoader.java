@@ -0,0 +1,336 @@
+package com.baixiaosheng.inventory.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步图片加载器（单例）
+ * 1. 解码在有界线程池中执行，主线程只查内存缓存和设置结果
+ * 2. 同一个ImageView再次加载时取消上一次请求，过期结果不会覆盖新图片
+ * 3. 两级缓存：按字节数限制的内存LruCache；磁盘缓存已缩放的缩略图，
+ *    键为 路径 + 文件修改时间 + 目标尺寸，原图变更后自动失效
+ * 4. 内存缓存淘汰且已不在任何ImageView上显示的Bitmap归还BitmapPool，供后续解码通过inBitmap复用；
+ *    EXIF旋转在绘制时完成（见ImageUtils.setImageBitmap），缓存和缩略图中保存的都是未旋转的像素
+ */
+public class ImageLoader {
+    private static final String TAG = "ImageLoader";
+    private static final String DISK_CACHE_DIR = "thumbnails";
+    private static final long DISK_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+    private static final int THUMBNAIL_QUALITY = 85;
+
+    /**
+     * 加载结果回调（主线程调用，请求被取消时不回调）
+     */
+    public interface Callback {
+        void onLoaded(boolean success);
+    }
+
+    private static volatile ImageLoader INSTANCE;
+
+    private final File diskCacheDir;
+    private final LruCache<String, CachedImage> memoryCache;
+    private final BitmapPool bitmapPool;
+    private final ExecutorService decodeExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // 每个ImageView当前的请求（仅主线程读写，弱引用不影响View回收）
+    private final Map<ImageView, Request> requests = new WeakHashMap<>();
+    // 每个ImageView当前显示的Bitmap（仅主线程读写），仍在显示的Bitmap不能归还复用池
+    private final Map<ImageView, Bitmap> displayed = new WeakHashMap<>();
+
+    private ImageLoader(Context context) {
+        diskCacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+        // 内存缓存占可用堆的1/8，复用池占1/16
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        bitmapPool = new BitmapPool(maxMemory / 16);
+        memoryCache = new LruCache<String, CachedImage>((int) Math.min(Integer.MAX_VALUE, maxMemory / 8)) {
+            @Override
+            protected int sizeOf(String key, CachedImage image) {
+                return image.bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, CachedImage oldValue, CachedImage newValue) {
+                if (newValue == null || newValue.bitmap != oldValue.bitmap) {
+                    releaseToPool(oldValue.bitmap);
+                }
+            }
+        };
+        // 解码线程数按CPU核数限制在1~2个，避免同时解码多张大图
+        int threads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+        decodeExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "image-decode");
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        ((ThreadPoolExecutor) decodeExecutor).allowCoreThreadTimeOut(true);
+    }
+
+    public static ImageLoader getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ImageLoader.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ImageLoader(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 加载图片到ImageView（主线程调用）
+     * @param filePath 图片路径
+     * @param imageView 目标View，加载完成前先清空原图
+     * @param targetSize 目标边长（像素），解码和缩略图缓存都按该尺寸
+     */
+    public void load(String filePath, ImageView imageView, int targetSize) {
+        load(filePath, imageView, targetSize, null);
+    }
+
+    /**
+     * 加载图片到ImageView（主线程调用）
+     * @param callback 加载完成回调，可为null
+     */
+    public void load(String filePath, ImageView imageView, int targetSize, Callback callback) {
+        cancel(imageView);
+        File file = filePath != null ? new File(filePath) : null;
+        // 文件修改时间参与缓存键：同一路径的图片被替换后不会命中旧缓存
+        String key = file != null ? cacheKey(filePath, file.lastModified(), targetSize) : null;
+        CachedImage cached = key != null ? memoryCache.get(key) : null;
+        if (cached != null) {
+            show(imageView, cached);
+            if (callback != null) {
+                callback.onLoaded(true);
+            }
+            return;
+        }
+        imageView.setImageDrawable(null);
+        displayed.remove(imageView);
+        if (key == null) {
+            if (callback != null) {
+                callback.onLoaded(false);
+            }
+            return;
+        }
+        Request request = new Request(filePath, key, targetSize, imageView, callback);
+        requests.put(imageView, request);
+        request.future = decodeExecutor.submit(request);
+    }
+
+    /**
+     * 取消ImageView上未完成的请求（主线程调用）
+     */
+    public void cancel(ImageView imageView) {
+        Request request = requests.remove(imageView);
+        if (request != null) {
+            request.cancelled = true;
+            if (request.future != null) {
+                request.future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 取消请求并清空ImageView（移除或销毁View前调用，其Bitmap随后可被复用）
+     */
+    public void clear(ImageView imageView) {
+        cancel(imageView);
+        imageView.setImageDrawable(null);
+        displayed.remove(imageView);
+    }
+
+    /**
+     * 清空内存缓存和复用池（磁盘缩略图保留）
+     */
+    public void clearMemoryCache() {
+        memoryCache.evictAll();
+        // 淘汰的Bitmap在主线程归还复用池，排在其后清空
+        mainHandler.post(bitmapPool::clear);
+    }
+
+    // 主线程：按EXIF角度显示并记录当前Bitmap
+    private void show(ImageView imageView, CachedImage image) {
+        ImageUtils.setImageBitmap(imageView, image.bitmap, image.rotation);
+        displayed.put(imageView, image.bitmap);
+    }
+
+    // 缓存淘汰的Bitmap：切到主线程确认已无ImageView显示后放入复用池
+    private void releaseToPool(Bitmap bitmap) {
+        mainHandler.post(() -> {
+            if (!displayed.containsValue(bitmap)) {
+                bitmapPool.put(bitmap);
+            }
+        });
+    }
+
+    // 后台线程：磁盘缩略图 → 原图解码，成功后写入两级缓存
+    private CachedImage loadInBackground(Request request) {
+        File thumbnail = new File(diskCacheDir, request.key);
+        Bitmap bitmap = null;
+        if (thumbnail.exists()) {
+            bitmap = ImageUtils.decodeImage(thumbnail.getAbsolutePath(), request.targetSize, request.targetSize, bitmapPool);
+            if (bitmap != null) {
+                // 更新访问时间，供磁盘缓存按最近使用淘汰
+                thumbnail.setLastModified(System.currentTimeMillis());
+            }
+        }
+        if (bitmap == null) {
+            if (request.cancelled) {
+                return null;
+            }
+            // 入库时生成的缩略图足够大时直接解码它，不读取原图
+            String source = request.filePath;
+            File ingestThumbnail = new File(ImageIngestor.thumbnailPathOf(source));
+            if (request.targetSize <= ImageIngestor.THUMBNAIL_LONG_EDGE && ingestThumbnail.exists()) {
+                source = ingestThumbnail.getAbsolutePath();
+            }
+            bitmap = ImageUtils.decodeImage(source, request.targetSize, request.targetSize, bitmapPool);
+            if (bitmap == null) {
+                return null;
+            }
+            saveThumbnail(bitmap, thumbnail);
+        }
+        // 缩略图不含EXIF，旋转角度始终取自原图（入库规范化的图片已旋转，角度为0）
+        return new CachedImage(bitmap, ImageUtils.getRotateAngle(request.filePath));
+    }
+
+    private void saveThumbnail(Bitmap bitmap, File thumbnail) {
+        if (!diskCacheDir.exists() && !diskCacheDir.mkdirs()) {
+            return;
+        }
+        File temp = new File(diskCacheDir, thumbnail.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, THUMBNAIL_QUALITY, fos);
+        } catch (Exception e) {
+            Log.e(TAG, "写入缩略图失败：" + e.getMessage());
+            temp.delete();
+            return;
+        }
+        // 先写临时文件再改名，避免并发读取到写了一半的缩略图
+        if (!temp.renameTo(thumbnail)) {
+            temp.delete();
+            return;
+        }
+        trimDiskCache();
+    }
+
+    // 磁盘缓存超出上限时，按最近访问时间从旧到新删除
+    private synchronized void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= DISK_CACHE_MAX_BYTES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (total <= DISK_CACHE_MAX_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    // 缓存键：路径 + 修改时间 + 目标尺寸的SHA-1（同时作为磁盘缩略图文件名）
+    private static String cacheKey(String filePath, long lastModified, int targetSize) {
+        String raw = filePath + "|" + lastModified + "|" + targetSize;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(raw.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(raw.hashCode()) + "_" + raw.length();
+        }
+    }
+
+    /**
+     * 单次加载请求
+     */
+    private class Request implements Runnable {
+        final String filePath;
+        final String key;
+        final int targetSize;
+        final ImageView imageView;
+        final Callback callback;
+        volatile boolean cancelled;
+        Future<?> future;
+
+        Request(String filePath, String key, int targetSize, ImageView imageView, Callback callback) {
+            this.filePath = filePath;
+            this.key = key;
+            this.targetSize = targetSize;
+            this.imageView = imageView;
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            CachedImage image = loadInBackground(this);
+            // 先投递显示再写入缓存：写入引起的淘汰归还操作排在显示之后，不会把即将显示的Bitmap放入复用池
+            mainHandler.post(() -> deliver(image));
+            if (image != null) {
+                memoryCache.put(key, image);
+            }
+        }
+
+        // 主线程：仅当该请求仍是ImageView的当前请求时设置结果
+        private void deliver(CachedImage image) {
+            if (cancelled || requests.get(imageView) != this) {
+                return;
+            }
+            requests.remove(imageView);
+            if (image != null) {
+                show(imageView, image);
+            }
+            if (callback != null) {
+                callback.onLoaded(image != null);
+            }
+        }
+    }
+
+    /**
+     * 内存缓存项：未旋转的Bitmap + EXIF旋转角度
+     */
+    private static final class CachedImage {
+        final Bitmap bitmap;
+        final int rotation;
+
+        CachedImage(Bitmap bitmap, int rotation) {
+            this.bitmap = bitmap;
+            this.rotation = rotation;
+        }
+    }
+}
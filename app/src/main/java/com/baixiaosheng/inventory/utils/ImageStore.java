@@ -0,0 +1,244 @@
+package com.baixiaosheng.inventory.utils;
+
+import android.content.Context;
+import android.os.Environment;
+import android.util.Log;
+
+import com.baixiaosheng.inventory.database.DatabaseManager;
+import com.baixiaosheng.inventory.database.entity.ImageBlob;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 图片内容寻址存储（单例）
+ * 1. 文件按内容的SHA-256命名，拍照、选图、导入的相同图片只存一份
+ * 2. 物品对图片的引用记录在item_image_ref，image_blob.refCount由触发器维护
+ * 3. put返回的图片处于钉住状态，调用方在引用写入数据库或放弃该图片后调用release；
+ *    垃圾回收在后台线程删除未被引用、未被钉住且入库超过保留期的图片及其缩略图
+ * 4. 迁移得到的图片记录只有路径，启动后在同一后台线程补全宽高等元数据
+ * put需在后台线程调用（读取文件并访问数据库）
+ */
+public class ImageStore {
+    private static final String TAG = "ImageStore";
+    private static final String STORE_DIR = "store";
+    private static final String DEFAULT_EXTENSION = ".jpg";
+    // 未引用图片的保留期：钉住之外的兜底（如put返回后进程被杀、钉住记录随之丢失）
+    private static final long GC_GRACE_MILLIS = 60L * 60 * 1000;
+    // 补全图片元数据时每批读取的记录数
+    private static final int METADATA_BATCH_SIZE = 100;
+
+    private static volatile ImageStore INSTANCE;
+
+    private final File storeDir;
+    private final DatabaseManager dbManager;
+    private final ExecutorService gcExecutor = Executors.newSingleThreadExecutor();
+    // 写入与回收互斥：回收判断和删除文件之间不能有同hash的图片入库
+    private final Object lock = new Object();
+    // 钉住的图片路径 → 钉住次数：尚未写入引用的表单附件、导入中的图片，回收时跳过
+    // 钉住在lock内进行（与回收互斥）；释放只减少钉住，不需要lock，可在主线程调用
+    private final ConcurrentHashMap<String, Integer> pinnedPaths = new ConcurrentHashMap<>();
+
+    private ImageStore(Context context) {
+        storeDir = new File(context.getExternalFilesDir(Environment.DIRECTORY_PICTURES), STORE_DIR);
+        dbManager = DatabaseManager.getInstance(context);
+    }
+
+    public static ImageStore getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ImageStore.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ImageStore(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 存入图片：内容已存在时直接返回已有路径，不再写文件
+     * @param source 源文件
+     * @param move true 存入后删除源文件（同一文件系统时直接改名）；false 保留源文件
+     * @return 存储中的图片路径（已钉住，引用写入数据库或放弃该图片后需调用release）
+     */
+    public String put(File source, boolean move) throws IOException {
+        String hash = sha256(source);
+        synchronized (lock) {
+            long now = System.currentTimeMillis();
+            ImageBlob blob = dbManager.getImageBlob(hash);
+            if (blob != null && new File(blob.getPath()).exists()) {
+                // 重复图片：刷新入库时间，避免在保存前被回收
+                dbManager.touchImageBlob(hash, now);
+                if (move) {
+                    source.delete();
+                }
+                pin(blob.getPath());
+                return blob.getPath();
+            }
+
+            if (!storeDir.exists() && !storeDir.mkdirs()) {
+                throw new IOException("无法创建图片存储目录");
+            }
+            File target = new File(storeDir, hash + extensionOf(source.getName()));
+            if (!move || !source.renameTo(target)) {
+                copy(source, target);
+                if (move) {
+                    source.delete();
+                }
+            }
+            if (blob == null) {
+                dbManager.addImageBlob(new ImageBlob(hash, target.getAbsolutePath(), target.length(), now));
+            } else {
+                // 记录存在但文件已丢失：用新文件补回
+                dbManager.updateImageBlobFile(hash, target.getAbsolutePath(), target.length(), now);
+            }
+            pin(target.getAbsolutePath());
+            return target.getAbsolutePath();
+        }
+    }
+
+    /**
+     * 释放put返回的图片：引用已写入数据库，或表单放弃了该图片（移除、清空、关闭）
+     * 每次put对应一次释放；释放后未被引用的图片在保留期过后由下一次回收删除
+     */
+    public void release(String path) {
+        pinnedPaths.computeIfPresent(path, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public void release(Collection<String> paths) {
+        for (String path : paths) {
+            release(path);
+        }
+    }
+
+    // 调用方持有lock
+    private void pin(String path) {
+        pinnedPaths.merge(path, 1, Integer::sum);
+    }
+
+    /**
+     * 在后台执行一次垃圾回收（物品彻底删除或图片变更后调用）
+     */
+    public void collectGarbage() {
+        gcExecutor.execute(this::collectGarbageSync);
+    }
+
+    // 后台线程：删除未被引用、未被钉住且超过保留期的图片记录、文件及缩略图
+    private void collectGarbageSync() {
+        long before = System.currentTimeMillis() - GC_GRACE_MILLIS;
+        try {
+            List<ImageBlob> orphans = dbManager.getUnreferencedImageBlobs(before);
+            int deleted = 0;
+            for (ImageBlob blob : orphans) {
+                synchronized (lock) {
+                    // 表单或导入仍持有的图片即使超过保留期也不回收
+                    if (pinnedPaths.containsKey(blob.getPath())) {
+                        continue;
+                    }
+                    // 按条件删除：列出候选后被重新引用或重新入库的图片保留
+                    if (!dbManager.deleteImageBlobIfUnreferenced(blob.getHash(), before)) {
+                        continue;
+                    }
+                    new File(blob.getPath()).delete();
+                    new File(ImageIngestor.thumbnailPathOf(blob.getPath())).delete();
+                    deleted++;
+                }
+            }
+            if (deleted > 0) {
+                Log.d(TAG, "回收未引用图片：" + deleted + "张");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "图片垃圾回收失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 在后台补全元数据尚未读取的图片记录（应用启动时调用，无待补全记录时只执行一次查询）
+     */
+    public void fillMissingImageMetadata() {
+        gcExecutor.execute(this::fillMissingImageMetadataSync);
+    }
+
+    // 后台线程：分批读取图片文件头，写回宽高、旋转角度、字节数及缩略图路径
+    private void fillMissingImageMetadataSync() {
+        try {
+            int filled = 0;
+            List<ItemImage> batch;
+            while (!(batch = dbManager.getImagesMissingMetadata(METADATA_BATCH_SIZE)).isEmpty()) {
+                for (ItemImage image : batch) {
+                    ItemImage described = ImageUtils.describeImage(image.getPath());
+                    described.setId(image.getId());
+                    // 文件不存在时字节数记为0，不再重复读取
+                    described.setByteSize(Math.max(0, described.getByteSize()));
+                    dbManager.updateImageMetadata(described);
+                    filled++;
+                }
+            }
+            if (filled > 0) {
+                Log.d(TAG, "补全图片元数据：" + filled + "张");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "补全图片元数据失败：" + e.getMessage());
+        }
+    }
+
+    // 先写临时文件再改名，避免其他线程读取到写了一半的图片
+    private static void copy(File source, File target) throws IOException {
+        File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+        try (InputStream is = new FileInputStream(source);
+             OutputStream os = new FileOutputStream(temp)) {
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                os.write(buffer, 0, len);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("写入图片存储失败：" + target.getName());
+        }
+    }
+
+    // 文件内容的SHA-256（十六进制小写）
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256不可用", e);
+        }
+        try (InputStream is = new FileInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, len);
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase(Locale.ROOT) : DEFAULT_EXTENSION;
+    }
+}
@@ -3,7 +3,6 @@ package com.baixiaosheng.inventory.utils;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.Matrix;
 import android.media.ExifInterface;
 import android.net.Uri;
 import android.os.Environment;
@@ -11,6 +10,8 @@ import android.util.Log;
 import android.widget.ImageView;
 import android.widget.Toast;
 
+import com.baixiaosheng.inventory.database.entity.ItemImage;
+
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -39,18 +40,30 @@ public class ImageUtils {
     }
 
     /**
-     * 加载图片到ImageView（适配ItemDetailActivity）
+     * 加载图片到ImageView（在调用线程同步解码；界面中请使用ImageLoader异步加载）
      */
     public static void loadImage(String filePath, ImageView imageView) {
         Bitmap bitmap = decodeImage(filePath);
         if (bitmap != null) {
-            imageView.setImageBitmap(bitmap);
+            setImageBitmap(imageView, bitmap, getRotateAngle(filePath));
         } else {
             // 设置默认占位图（可选，根据项目资源调整）
             // imageView.setImageResource(R.drawable.ic_image_placeholder);
         }
     }
 
+    /**
+     * 设置Bitmap并按EXIF角度显示：旋转在绘制时完成，不复制像素
+     * @param rotation 顺时针旋转角度（0/90/180/270）
+     */
+    public static void setImageBitmap(ImageView imageView, Bitmap bitmap, int rotation) {
+        if (rotation == 0) {
+            imageView.setImageBitmap(bitmap);
+        } else {
+            imageView.setImageDrawable(new RotatedBitmapDrawable(bitmap, rotation));
+        }
+    }
+
     /**
      * 预览图片（简单实现，可根据需求扩展）
      */
@@ -61,9 +74,20 @@ public class ImageUtils {
     }
 
     /**
-     * 解码图片（修复旋转、压缩、OOM问题）
+     * 解码图片（压缩、OOM处理）
+     * 返回未旋转的像素，EXIF旋转角度通过getRotateAngle获取，显示时用setImageBitmap在绘制时旋转
      */
     public static Bitmap decodeImage(String filePath) {
+        return decodeImage(filePath, MAX_WIDTH, MAX_HEIGHT, null);
+    }
+
+    /**
+     * 按目标尺寸解码图片（采样后宽高不小于目标尺寸，返回未旋转的像素）
+     * @param reqWidth 目标宽度（像素）
+     * @param reqHeight 目标高度（像素）
+     * @param pool Bitmap复用池，可为null；解码结果为可变Bitmap，不再显示后可归还到池中
+     */
+    public static Bitmap decodeImage(String filePath, int reqWidth, int reqHeight, BitmapPool pool) {
         if (filePath == null || !new File(filePath).exists()) {
             Log.e(TAG, "图片文件不存在：" + filePath);
             return null;
@@ -76,31 +100,40 @@ public class ImageUtils {
             BitmapFactory.decodeFile(filePath, options);
 
             // 第二步：计算采样率
-            options.inSampleSize = calculateInSampleSize(options, MAX_WIDTH, MAX_HEIGHT);
+            options.inSampleSize = calculateInSampleSize(options, reqWidth, reqHeight);
             options.inJustDecodeBounds = false;
             options.inPreferredConfig = Bitmap.Config.RGB_565; // 减少内存占用
-            options.inPurgeable = true;
+            options.inMutable = true;
+
+            // 第三步：从复用池取可容纳采样后尺寸的Bitmap（尺寸向上取整，保证容量足够）
+            if (pool != null) {
+                int width = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+                int height = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+                options.inBitmap = pool.get(width, height, options.inPreferredConfig);
+            }
 
-            // 第三步：加载图片
-            Bitmap bitmap = BitmapFactory.decodeFile(filePath, options);
+            // 第四步：加载图片（复用失败时改为新分配）
+            Bitmap bitmap;
+            try {
+                bitmap = BitmapFactory.decodeFile(filePath, options);
+            } catch (IllegalArgumentException e) {
+                if (options.inBitmap == null) {
+                    throw e;
+                }
+                options.inBitmap = null;
+                bitmap = BitmapFactory.decodeFile(filePath, options);
+            }
             if (bitmap == null) {
                 Log.e(TAG, "图片解码为空：" + filePath);
                 return null;
             }
-
-            // 第四步：矫正旋转角度
-            int rotate = getRotateAngle(filePath);
-            if (rotate != 0) {
-                Matrix matrix = new Matrix();
-                matrix.postRotate(rotate);
-                bitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(),
-                        bitmap.getHeight(), matrix, true);
-            }
-
             return bitmap;
         } catch (OutOfMemoryError e) {
             Log.e(TAG, "图片解码OOM：" + e.getMessage());
-            System.gc(); // 触发垃圾回收
+            // 释放复用池中的空闲Bitmap，交由调用方决定是否重试
+            if (pool != null) {
+                pool.clear();
+            }
             return null;
         } catch (Exception e) {
             Log.e(TAG, "图片解码失败：" + e.getMessage());
@@ -127,9 +160,9 @@ public class ImageUtils {
     }
 
     /**
-     * 获取图片旋转角度
+     * 获取图片旋转角度（EXIF方向，顺时针）
      */
-    private static int getRotateAngle(String filePath) {
+    public static int getRotateAngle(String filePath) {
         try {
             ExifInterface exif = new ExifInterface(filePath);
             int orientation = exif.getAttributeInt(ExifInterface.TAG_ORIENTATION,
@@ -146,6 +179,30 @@ public class ImageUtils {
         }
     }
 
+    /**
+     * 读取图片元数据（只解析文件头，不解码像素）：宽高、EXIF旋转角度、字节数及入库时生成的缩略图
+     * 文件不存在时只填充路径
+     */
+    public static ItemImage describeImage(String filePath) {
+        ItemImage image = new ItemImage(filePath);
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return image;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(filePath, options);
+        image.setWidth(Math.max(0, options.outWidth));
+        image.setHeight(Math.max(0, options.outHeight));
+        image.setOrientation(getRotateAngle(filePath));
+        image.setByteSize(file.length());
+        String thumbPath = ImageIngestor.thumbnailPathOf(filePath);
+        if (new File(thumbPath).exists()) {
+            image.setThumbPath(thumbPath);
+        }
+        return image;
+    }
+
     /**
      * Uri转真实路径（适配Android 10+）
      */
@@ -0,0 +1,106 @@
+package com.baixiaosheng.inventory.utils;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 防抖 + 只取最新的查询调度器（搜索框连续输入场景）
+ * 1. 连续提交时，只有静默期（debounce）结束后的最后一次查询会执行
+ * 2. 新查询提交后，尚未开始的旧查询直接取消；已在执行的旧查询通过Ticket.isCurrent()判定为过期，结果应丢弃
+ * 3. 所有查询在同一个调度线程上串行执行，同一时刻只有一个查询源
+ *
+ * @param <Q> 查询条件类型（提交后不应再修改，建议传入副本）
+ */
+public class LatestQueryScheduler<Q> {
+
+    /**
+     * 查询执行逻辑（在调度线程上调用）
+     */
+    public interface Runner<Q> {
+        /**
+         * @param query 查询条件
+         * @param ticket 本次查询的凭证，发布结果前需确认ticket.isCurrent()
+         */
+        void run(Q query, Ticket ticket);
+    }
+
+    /**
+     * 查询凭证：有新查询提交或调用cancel()后即失效
+     */
+    public final class Ticket {
+        private final long generation;
+
+        private Ticket(long generation) {
+            this.generation = generation;
+        }
+
+        /** 是否仍是最新一次查询 */
+        public boolean isCurrent() {
+            return generation == LatestQueryScheduler.this.generation.get();
+        }
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Runner<Q> runner;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long debounceMillis;
+    // 尚未执行的查询（受this锁保护）
+    private ScheduledFuture<?> pending;
+
+    /**
+     * @param executor 调度线程（建议单线程，与分页等后续操作共用以保证状态串行访问）
+     * @param debounceMillis 防抖时长（毫秒）
+     * @param runner 查询执行逻辑
+     */
+    public LatestQueryScheduler(ScheduledExecutorService executor, long debounceMillis, Runner<Q> runner) {
+        this.executor = executor;
+        this.runner = runner;
+        setDebounceMillis(debounceMillis);
+    }
+
+    /**
+     * 设置防抖时长（对之后提交的查询生效）
+     */
+    public void setDebounceMillis(long debounceMillis) {
+        this.debounceMillis = Math.max(0, debounceMillis);
+    }
+
+    /**
+     * 提交查询：防抖后执行，期间再次提交会替换本次查询
+     */
+    public void submit(Q query) {
+        schedule(query, debounceMillis);
+    }
+
+    /**
+     * 立即提交查询（不防抖，如点击筛选按钮），同样会使之前的查询失效
+     */
+    public void submitNow(Q query) {
+        schedule(query, 0);
+    }
+
+    /**
+     * 取消所有未执行和执行中的查询（执行中的查询结果将被丢弃）
+     */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private synchronized void schedule(Q query, long delayMillis) {
+        Ticket ticket = new Ticket(generation.incrementAndGet());
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = executor.schedule(() -> {
+            if (ticket.isCurrent()) {
+                runner.run(query, ticket);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,60 @@
+package com.baixiaosheng.inventory.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * N-gram切分工具类（用于中文物品名称的子串检索）
+ * 写入时对名称生成二元/三元组，查询时取关键词的N-gram求倒排交集
+ */
+public class NgramUtils {
+    // 参与检索的最短关键词长度（单字直接走LIKE）
+    public static final int MIN_QUERY_LENGTH = 2;
+
+    /**
+     * 生成名称的索引词条（全部二元组+三元组，已去重、转小写）
+     * @param name 物品名称
+     * @return 词条集合，名称为空时返回空集合
+     */
+    public static Set<String> buildIndexGrams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        int[] codePoints = normalize(name);
+        addGrams(codePoints, 2, grams);
+        addGrams(codePoints, 3, grams);
+        return grams;
+    }
+
+    /**
+     * 生成关键词的查询词条
+     * 长度≥3时只取三元组（倒排表更短），长度为2时取唯一的二元组
+     * @param keyword 搜索关键词
+     * @return 词条列表，关键词过短时返回空列表
+     */
+    public static List<String> buildQueryGrams(String keyword) {
+        int[] codePoints = normalize(keyword);
+        Set<String> grams = new LinkedHashSet<>();
+        if (codePoints.length >= 3) {
+            addGrams(codePoints, 3, grams);
+        } else if (codePoints.length == MIN_QUERY_LENGTH) {
+            addGrams(codePoints, 2, grams);
+        }
+        return new ArrayList<>(grams);
+    }
+
+    // 去除首尾空白并转小写（与SQLite LIKE对ASCII不区分大小写的行为保持一致）
+    private static int[] normalize(String text) {
+        if (text == null) {
+            return new int[0];
+        }
+        return text.trim().toLowerCase(Locale.ROOT).codePoints().toArray();
+    }
+
+    private static void addGrams(int[] codePoints, int n, Set<String> out) {
+        for (int i = 0; i + n <= codePoints.length; i++) {
+            out.add(new String(codePoints, i, n));
+        }
+    }
+}
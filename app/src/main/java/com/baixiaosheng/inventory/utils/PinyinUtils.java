@@ -0,0 +1,97 @@
+package com.baixiaosheng.inventory.utils;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.Locale;
+
+/**
+ * 拼音工具类（名称写入时生成全拼/首字母，供拼音检索使用）
+ * 多音字取第一个读音；字母、数字原样保留（转小写），其余字符忽略
+ */
+public class PinyinUtils {
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    /**
+     * 转换为全拼（如"洗漱用品" → "xishuyongpin"）
+     */
+    public static String toPinyin(String text) {
+        return convert(text, false);
+    }
+
+    /**
+     * 转换为首字母（如"洗漱用品" → "xsyp"）
+     */
+    public static String toInitials(String text) {
+        return convert(text, true);
+    }
+
+    /**
+     * 判断关键词是否按拼音检索（仅由英文字母组成）
+     */
+    public static boolean isPinyinQuery(String keyword) {
+        if (keyword == null) {
+            return false;
+        }
+        String trimmed = keyword.trim();
+        if (trimmed.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 规范化拼音查询前缀（去空白、转小写），作为范围查询的下界
+     */
+    public static String normalizePrefix(String keyword) {
+        return keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 前缀范围查询的上界（不含）：末字符加一，配合 col >= prefix AND col < upperBound 使用索引
+     */
+    public static String prefixUpperBound(String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    private static String convert(String text, boolean initialsOnly) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) && c < 128) {
+                result.append(Character.toLowerCase(c));
+                continue;
+            }
+            String[] readings = null;
+            try {
+                readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            } catch (BadHanyuPinyinOutputFormatCombination e) {
+                // 输出格式为固定配置，不会出现非法组合
+            }
+            if (readings != null && readings.length > 0 && !readings[0].isEmpty()) {
+                result.append(initialsOnly ? readings[0].substring(0, 1) : readings[0]);
+            }
+        }
+        return result.toString();
+    }
+}
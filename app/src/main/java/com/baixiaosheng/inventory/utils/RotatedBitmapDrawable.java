@@ -0,0 +1,84 @@
+package com.baixiaosheng.inventory.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 按EXIF角度在绘制时旋转的Bitmap Drawable：不复制像素，
+ * 固有宽高按旋转后计算，ImageView的scaleType（如CENTER_CROP）照常生效
+ */
+final class RotatedBitmapDrawable extends Drawable {
+    private final Bitmap bitmap;
+    private final int rotation;
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Matrix matrix = new Matrix();
+
+    /**
+     * @param rotation 顺时针旋转角度（0/90/180/270）
+     */
+    RotatedBitmapDrawable(Bitmap bitmap, int rotation) {
+        this.bitmap = bitmap;
+        this.rotation = rotation;
+    }
+
+    Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return isSwapped() ? bitmap.getHeight() : bitmap.getWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return isSwapped() ? bitmap.getWidth() : bitmap.getHeight();
+    }
+
+    // 以Bitmap中心旋转，再缩放平移到bounds
+    @Override
+    protected void onBoundsChange(@NonNull Rect bounds) {
+        matrix.reset();
+        matrix.postTranslate(-bitmap.getWidth() / 2f, -bitmap.getHeight() / 2f);
+        matrix.postRotate(rotation);
+        matrix.postScale(bounds.width() / (float) getIntrinsicWidth(), bounds.height() / (float) getIntrinsicHeight());
+        matrix.postTranslate(bounds.exactCenterX(), bounds.exactCenterY());
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (!bitmap.isRecycled()) {
+            canvas.drawBitmap(bitmap, matrix, paint);
+        }
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        paint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    private boolean isSwapped() {
+        return rotation == 90 || rotation == 270;
+    }
+}
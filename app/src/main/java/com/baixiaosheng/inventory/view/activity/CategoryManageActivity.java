@@ -20,8 +20,6 @@ import com.baixiaosheng.inventory.database.entity.Category;
 import com.baixiaosheng.inventory.view.adapter.CategoryAdapter;
 import com.baixiaosheng.inventory.viewmodel.CategoryManageViewModel;
 
-import java.util.ArrayList;
-import java.util.List;
 
 public class CategoryManageActivity extends AppCompatActivity {
 
@@ -40,12 +38,9 @@ public class CategoryManageActivity extends AppCompatActivity {
         // 初始化视图
         initView();
 
-        // 观察分类数据（仅观察父分类）
+        // 观察分类树（首次加载及分类变更后自动刷新）
         observeCategoryData();
 
-        // 加载所有父分类
-        categoryViewModel.loadParentCategories();
-
         // 在CategoryManageActivity的onCreate方法中添加
         Button btnAddNewParent = findViewById(R.id.btn_add_new_parent_category);
         btnAddNewParent.setOnClickListener(v -> {
@@ -69,18 +64,16 @@ public class CategoryManageActivity extends AppCompatActivity {
     }
 
     private void observeCategoryData() {
-        // 仅观察父分类（parentId=0）
-        categoryViewModel.getParentCategories().observe(this, parentCategories -> {
-            if (parentCategories == null) {
-                parentCategories = new ArrayList<>();
+        // 观察分类树快照（父分类+子分类一次性发布，适配器绑定时不再查询数据库）
+        categoryViewModel.getCategoryTree().observe(this, categoryTree -> {
+            if (categoryTree != null) {
+                categoryAdapter.setCategoryTree(categoryTree);
             }
-            categoryAdapter.setParentCategories(parentCategories);
         });
 
         categoryViewModel.getOperationResult().observe(this, result -> {
             if (result) {
                 Toast.makeText(this, R.string.operation_success, Toast.LENGTH_SHORT).show();
-                categoryViewModel.loadParentCategories();
             } else {
                 Toast.makeText(this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
             }
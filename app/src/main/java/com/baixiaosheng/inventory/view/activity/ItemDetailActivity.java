@@ -14,13 +14,13 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.baixiaosheng.inventory.R;
-import com.baixiaosheng.inventory.database.entity.Category;
 import com.baixiaosheng.inventory.database.entity.Item;
-import com.baixiaosheng.inventory.database.entity.Location;
 import com.baixiaosheng.inventory.utils.DateUtils;
+import com.baixiaosheng.inventory.utils.ImageLoader;
 import com.baixiaosheng.inventory.utils.ImageUtils;
 import com.baixiaosheng.inventory.viewmodel.QueryViewModel;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -68,8 +68,7 @@ public class ItemDetailActivity extends AppCompatActivity {
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == 1001 && resultCode == RESULT_OK) {
-            // 编辑保存成功，重新加载物品数据
-            loadItemData();
+            // 编辑保存成功，详情LiveData会自动刷新
             Toast.makeText(this, "数据已更新", Toast.LENGTH_SHORT).show();
         }
     }
@@ -89,15 +88,21 @@ public class ItemDetailActivity extends AppCompatActivity {
         btnDelete = findViewById(R.id.btn_delete);
     }
 
+    /**
+     * 加载物品详情：单条关联查询返回物品及分类/位置名称，只需注册一次观察者
+     * 编辑保存或分类/位置变更后，Room会自动重新查询并回调
+     */
     private void loadItemData() {
-        // 查询物品详情
-        queryViewModel.getItemByIdNotDeletedLiveData(itemId).observe(this, item -> {
+        queryViewModel.getItemDetailLive(itemId).observe(this, detail -> {
             if (isFinishing() || isDestroyed()) return;
-            if (item == null) {
+            if (detail == null || detail.item == null) {
                 Toast.makeText(this, "物品不存在", Toast.LENGTH_SHORT).show();
                 finish();
                 return;
             }
+            Item item = detail.item;
+            // 图片随物品传给编辑页（Item.images不映射item表的列，需从详情结果补上）
+            item.setImages(new ArrayList<>(detail.getImages()));
             currentItem = item;
 
             // 填充基本信息
@@ -106,39 +111,30 @@ public class ItemDetailActivity extends AppCompatActivity {
             tvValidTime.setText(item.getValidTime() == 0 ? "无" : DateUtils.formatTime(item.getValidTime()));
             tvRemark.setText(item.getRemark() == null ? "无" : item.getRemark());
 
-
-            // 查询父分类名称
-            queryViewModel.getCategoryByIdLiveData(item.getParentCategoryId()).observe(this, category -> {
-                tvParentCategory.setText(category == null ? "无" : category.getCategoryName());
-            });
-
-            // 查询子分类名称
-            queryViewModel.getCategoryByIdLiveData(item.getChildCategoryId()).observe(this, category -> {
-                tvChildCategory.setText(category == null ? "无" : category.getCategoryName());
-            });
-
-            // 查询位置名称
-            queryViewModel.getLocationByIdLiveData(item.getLocationId()).observe(this, location -> {
-                tvLocation.setText(location == null ? "无" : location.getName());
-            });
-
+            // 分类/位置名称
+            tvParentCategory.setText(detail.parentCategoryName == null ? "无" : detail.parentCategoryName);
+            tvChildCategory.setText(detail.childCategoryName == null ? "无" : detail.childCategoryName);
+            tvLocation.setText(detail.locationName == null ? "无" : detail.locationName);
 
             // 加载图片预览
-            loadItemImages(item.getImagePaths());
+            loadItemImages(detail.getImagePathList());
         });
     }
 
     /**
      * 加载物品图片
-     * @param imagePaths 图片路径（逗号分隔）
+     * @param paths 图片路径列表
      */
-    private void loadItemImages(String imagePaths) {
-        llImagePreview.removeAllViews();
-        if (imagePaths == null || imagePaths.isEmpty()) {
-            return;
+    private void loadItemImages(List<String> paths) {
+        // 旧的预览交还ImageLoader（取消未完成的加载，Bitmap可被复用）
+        ImageLoader imageLoader = ImageLoader.getInstance(this);
+        for (int i = 0; i < llImagePreview.getChildCount(); i++) {
+            View child = llImagePreview.getChildAt(i);
+            if (child instanceof ImageView) {
+                imageLoader.clear((ImageView) child);
+            }
         }
-
-        String[] paths = imagePaths.split(",");
+        llImagePreview.removeAllViews();
         for (String path : paths) {
             ImageView iv = new ImageView(this);
             LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
@@ -147,8 +143,8 @@ public class ItemDetailActivity extends AppCompatActivity {
             iv.setLayoutParams(params);
             iv.setScaleType(ImageView.ScaleType.CENTER_CROP);
 
-            // 加载图片
-            ImageUtils.loadImage(path, iv);
+            // 异步加载图片（后台解码，缩略图缓存）
+            imageLoader.load(path, iv, 200);
 
             // 点击图片放大
             iv.setOnClickListener(v -> ImageUtils.showImagePreview(this, path));
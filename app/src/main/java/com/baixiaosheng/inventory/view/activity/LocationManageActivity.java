@@ -16,6 +16,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.baixiaosheng.inventory.R;
+import com.baixiaosheng.inventory.database.DictionaryCache;
 import com.baixiaosheng.inventory.view.adapter.LocationAdapter;
 import com.baixiaosheng.inventory.database.entity.Location;
 import com.baixiaosheng.inventory.viewmodel.LocationManageViewModel;
@@ -141,7 +142,7 @@ public class LocationManageActivity extends AppCompatActivity {
                     return;
                 }
                 // 2. 校验名称是否重复
-                if (mAdapter.isNameDuplicate(locationName, mEditingLocationId)) {
+                if (DictionaryCache.getInstance(this).getLocations().isNameDuplicate(locationName, mEditingLocationId)) {
                     Toast.makeText(this, "位置名称已存在，请修改", Toast.LENGTH_SHORT).show();
                     return;
                 }
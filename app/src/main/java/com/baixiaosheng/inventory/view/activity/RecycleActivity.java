@@ -9,6 +9,7 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
@@ -16,18 +17,13 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.baixiaosheng.inventory.R;
-import com.baixiaosheng.inventory.database.DatabaseManager;
-import com.baixiaosheng.inventory.database.entity.Category;
-import com.baixiaosheng.inventory.database.entity.Item;
 import com.baixiaosheng.inventory.database.entity.ItemWithName;
-import com.baixiaosheng.inventory.database.entity.Location;
 import com.baixiaosheng.inventory.view.adapter.RecycleAdapter;
 import com.baixiaosheng.inventory.viewmodel.RecycleViewModel;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * 回收站页面Activity（完整版）
@@ -37,7 +33,6 @@ public class RecycleActivity extends AppCompatActivity implements RecycleAdapter
     private static final String TAG = "RecycleActivity";
     private RecyclerView recyclerView;
     private RecycleAdapter adapter;
-    private DatabaseManager databaseManager;
     private TextView tvEmptyHint;
     private RecycleViewModel recycleViewModel;
 
@@ -47,16 +42,11 @@ public class RecycleActivity extends AppCompatActivity implements RecycleAdapter
     private Button btnBatchRestore;
     private Button btnBatchDelete;
 
-    // 单线程池：处理数据库查询，避免多线程并发问题
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_recycle);
 
-        // 初始化数据库管理类
-        databaseManager = DatabaseManager.getInstance(this);
         // 初始化ViewModel
         recycleViewModel = new ViewModelProvider(this).get(RecycleViewModel.class);
 
@@ -90,10 +80,23 @@ public class RecycleActivity extends AppCompatActivity implements RecycleAdapter
         // 设置条目单击事件
         adapter.setOnItemClickListener(this::showItemOptionDialog);
         recyclerView.setAdapter(adapter);
+        // 滚动接近末尾时加载下一页
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) {
+                    return;
+                }
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager != null) {
+                    recycleViewModel.onListScrolled(layoutManager.findLastVisibleItemPosition(), adapter.getItemCount());
+                }
+            }
+        });
 
         // 批量恢复按钮点击事件
         btnBatchRestore.setOnClickListener(v -> {
-            List<ItemWithName> selectedItems = adapter.getSelectedItems();
+            Collection<ItemWithName> selectedItems = adapter.getSelectedItems();
             if (selectedItems.isEmpty()) {
                 Toast.makeText(this, "请选择要恢复的物品", Toast.LENGTH_SHORT).show();
                 return;
@@ -112,7 +115,7 @@ public class RecycleActivity extends AppCompatActivity implements RecycleAdapter
 
         // 批量删除按钮点击事件
         btnBatchDelete.setOnClickListener(v -> {
-            List<ItemWithName> selectedItems = adapter.getSelectedItems();
+            Collection<ItemWithName> selectedItems = adapter.getSelectedItems();
             if (selectedItems.isEmpty()) {
                 Toast.makeText(this, "请选择要删除的物品", Toast.LENGTH_SHORT).show();
                 return;
@@ -175,18 +178,22 @@ public class RecycleActivity extends AppCompatActivity implements RecycleAdapter
             recyclerView.setVisibility(View.GONE);
         });
 
-        // 监听回收站物品数据变化
-        recycleViewModel.getDeletedItemsLive().observe(this, new Observer<List<Item>>() {
+        // item表变化（含恢复/删除操作）时重新加载已展示的分页，首次订阅即触发首页加载
+        recycleViewModel.getRecycleItemsCount(null).observe(this, count -> recycleViewModel.refreshRecycleItems());
+
+        // 监听已加载的回收站分页数据（分类/位置名称已由关联查询一并返回）
+        recycleViewModel.getRecycleItems().observe(this, new Observer<List<ItemWithName>>() {
             @Override
-            public void onChanged(List<Item> items) {
+            public void onChanged(List<ItemWithName> items) {
                 Log.d(TAG, "LiveData数据变化，物品数量：" + (items == null ? 0 : items.size()));
 
                 if (items == null || items.isEmpty()) {
                     // 空数据处理
                     handleEmptyData();
                 } else {
-                    // 有数据：加载分类/位置名称并更新UI
-                    loadItemWithNameData(items);
+                    tvEmptyHint.setVisibility(View.GONE);
+                    recyclerView.setVisibility(View.VISIBLE);
+                    adapter.setItemWithNameList(items);
                 }
             }
         });
@@ -234,54 +241,6 @@ public class RecycleActivity extends AppCompatActivity implements RecycleAdapter
         });
     }
 
-    /**
-     * 加载ItemWithName数据（包含分类、位置名称）
-     * @param items 原始物品列表
-     */
-    private void loadItemWithNameData(List<Item> items) {
-        executor.execute(() -> {
-            List<ItemWithName> itemWithNameList = new ArrayList<>();
-
-            for (Item item : items) {
-                // 过滤非删除状态的物品（双重校验）
-                if (item.getIsDeleted() != 1) {
-                    continue;
-                }
-
-                // 构建ItemWithName对象（复用QueryAdapter逻辑）
-                ItemWithName itemWithName = new ItemWithName();
-                itemWithName.item = item;
-
-                // ========== 1. 处理分类名称（父分类+子分类） ==========
-                // 父分类名称
-                Category parentCategory = databaseManager.getCategoryById(item.getParentCategoryId());
-                itemWithName.parentCategoryName = (parentCategory != null) ? parentCategory.getCategoryName() : null;
-                // 子分类名称
-                Category childCategory = databaseManager.getCategoryById(item.getChildCategoryId());
-                itemWithName.categoryName = (childCategory != null) ? childCategory.getCategoryName() : null;
-
-                // ========== 2. 处理位置名称 ==========
-                Location location = databaseManager.getLocationById(item.getLocationId());
-                itemWithName.locationName = (location != null) ? location.getName() : null;
-
-                // 添加到列表
-                itemWithNameList.add(itemWithName);
-            }
-
-            // 切换到主线程更新UI
-            runOnUiThread(() -> {
-                if (itemWithNameList.isEmpty()) {
-                    handleEmptyData();
-                } else {
-                    tvEmptyHint.setVisibility(View.GONE);
-                    recyclerView.setVisibility(View.VISIBLE);
-                    adapter.setItemWithNameList(itemWithNameList);
-                    Log.d(TAG, "适配器数据更新完成，数量：" + itemWithNameList.size());
-                }
-            });
-        });
-    }
-
     // ==================== 多选模式回调 ====================
 
     @Override
@@ -310,16 +269,4 @@ public class RecycleActivity extends AppCompatActivity implements RecycleAdapter
             super.onBackPressed();
         }
     }
-
-    /**
-     * 释放资源
-     */
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        // 关闭线程池，避免内存泄漏
-        if (!executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
 }
\ No newline at end of file
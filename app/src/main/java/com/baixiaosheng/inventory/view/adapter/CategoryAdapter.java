@@ -1,6 +1,7 @@
 package com.baixiaosheng.inventory.view.adapter;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,39 +12,74 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.baixiaosheng.inventory.R;
+import com.baixiaosheng.inventory.database.DictionaryCache;
 import com.baixiaosheng.inventory.database.entity.Category;
 import com.baixiaosheng.inventory.view.activity.CategoryManageActivity;
 import com.baixiaosheng.inventory.viewmodel.CategoryManageViewModel;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
+import java.util.ArrayList;
 import java.util.List;
 
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.ParentCategoryViewHolder> {
+public class CategoryAdapter extends ListAdapter<CategoryAdapter.ParentRow, CategoryAdapter.ParentCategoryViewHolder> {
+
+    // 按父分类ID判断同一行，父分类名称或子分类列表变化时刷新该行
+    private static final DiffUtil.ItemCallback<ParentRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<ParentRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ParentRow oldRow, @NonNull ParentRow newRow) {
+            return oldRow.parent.getId() == newRow.parent.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ParentRow oldRow, @NonNull ParentRow newRow) {
+            return TextUtils.equals(oldRow.parent.getCategoryName(), newRow.parent.getCategoryName())
+                    && sameChildren(oldRow.children, newRow.children);
+        }
+    };
 
     private Context context;
-    private List<Category> parentCategories; // 仅存储父分类（parentId=0）
     private CategoryManageViewModel viewModel;
     private LifecycleOwner lifecycleOwner;
 
     public CategoryAdapter(Context context, CategoryManageViewModel viewModel) {
+        super(DIFF_CALLBACK);
         this.context = context;
         this.viewModel = viewModel;
         this.lifecycleOwner = (LifecycleOwner) context;
     }
 
-    public void setParentCategories(List<Category> parentCategories) {
-        this.parentCategories = parentCategories;
-        notifyDataSetChanged();
+    /**
+     * 更新分类树快照：按父分类逐行比较（后台线程计算差分），仅刷新名称或子分类发生变化的行
+     */
+    public void setCategoryTree(DictionaryCache.Categories newTree) {
+        List<Category> parents = newTree.getTopLevel();
+        List<ParentRow> rows = new ArrayList<>(parents.size());
+        for (Category parent : parents) {
+            rows.add(new ParentRow(parent, newTree.getChildren(parent.getId())));
+        }
+        submitList(rows);
     }
 
-    // 仅返回父分类数量（移除添加按钮Item）
-    @Override
-    public int getItemCount() {
-        return parentCategories == null ? 0 : parentCategories.size();
+    // 子分类列表是否一致（ID与名称逐个比较）
+    private static boolean sameChildren(List<Category> oldChildren, List<Category> newChildren) {
+        if (oldChildren.size() != newChildren.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldChildren.size(); i++) {
+            Category oldChild = oldChildren.get(i);
+            Category newChild = newChildren.get(i);
+            if (oldChild.getId() != newChild.getId()
+                    || !TextUtils.equals(oldChild.getCategoryName(), newChild.getCategoryName())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @NonNull
@@ -56,54 +92,51 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Parent
 
     @Override
     public void onBindViewHolder(@NonNull ParentCategoryViewHolder holder, int position) {
-        Category parentCategory = parentCategories.get(position);
+        ParentRow row = getItem(position);
+        Category parentCategory = row.parent;
         if (parentCategory == null) return;
 
         // 显示父分类名称
         holder.tvName.setText(String.format("分类：%s", parentCategory.getCategoryName()));
 
-        // 加载子分类Chip
+        // 加载子分类Chip（直接读取分类树快照，不访问数据库）
         holder.cgChildCategories.removeAllViews();
-        viewModel.getChildCategories(parentCategory.getId()).observe(lifecycleOwner, childCategories -> {
-            holder.cgChildCategories.removeAllViews();
-            for (Category child : childCategories) {
-                Chip chip = new Chip(context);
-                chip.setText(child.getCategoryName());
-                chip.setChipBackgroundColorResource(R.color.chip_bg);
-                chip.setTextColor(context.getResources().getColor(R.color.white));
-
-                // 子分类Chip点击（编辑）
-                chip.setOnClickListener(v -> {
-                    ((CategoryManageActivity) context).showAddCategoryDialog(child, parentCategory.getId());
+        for (Category child : row.children) {
+            Chip chip = new Chip(context);
+            chip.setText(child.getCategoryName());
+            chip.setChipBackgroundColorResource(R.color.chip_bg);
+            chip.setTextColor(context.getResources().getColor(R.color.white));
+
+            // 子分类Chip点击（编辑）
+            chip.setOnClickListener(v -> {
+                ((CategoryManageActivity) context).showAddCategoryDialog(child, parentCategory.getId());
+            });
+
+            // 子分类Chip长按（删除）
+            chip.setOnLongClickListener(v -> {
+                // 先查询子分类关联的物品数量
+                viewModel.checkCategoryHasRelatedItems(child.getId()).observe(lifecycleOwner, hasItems -> {
+                    AlertDialog.Builder builder = new AlertDialog.Builder(context)
+                            .setTitle(R.string.delete_category)
+                            .setPositiveButton(R.string.confirm, (dialog, which) -> {
+                                // 执行子分类删除（内部已处理清空物品关联，分类树随表变更自动刷新）
+                                viewModel.deleteCategory(child);
+                            })
+                            .setNegativeButton(R.string.cancel, (dialog, which) -> dialog.dismiss());
+
+                    // 根据是否有物品调整提示语
+                    if (hasItems) {
+                        builder.setMessage(context.getString(R.string.delete_child_category_with_items_tip));
+                    } else {
+                        builder.setMessage(String.format(context.getString(R.string.delete_category_confirm), child.getCategoryName()));
+                    }
+                    builder.show();
                 });
+                return true;
+            });
 
-                // 子分类Chip长按（删除）
-                chip.setOnLongClickListener(v -> {
-                    // 先查询子分类关联的物品数量
-                    viewModel.checkCategoryHasRelatedItems(child.getId()).observe(lifecycleOwner, hasItems -> {
-                        AlertDialog.Builder builder = new AlertDialog.Builder(context)
-                                .setTitle(R.string.delete_category)
-                                .setPositiveButton(R.string.confirm, (dialog, which) -> {
-                                    // 执行子分类删除（内部已处理清空物品关联）
-                                    viewModel.deleteCategory(child);
-                                    viewModel.loadAllCategories();
-                                })
-                                .setNegativeButton(R.string.cancel, (dialog, which) -> dialog.dismiss());
-
-                        // 根据是否有物品调整提示语
-                        if (hasItems) {
-                            builder.setMessage(context.getString(R.string.delete_child_category_with_items_tip));
-                        } else {
-                            builder.setMessage(String.format(context.getString(R.string.delete_category_confirm), child.getCategoryName()));
-                        }
-                        builder.show();
-                    });
-                    return true;
-                });
-
-                holder.cgChildCategories.addView(chip);
-            }
-        });
+            holder.cgChildCategories.addView(chip);
+        }
 
         // 父分类Item单击事件：编辑当前父分类名称
         holder.itemView.setOnClickListener(v -> {
@@ -122,6 +155,19 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Parent
         });
     }
 
+    /**
+     * 列表行：父分类及其子分类（取自同一分类树快照，不可变）
+     */
+    static final class ParentRow {
+        final Category parent;
+        final List<Category> children;
+
+        ParentRow(Category parent, List<Category> children) {
+            this.parent = parent;
+            this.children = children;
+        }
+    }
+
     // 仅保留父分类ViewHolder（移除AddParentViewHolder）
     static class ParentCategoryViewHolder extends RecyclerView.ViewHolder {
         TextView tvName;
@@ -0,0 +1,101 @@
+package com.baixiaosheng.inventory.view.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.database.entity.Location;
+import com.baixiaosheng.inventory.model.ItemRow;
+
+import java.util.Objects;
+
+/**
+ * 列表适配器共用的差分回调（由ListAdapter在后台线程计算差分）
+ * 同一条目：物品按UUID（缺失时按ID）、位置按ID判断；内容相同：仅比较列表中实际展示的字段
+ */
+public final class DiffCallbacks {
+
+    private DiffCallbacks() {
+    }
+
+    /** 物品+分类/位置名称（查询页、回收站） */
+    public static final DiffUtil.ItemCallback<ItemWithName> ITEM_WITH_NAME = new DiffUtil.ItemCallback<ItemWithName>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ItemWithName oldItem, @NonNull ItemWithName newItem) {
+            return sameItem(oldItem.item, newItem.item);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ItemWithName oldItem, @NonNull ItemWithName newItem) {
+            Item oldEntity = oldItem.item;
+            Item newEntity = newItem.item;
+            if (oldEntity == null || newEntity == null) {
+                return oldEntity == newEntity;
+            }
+            return Objects.equals(oldEntity.getName(), newEntity.getName())
+                    && oldEntity.getCount() == newEntity.getCount()
+                    && oldEntity.getValidTime() == newEntity.getValidTime()
+                    && Objects.equals(oldEntity.getRemark(), newEntity.getRemark())
+                    && oldEntity.getParentCategoryId() == newEntity.getParentCategoryId()
+                    && oldEntity.getChildCategoryId() == newEntity.getChildCategoryId()
+                    && oldEntity.getLocationId() == newEntity.getLocationId()
+                    && Objects.equals(oldItem.parentCategoryName, newItem.parentCategoryName)
+                    && Objects.equals(oldItem.categoryName, newItem.categoryName)
+                    && Objects.equals(oldItem.locationName, newItem.locationName);
+        }
+    };
+
+    /** 查询页行模型（展示文案已预先生成，直接比较文案） */
+    public static final DiffUtil.ItemCallback<ItemRow> ITEM_ROW = new DiffUtil.ItemCallback<ItemRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ItemRow oldItem, @NonNull ItemRow newItem) {
+            return sameItem(oldItem.getSource().item, newItem.getSource().item);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ItemRow oldItem, @NonNull ItemRow newItem) {
+            return oldItem.sameContent(newItem);
+        }
+    };
+
+    /** 物品（首页过期列表） */
+    public static final DiffUtil.ItemCallback<Item> ITEM = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return sameItem(oldItem, newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && oldItem.getValidTime() == newItem.getValidTime()
+                    && oldItem.getLocationId() == newItem.getLocationId()
+                    && oldItem.getCount() == newItem.getCount();
+        }
+    };
+
+    /** 位置（位置管理页） */
+    public static final DiffUtil.ItemCallback<Location> LOCATION = new DiffUtil.ItemCallback<Location>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Location oldItem, @NonNull Location newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Location oldItem, @NonNull Location newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName());
+        }
+    };
+
+    // 同一物品：优先按UUID比较，旧数据无UUID时退回按自增ID比较
+    private static boolean sameItem(Item oldItem, Item newItem) {
+        if (oldItem == null || newItem == null) {
+            return oldItem == newItem;
+        }
+        if (oldItem.getUuid() != null && newItem.getUuid() != null) {
+            return oldItem.getUuid().equals(newItem.getUuid());
+        }
+        return oldItem.getId() == newItem.getId();
+    }
+}
@@ -1,25 +1,23 @@
 package com.baixiaosheng.inventory.view.adapter;
 
-import android.annotation.SuppressLint;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.baixiaosheng.inventory.R;
 import com.baixiaosheng.inventory.database.entity.Item;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
-public class ExpiredItemAdapter extends RecyclerView.Adapter<ExpiredItemAdapter.ItemViewHolder> {
-    private List<Item> itemList;
+public class ExpiredItemAdapter extends ListAdapter<Item, ExpiredItemAdapter.ItemViewHolder> {
     private OnItemClickListener onItemClickListener; // 现在有对应的接口定义了
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.CHINA);
 
@@ -35,19 +33,18 @@ public class ExpiredItemAdapter extends RecyclerView.Adapter<ExpiredItemAdapter.
 
     // 添加无参构造方法（兼容Fragment调用）
     public ExpiredItemAdapter() {
-        this.itemList = new ArrayList<>();
+        super(DiffCallbacks.ITEM);
     }
 
     // 构造方法
     public ExpiredItemAdapter(List<Item> itemList) {
-        this.itemList = itemList;
+        super(DiffCallbacks.ITEM);
+        submitList(itemList);
     }
 
-    // 更新列表数据
-    @SuppressLint("NotifyDataSetChanged")
+    // 更新列表数据（后台线程计算差分，只刷新变化的行）
     public void updateData(List<Item> newList) {
-        this.itemList = newList;
-        notifyDataSetChanged();
+        submitList(newList);
     }
 
     @NonNull
@@ -60,7 +57,7 @@ public class ExpiredItemAdapter extends RecyclerView.Adapter<ExpiredItemAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
-        Item item = itemList.get(position);
+        Item item = getItem(position);
         // 物品名称
         holder.tvItemName.setText(item.getName());
         // 过期时间（空值处理）
@@ -83,11 +80,6 @@ public class ExpiredItemAdapter extends RecyclerView.Adapter<ExpiredItemAdapter.
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return itemList == null ? 0 : itemList.size();
-    }
-
     // 列表项ViewHolder
     static class ItemViewHolder extends RecyclerView.ViewHolder {
         TextView tvItemName, tvExpireTime, tvItemLocation, tvItemCount;
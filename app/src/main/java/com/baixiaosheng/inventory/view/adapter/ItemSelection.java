@@ -0,0 +1,143 @@
+package com.baixiaosheng.inventory.view.adapter;
+
+import androidx.annotation.NonNull;
+
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+
+import java.util.AbstractCollection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 列表多选状态（查询页、回收站共用，仅在主线程读写）
+ * 以 "是否反选 + 被单独切换的UUID集合" 表示：选中 = inverted XOR toggled.contains(uuid)，
+ * 因此单行判断/切换为O(1)，全选与反选只翻转标记，不需要为每一行生成UUID
+ * 约定：toggled中的UUID均属于当前列表（换成新查询的列表时须clear，原位刷新时须retain）
+ */
+public final class ItemSelection {
+    // 被单独切换过的物品UUID（未反选时即选中集合，反选时即排除集合）
+    private final Set<String> toggled = new HashSet<>();
+    private boolean inverted;
+
+    public boolean isSelected(String uuid) {
+        return inverted != toggled.contains(uuid);
+    }
+
+    /**
+     * 设置单行选中状态
+     * @return 状态是否发生变化
+     */
+    public boolean setSelected(String uuid, boolean selected) {
+        if (isSelected(uuid) == selected) {
+            return false;
+        }
+        if (!toggled.remove(uuid)) {
+            toggled.add(uuid);
+        }
+        return true;
+    }
+
+    /** 全选（含之后分页追加的行） */
+    public void selectAll() {
+        inverted = true;
+        toggled.clear();
+    }
+
+    /** 反选 */
+    public void invert() {
+        inverted = !inverted;
+    }
+
+    public void clear() {
+        inverted = false;
+        toggled.clear();
+    }
+
+    /**
+     * 原位刷新后只保留仍在列表中的UUID，其余行的选择状态保持不变
+     * @param uuids 刷新后列表中的全部UUID
+     */
+    public void retain(Set<String> uuids) {
+        toggled.retainAll(uuids);
+    }
+
+    /**
+     * 选中数量
+     * @param total 当前列表总行数
+     */
+    public int count(int total) {
+        return inverted ? total - toggled.size() : toggled.size();
+    }
+
+    /**
+     * 当前选中项的快照视图：复制选择状态（仅复制被切换的UUID），物品按需在遍历时过滤
+     * 可安全地交给后台线程遍历，之后的选择变化不影响快照
+     * @param items 当前列表（ListAdapter提交后不再修改）
+     */
+    public Selected snapshot(List<ItemWithName> items) {
+        return new Selected(items, inverted, new HashSet<>(toggled), count(items.size()));
+    }
+
+    /**
+     * 选中物品的惰性只读集合：size()为O(1)，遍历时才按选择状态过滤列表
+     */
+    public static final class Selected extends AbstractCollection<ItemWithName> {
+        private final List<ItemWithName> items;
+        private final boolean inverted;
+        private final Set<String> toggled;
+        private final int size;
+
+        private Selected(List<ItemWithName> items, boolean inverted, Set<String> toggled, int size) {
+            this.items = items;
+            this.inverted = inverted;
+            this.toggled = Collections.unmodifiableSet(toggled);
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @NonNull
+        @Override
+        public Iterator<ItemWithName> iterator() {
+            return new Iterator<ItemWithName>() {
+                private int index = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return index < items.size();
+                }
+
+                @Override
+                public ItemWithName next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    ItemWithName next = items.get(index);
+                    index = advance(index + 1);
+                    return next;
+                }
+            };
+        }
+
+        // 从from开始第一个选中行的下标，没有则返回列表长度
+        private int advance(int from) {
+            int i = from;
+            while (i < items.size() && !isSelected(items.get(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        private boolean isSelected(ItemWithName itemWithName) {
+            return itemWithName != null && itemWithName.item != null
+                    && inverted != toggled.contains(itemWithName.item.getUuid());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.baixiaosheng.inventory.R;
@@ -16,9 +17,8 @@ import java.util.List;
 /**
  * 位置列表适配器
  */
-public class LocationAdapter extends RecyclerView.Adapter<LocationAdapter.LocationViewHolder> {
+public class LocationAdapter extends ListAdapter<Location, LocationAdapter.LocationViewHolder> {
 
-    private List<Location> mLocationList;
     private final OnItemClickListener mOnItemClickListener;
     private final OnItemLongClickListener mOnItemLongClickListener;
 
@@ -35,9 +35,10 @@ public class LocationAdapter extends RecyclerView.Adapter<LocationAdapter.Locati
     public LocationAdapter(List<Location> locationList,
                            OnItemClickListener onItemClickListener,
                            OnItemLongClickListener onItemLongClickListener) {
-        this.mLocationList = locationList;
+        super(DiffCallbacks.LOCATION);
         this.mOnItemClickListener = onItemClickListener;
         this.mOnItemLongClickListener = onItemLongClickListener;
+        submitList(locationList);
     }
 
     @NonNull
@@ -49,7 +50,7 @@ public class LocationAdapter extends RecyclerView.Adapter<LocationAdapter.Locati
 
     @Override
     public void onBindViewHolder(@NonNull LocationViewHolder holder, int position) {
-        Location location = mLocationList.get(position);
+        Location location = getItem(position);
         holder.tvLocationName.setText(location.getName());
 
         // 点击事件（编辑）
@@ -61,30 +62,11 @@ public class LocationAdapter extends RecyclerView.Adapter<LocationAdapter.Locati
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return mLocationList.size();
-    }
-
     /**
-     * 更新数据
+     * 更新数据（后台线程计算差分，只刷新变化的行）
      */
     public void updateData(List<Location> locationList) {
-        this.mLocationList = locationList;
-        notifyDataSetChanged();
-    }
-
-    /**
-     * 检查名称是否重复（排除编辑中的位置）
-     */
-    public boolean isNameDuplicate(String name, long excludeId) {
-        if (name == null || name.trim().isEmpty()) return false;
-        for (Location location : mLocationList) {
-            if (location.getId() != excludeId && name.trim().equals(location.getName().trim())) {
-                return true;
-            }
-        }
-        return false;
+        submitList(locationList);
     }
 
     static class LocationViewHolder extends RecyclerView.ViewHolder {
@@ -5,36 +5,34 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.CheckBox;
+import android.widget.CompoundButton;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.baixiaosheng.inventory.R;
-import com.baixiaosheng.inventory.database.entity.ItemWithName;
+import com.baixiaosheng.inventory.model.ItemRow;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * 查询页物品列表适配器：仅保留单选跳转详情、长按多选删除功能
  */
-public class QueryAdapter extends RecyclerView.Adapter<QueryAdapter.ItemViewHolder> {
-    // 数据
+public class QueryAdapter extends ListAdapter<ItemRow, QueryAdapter.ItemViewHolder> {
+    // 局部刷新标记：仅多选状态变化，只重绑复选框
+    private static final Object PAYLOAD_SELECTION = new Object();
+
     private final Context context;
-    private List<ItemWithName> itemList = new ArrayList<>(); // 统一使用ItemWithName
     // 多选模式
     private boolean isMultiSelectMode = false;
-    private final List<String> selectedUuids = new ArrayList<>();
+    private final ItemSelection selection = new ItemSelection();
     // 回调（仅保留必要的）
     private OnItemClickListener itemClickListener;
     private OnMultiSelectChangeListener multiSelectChangeListener;
 
-    // 日期格式化
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.CHINA);
-
     public QueryAdapter(Context context) {
+        super(DiffCallbacks.ITEM_ROW);
         this.context = context;
     }
 
@@ -42,99 +40,75 @@ public class QueryAdapter extends RecyclerView.Adapter<QueryAdapter.ItemViewHold
     @Override
     public ItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_query, parent, false);
-        return new ItemViewHolder(view);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
-        ItemWithName itemWithName = itemList.get(position);
-
-        // 使用ItemWithName中的Item部分
-        if (itemWithName != null && itemWithName.item != null) {
-            // 绑定基础数据
-            holder.tvName.setText(itemWithName.item.getName());
-
-
-            // 使用分类和位置名称（ItemWithName的额外字段）
-
-
-            // 优化分类显示：按规则展示分类信息
-// 1. 未设置父分类（parentCategoryId=0）→ 显示“未设置”
-            if (itemWithName.item.getParentCategoryId() == 0) {
-                holder.tvCategory.setText("未设置");
-            } else {
-                // 2. 有父分类ID，优先使用父分类名称
-                String parentCatName = itemWithName.parentCategoryName;
-                String displayParent = (parentCatName != null && !parentCatName.isEmpty())
-                        ? parentCatName
-                        : String.valueOf(itemWithName.item.getParentCategoryId());
-
-                // 3. 判断子分类是否存在
-                if (itemWithName.item.getChildCategoryId() == 0) {
-                    // 无子分类 → 仅显示父分类
-                    holder.tvCategory.setText(displayParent);
-                } else {
-                    // 有子分类 → 拼接父/子分类
-                    String childCatName = itemWithName.categoryName;
-                    String displayChild = (childCatName != null && !childCatName.isEmpty())
-                            ? childCatName
-                            : String.valueOf(itemWithName.item.getChildCategoryId());
-                    holder.tvCategory.setText(displayParent + "/" + displayChild);
-                }
+        ItemViewHolder holder = new ItemViewHolder(view);
+        // 监听器每个ViewHolder只创建一次，绑定时按当前位置取行，避免每次绑定分配lambda
+        holder.checkedListener = (buttonView, isChecked) -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                updateSelectionState(getItem(position).getUuid(), isChecked);
             }
-
-            if (itemWithName.locationName != null) {
-                holder.tvLocation.setText(itemWithName.locationName);
-            } else {
-                holder.tvLocation.setText(itemWithName.item.getLocationId() == 0 ? "未设置" : String.valueOf(itemWithName.item.getLocationId()));
+        };
+        // 条目点击事件：仅跳转详情（多选模式下切换选中状态）
+        holder.itemView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
             }
-
-            holder.tvQuantity.setText(String.valueOf(itemWithName.item.getCount()));
-
-            // 过期时间
-            if (itemWithName.item.getValidTime() != 0) {
-                holder.tvExpire.setText(dateFormat.format(itemWithName.item.getValidTime()));
-            } else {
-                holder.tvExpire.setText("无");
+            if (isMultiSelectMode) {
+                holder.cbSelect.setChecked(!holder.cbSelect.isChecked());
+            } else if (itemClickListener != null) {
+                // 传递Item，因为ItemDetailActivity只需要Item对象
+                itemClickListener.onItemClick(getItem(position).getSource().item);
             }
-
-            // 物品说明
-            if (itemWithName.item.getRemark() != null && !itemWithName.item.getRemark().isEmpty()) {
-                holder.tvDesc.setVisibility(View.VISIBLE);
-                holder.tvDesc.setText(itemWithName.item.getRemark());
-            } else {
-                holder.tvDesc.setVisibility(View.GONE);
+        });
+        // 条目长按事件：进入多选模式
+        holder.itemView.setOnLongClickListener(v -> {
+            if (!isMultiSelectMode && holder.getBindingAdapterPosition() != RecyclerView.NO_POSITION) {
+                setMultiSelectMode(true);
+                holder.cbSelect.setChecked(true);
             }
+            return true;
+        });
+        return holder;
+    }
 
-            // 多选模式处理
-            holder.cbSelect.setOnCheckedChangeListener(null);
-            holder.cbSelect.setVisibility(isMultiSelectMode ? View.VISIBLE : View.GONE);
-            holder.cbSelect.setChecked(selectedUuids.contains(itemWithName.item.getUuid()));
-            holder.cbSelect.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                updateSelectionState(itemWithName.item.getUuid(), isChecked);
-            });
-
-            // 条目点击事件：仅跳转详情（多选模式下切换选中状态）
-            holder.itemView.setOnClickListener(v -> {
-                if (isMultiSelectMode) {
-                    holder.cbSelect.setChecked(!holder.cbSelect.isChecked());
-                } else {
-                    if (itemClickListener != null) {
-                        // 传递Item，因为ItemDetailActivity只需要Item对象
-                        itemClickListener.onItemClick(itemWithName.item);
-                    }
-                }
-            });
-
-            // 条目长按事件：进入多选模式
-            holder.itemView.setOnLongClickListener(v -> {
-                if (!isMultiSelectMode) {
-                    setMultiSelectMode(true);
-                    holder.cbSelect.setChecked(true);
-                }
-                return true;
-            });
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_SELECTION)) {
+            bindSelection(holder, getItem(position));
+            return;
         }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
+    // 展示文案已在ItemRow中生成，这里只做setText
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
+        ItemRow row = getItem(position);
+        holder.tvName.setText(row.getName());
+        holder.tvCategory.setText(row.getCategoryLabel());
+        holder.tvLocation.setText(row.getLocationLabel());
+        holder.tvQuantity.setText(row.getQuantityText());
+        holder.tvExpire.setText(row.getExpireText());
+
+        // 物品说明
+        if (row.hasRemark()) {
+            holder.tvDesc.setVisibility(View.VISIBLE);
+            holder.tvDesc.setText(row.getRemark());
+        } else {
+            holder.tvDesc.setVisibility(View.GONE);
+        }
+
+        // 多选模式处理
+        bindSelection(holder, row);
+    }
+
+    // 绑定复选框的显示与选中状态
+    private void bindSelection(@NonNull ItemViewHolder holder, ItemRow row) {
+        holder.cbSelect.setOnCheckedChangeListener(null);
+        holder.cbSelect.setVisibility(isMultiSelectMode ? View.VISIBLE : View.GONE);
+        holder.cbSelect.setChecked(selection.isSelected(row.getUuid()));
+        holder.cbSelect.setOnCheckedChangeListener(holder.checkedListener);
     }
 
     /**
@@ -143,59 +117,73 @@ public class QueryAdapter extends RecyclerView.Adapter<QueryAdapter.ItemViewHold
      * @param isChecked 是否选中
      */
     private void updateSelectionState(String uuid, boolean isChecked) {
-        if (isChecked) {
-            if (!selectedUuids.contains(uuid)) {
-                selectedUuids.add(uuid);
-            }
-        } else {
-            if (selectedUuids.contains(uuid)) {
-                selectedUuids.remove(uuid);
-            }
-        }
-        if (multiSelectChangeListener != null) {
-            multiSelectChangeListener.onSelectCountChanged(selectedUuids.size());
+        if (selection.setSelected(uuid, isChecked)) {
+            dispatchSelectCount();
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return itemList.size();
+    // 通知当前选中数量
+    private void dispatchSelectCount() {
+        if (multiSelectChangeListener != null) {
+            multiSelectChangeListener.onSelectCountChanged(selection.count(getItemCount()));
+        }
     }
 
-    // 设置数据
-    public void setItemList(List<ItemWithName> newList) {
-        this.itemList = newList;
+    // 设置数据：差分在后台线程计算，只刷新实际变化的行（列表提交后不得再修改）
+    // refresh：同一查询的原位刷新（分页追加、数据变更后重查窗口），保留多选状态；否则为新查询，退出多选
+    public void setItemList(List<ItemRow> newList, boolean refresh) {
         if (isMultiSelectMode) {
-            setMultiSelectMode(false);
+            if (refresh) {
+                // 已不在列表中的行（被删除或不再匹配）从选择中移除
+                selection.retain(ItemRow.uuids(newList));
+            } else {
+                setMultiSelectMode(false);
+            }
         }
-        notifyDataSetChanged();
+        // 全选后追加的分页同样视为选中，提交完成后刷新选中数量
+        submitList(newList, isMultiSelectMode ? this::dispatchSelectCount : null);
     }
 
     // 切换多选模式
     public void setMultiSelectMode(boolean enable) {
         this.isMultiSelectMode = enable;
         if (!enable) {
-            selectedUuids.clear();
+            selection.clear();
         }
         if (multiSelectChangeListener != null) {
             multiSelectChangeListener.onSelectModeChanged(enable);
-            multiSelectChangeListener.onSelectCountChanged(selectedUuids.size());
+            multiSelectChangeListener.onSelectCountChanged(selection.count(getItemCount()));
         }
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
     }
 
-    // 获取选中的UUID列表
-    public List<String> getSelectedUuids() {
-        return new ArrayList<>(selectedUuids);
+    // 获取选中物品的快照（惰性过滤，可交给后台线程遍历）
+    public ItemSelection.Selected getSelectedItems() {
+        return selection.snapshot(ItemRow.sources(getCurrentList()));
+    }
+
+    // 全选（当前及之后分页追加的行），进入多选模式
+    public void selectAll() {
+        if (!isMultiSelectMode) {
+            setMultiSelectMode(true);
+        }
+        selection.selectAll();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        dispatchSelectCount();
+    }
+
+    // 反选
+    public void invertSelection() {
+        selection.invert();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        dispatchSelectCount();
     }
 
     // 清空选中
     public void clearSelection() {
-        selectedUuids.clear();
-        notifyDataSetChanged();
-        if (multiSelectChangeListener != null) {
-            multiSelectChangeListener.onSelectCountChanged(0);
-        }
+        selection.clear();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        dispatchSelectCount();
     }
 
     // 设置回调
@@ -221,6 +209,8 @@ public class QueryAdapter extends RecyclerView.Adapter<QueryAdapter.ItemViewHold
     // ViewHolder
     static class ItemViewHolder extends RecyclerView.ViewHolder {
         CheckBox cbSelect;
+        // 复选框监听（创建ViewHolder时生成，绑定时复用）
+        CompoundButton.OnCheckedChangeListener checkedListener;
         TextView tvName, tvCategory, tvLocation, tvQuantity, tvExpire, tvDesc;
 
         public ItemViewHolder(@NonNull View itemView) {
@@ -8,40 +8,61 @@ import android.view.ViewGroup;
 import android.widget.CheckBox;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.baixiaosheng.inventory.R;
 import com.baixiaosheng.inventory.database.entity.ItemWithName;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 回收站物品列表适配器（复用QueryAdapter字段获取逻辑，添加多选+单击弹窗功能）
  */
-public class RecycleAdapter extends RecyclerView.Adapter<RecycleAdapter.RecycleViewHolder> {
+public class RecycleAdapter extends ListAdapter<ItemWithName, RecycleAdapter.RecycleViewHolder> {
     private static final String TAG = "RecycleAdapter";
+    // 局部刷新标记：仅多选状态变化，只重绑复选框
+    private static final Object PAYLOAD_SELECTION = new Object();
     private final Context context;
-    private List<ItemWithName> itemWithNameList;
 
     // 多选模式相关变量
     private boolean isMultiSelectMode = false;
-    private final List<String> selectedUuids = new ArrayList<>();
+    private final ItemSelection selection = new ItemSelection();
     private OnMultiSelectChangeListener multiSelectChangeListener;
     // 单击事件回调
     private OnItemClickListener itemClickListener;
 
     public RecycleAdapter(Context context) {
+        super(DiffCallbacks.ITEM_WITH_NAME);
         this.context = context;
     }
 
     /**
-     * 更新列表数据
+     * 更新列表数据（差分在后台线程计算，只刷新实际变化的行；列表提交后不得再修改）
      */
     public void setItemWithNameList(List<ItemWithName> itemWithNameList) {
-        this.itemWithNameList = itemWithNameList;
-        if (isMultiSelectMode) {
+        // 分页追加保留多选状态，其余刷新退出多选
+        if (isMultiSelectMode && !isAppendedPage(itemWithNameList)) {
             setMultiSelectMode(false);
         }
-        notifyDataSetChanged();
+        // 全选后追加的分页同样视为选中，提交完成后刷新选中数量
+        submitList(itemWithNameList, isMultiSelectMode ? this::dispatchSelectCount : null);
+    }
+
+    // 判断新列表是否只是在当前列表末尾追加了一页（按UUID比较首尾，刷新后对象会重新查询）
+    private boolean isAppendedPage(List<ItemWithName> newList) {
+        List<ItemWithName> itemWithNameList = getCurrentList();
+        if (newList == null) {
+            return false;
+        }
+        int oldSize = itemWithNameList.size();
+        return oldSize > 0
+                && newList.size() > oldSize
+                && sameItem(newList.get(0), itemWithNameList.get(0))
+                && sameItem(newList.get(oldSize - 1), itemWithNameList.get(oldSize - 1));
+    }
+
+    private static boolean sameItem(ItemWithName a, ItemWithName b) {
+        return a.item != null && b.item != null
+                && a.item.getUuid() != null && a.item.getUuid().equals(b.item.getUuid());
     }
 
     /**
@@ -60,14 +81,22 @@ public class RecycleAdapter extends RecyclerView.Adapter<RecycleAdapter.RecycleV
     }
 
     @Override
-    public void onBindViewHolder(@NonNull RecycleViewHolder holder, int position) {
-        Log.d(TAG, "绑定位置：" + position + "，数据总数：" + getItemCount());
-
-        if (itemWithNameList == null || itemWithNameList.isEmpty()) {
+    public void onBindViewHolder(@NonNull RecycleViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_SELECTION)) {
+            ItemWithName itemWithName = getItem(position);
+            if (itemWithName != null && itemWithName.item != null) {
+                bindSelection(holder, itemWithName);
+            }
             return;
         }
+        super.onBindViewHolder(holder, position, payloads);
+    }
 
-        ItemWithName itemWithName = itemWithNameList.get(position);
+    @Override
+    public void onBindViewHolder(@NonNull RecycleViewHolder holder, int position) {
+        Log.d(TAG, "绑定位置：" + position + "，数据总数：" + getItemCount());
+
+        ItemWithName itemWithName = getItem(position);
         if (itemWithName == null || itemWithName.item == null) {
             Log.e(TAG, "位置 " + position + " 的数据为null");
             return;
@@ -113,12 +142,7 @@ public class RecycleAdapter extends RecyclerView.Adapter<RecycleAdapter.RecycleV
         holder.tvLocation.setText("位置：" + locationDisplay);
 
         // 多选模式处理
-        holder.cbSelect.setOnCheckedChangeListener(null);
-        holder.cbSelect.setVisibility(isMultiSelectMode ? View.VISIBLE : View.GONE);
-        holder.cbSelect.setChecked(selectedUuids.contains(itemWithName.item.getUuid()));
-        holder.cbSelect.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            updateSelectionState(itemWithName.item.getUuid(), isChecked);
-        });
+        bindSelection(holder, itemWithName);
 
         // 条目点击事件：多选模式下切换选中状态，非多选模式下触发单击弹窗
         holder.itemView.setOnClickListener(v -> {
@@ -141,23 +165,31 @@ public class RecycleAdapter extends RecyclerView.Adapter<RecycleAdapter.RecycleV
         });
     }
 
+    // 绑定复选框的显示与选中状态
+    private void bindSelection(@NonNull RecycleViewHolder holder, ItemWithName itemWithName) {
+        holder.cbSelect.setOnCheckedChangeListener(null);
+        holder.cbSelect.setVisibility(isMultiSelectMode ? View.VISIBLE : View.GONE);
+        holder.cbSelect.setChecked(selection.isSelected(itemWithName.item.getUuid()));
+        holder.cbSelect.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            updateSelectionState(itemWithName.item.getUuid(), isChecked);
+        });
+    }
+
     /**
      * 统一更新选中状态
      * @param uuid 物品唯一标识
      * @param isChecked 是否选中
      */
     private void updateSelectionState(String uuid, boolean isChecked) {
-        if (isChecked) {
-            if (!selectedUuids.contains(uuid)) {
-                selectedUuids.add(uuid);
-            }
-        } else {
-            if (selectedUuids.contains(uuid)) {
-                selectedUuids.remove(uuid);
-            }
+        if (selection.setSelected(uuid, isChecked)) {
+            dispatchSelectCount();
         }
+    }
+
+    // 通知当前选中数量
+    private void dispatchSelectCount() {
         if (multiSelectChangeListener != null) {
-            multiSelectChangeListener.onSelectCountChanged(selectedUuids.size());
+            multiSelectChangeListener.onSelectCountChanged(selection.count(getItemCount()));
         }
     }
 
@@ -167,13 +199,13 @@ public class RecycleAdapter extends RecyclerView.Adapter<RecycleAdapter.RecycleV
     public void setMultiSelectMode(boolean enable) {
         this.isMultiSelectMode = enable;
         if (!enable) {
-            selectedUuids.clear();
+            selection.clear();
         }
         if (multiSelectChangeListener != null) {
             multiSelectChangeListener.onSelectModeChanged(enable);
-            multiSelectChangeListener.onSelectCountChanged(selectedUuids.size());
+            multiSelectChangeListener.onSelectCountChanged(selection.count(getItemCount()));
         }
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
     }
 
     /**
@@ -184,37 +216,40 @@ public class RecycleAdapter extends RecyclerView.Adapter<RecycleAdapter.RecycleV
     }
 
     /**
-     * 获取选中的物品列表
+     * 获取选中物品的快照（惰性过滤，可交给后台线程遍历，之后的选择变化不影响快照）
      */
-    public List<ItemWithName> getSelectedItems() {
-        List<ItemWithName> selectedItems = new ArrayList<>();
-        if (itemWithNameList == null || selectedUuids.isEmpty()) {
-            return selectedItems;
-        }
-        for (ItemWithName itemWithName : itemWithNameList) {
-            if (selectedUuids.contains(itemWithName.item.getUuid())) {
-                selectedItems.add(itemWithName);
-            }
+    public ItemSelection.Selected getSelectedItems() {
+        return selection.snapshot(getCurrentList());
+    }
+
+    /**
+     * 全选（当前及之后分页追加的行），进入多选模式
+     */
+    public void selectAll() {
+        if (!isMultiSelectMode) {
+            setMultiSelectMode(true);
         }
-        return selectedItems;
+        selection.selectAll();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        dispatchSelectCount();
     }
 
     /**
-     * 获取选中的UUID列表
+     * 反选
      */
-    public List<String> getSelectedUuids() {
-        return new ArrayList<>(selectedUuids);
+    public void invertSelection() {
+        selection.invert();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        dispatchSelectCount();
     }
 
     /**
      * 清空选中
      */
     public void clearSelection() {
-        selectedUuids.clear();
-        notifyDataSetChanged();
-        if (multiSelectChangeListener != null) {
-            multiSelectChangeListener.onSelectCountChanged(0);
-        }
+        selection.clear();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        dispatchSelectCount();
     }
 
     /**
@@ -231,11 +266,6 @@ public class RecycleAdapter extends RecyclerView.Adapter<RecycleAdapter.RecycleV
         this.multiSelectChangeListener = listener;
     }
 
-    @Override
-    public int getItemCount() {
-        return itemWithNameList == null ? 0 : itemWithNameList.size();
-    }
-
     /**
      * 多选状态变化回调接口
      */
@@ -5,7 +5,6 @@ import android.app.AlertDialog;
 import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -22,20 +21,23 @@ import androidx.core.content.FileProvider;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import com.baixiaosheng.inventory.R;
+import com.baixiaosheng.inventory.database.DictionaryCache;
 import com.baixiaosheng.inventory.database.entity.Category;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemImage;
 import com.baixiaosheng.inventory.database.entity.Location;
+import com.baixiaosheng.inventory.utils.ImageIngestor;
+import com.baixiaosheng.inventory.utils.ImageLoader;
 import com.baixiaosheng.inventory.utils.ImageUtils;
 import com.baixiaosheng.inventory.utils.PermissionUtils;
-import com.baixiaosheng.inventory.viewmodel.CategoryManageViewModel;
 import com.baixiaosheng.inventory.viewmodel.InputViewModel;
-import com.baixiaosheng.inventory.viewmodel.LocationManageViewModel;
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -61,16 +63,18 @@ public class InputFragment extends Fragment {
 
     // 图片相关
     private File mPhotoFile;
-    private final List<String> mImagePaths = new ArrayList<>();
+    // 后台处理中的图片数量（仅主线程读写）
+    private int mPendingIngests;
+    private final List<ItemImage> mImages = new ArrayList<>();
+    // 本表单新添加、在ImageStore中钉住的图片路径（仅主线程读写），引用保存或放弃后释放
+    private final List<String> mPinnedImagePaths = new ArrayList<>();
 
     // ViewModel
     private InputViewModel mInputViewModel;
-    private CategoryManageViewModel mCategoryViewModel;
-    private LocationManageViewModel mLocationViewModel;
 
-    // 缓存数据
-    private List<Category> mAllCategories = new ArrayList<>();
-    private List<Location> mAllLocations = new ArrayList<>();
+    // 分类/位置字典快照（进程级缓存，首次加载完成前为null）
+    private DictionaryCache.Categories mCategories;
+    private DictionaryCache.Locations mLocations;
     private long mCurrentParentCategoryId = 0; // 当前选中的父分类ID
 
     // 日期格式化
@@ -104,15 +108,11 @@ public class InputFragment extends Fragment {
         // 物品录入ViewModel
         mInputViewModel = new ViewModelProvider(this).get(InputViewModel.class);
 
-        // 分类管理ViewModel
-        mCategoryViewModel = new ViewModelProvider(requireActivity()).get(CategoryManageViewModel.class);
-
-        // 位置管理ViewModel
-        mLocationViewModel = new ViewModelProvider(requireActivity()).get(LocationManageViewModel.class);
-
         // 观察物品保存结果
         mInputViewModel.getSaveSuccess().observe(getViewLifecycleOwner(), success -> {
             if (success) {
+                // 图片引用已写入数据库
+                releasePinnedImages();
                 Toast.makeText(getContext(), isEditMode ? "修改保存成功" : "保存成功", Toast.LENGTH_SHORT).show();
                 if (isEditMode) {
                     requireActivity().setResult(Activity.RESULT_OK);
@@ -127,13 +127,14 @@ public class InputFragment extends Fragment {
     }
 
     /**
-     * 观察ViewModel数据（分类/位置），动态初始化Spinner
+     * 观察分类/位置字典，动态初始化Spinner（字典在表变更后自动重建并回调）
      */
     private void observeViewModelData() {
-        // 观察分类列表
-        mCategoryViewModel.getAllCategories().observe(getViewLifecycleOwner(), categories -> {
+        DictionaryCache dictionaryCache = DictionaryCache.getInstance(requireContext());
+        // 观察分类字典
+        dictionaryCache.getCategoriesLive().observe(getViewLifecycleOwner(), categories -> {
             if (categories != null) {
-                mAllCategories = new ArrayList<>(categories);
+                mCategories = categories;
                 // 初始化父分类Spinner
                 initParentCategorySpinner();
 
@@ -144,10 +145,10 @@ public class InputFragment extends Fragment {
             }
         });
 
-        // 观察位置列表
-        mLocationViewModel.getLocationList().observe(getViewLifecycleOwner(), locations -> {
+        // 观察位置字典
+        dictionaryCache.getLocationsLive().observe(getViewLifecycleOwner(), locations -> {
             if (locations != null) {
-                mAllLocations = new ArrayList<>(locations);
+                mLocations = locations;
                 // 初始化位置Spinner
                 initLocationSpinner();
 
@@ -168,10 +169,8 @@ public class InputFragment extends Fragment {
         parentCatNames.add("未分类");
 
         // 添加数据库中的父分类（parentId=0的分类）
-        for (Category category : mAllCategories) {
-            if (category.getParentCategoryId() == 0) {
-                parentCatNames.add(category.getCategoryName());
-            }
+        for (Category category : mCategories.getTopLevel()) {
+            parentCatNames.add(category.getCategoryName());
         }
 
         ArrayAdapter<String> parentAdapter = new ArrayAdapter<>(requireContext(),
@@ -202,8 +201,8 @@ public class InputFragment extends Fragment {
         childCatNames.add("无");
 
         // 添加指定父分类下的子分类
-        for (Category category : mAllCategories) {
-            if (category.getParentCategoryId() == parentCategoryId && parentCategoryId != 0) {
+        if (parentCategoryId != 0 && mCategories != null) {
+            for (Category category : mCategories.getChildren(parentCategoryId)) {
                 childCatNames.add(category.getCategoryName());
             }
         }
@@ -228,7 +227,7 @@ public class InputFragment extends Fragment {
         locationNames.add("未指定");
 
         // 添加数据库中的位置
-        for (Location location : mAllLocations) {
+        for (Location location : mLocations.getAll()) {
             locationNames.add(location.getName());
         }
 
@@ -277,7 +276,7 @@ public class InputFragment extends Fragment {
     }
 
     /**
-     * 重构：根据分类名称和是否为父分类获取ID（适配动态数据）
+     * 重构：根据分类名称和是否为父分类获取ID（查分类字典）
      * @param name 分类名称
      * @param isParent 是否为父分类
      * @return 分类ID
@@ -288,22 +287,15 @@ public class InputFragment extends Fragment {
             return 0;
         }
 
-        // 从缓存列表中匹配
-        for (Category category : mAllCategories) {
-            if (category.getCategoryName().equals(name)) {
-                // 父分类需满足parentId=0，子分类需满足parentId=当前选中的父分类ID
-                if (isParent && category.getParentCategoryId() == 0) {
-                    return category.getId();
-                } else if (!isParent && category.getParentCategoryId() == mCurrentParentCategoryId) {
-                    return category.getId();
-                }
-            }
+        if (mCategories == null) {
+            return 0;
         }
-        return 0;
+        // 父分类需满足parentId=0，子分类需满足parentId=当前选中的父分类ID
+        return mCategories.getId(isParent ? 0 : mCurrentParentCategoryId, name);
     }
 
     /**
-     * 重构：根据分类ID获取名称（适配动态数据）
+     * 重构：根据分类ID获取名称（查分类字典）
      */
     private String getCategoryNameById(long id) {
         // 默认值处理
@@ -311,17 +303,12 @@ public class InputFragment extends Fragment {
             return "未分类";
         }
 
-        // 从缓存列表中匹配
-        for (Category category : mAllCategories) {
-            if (category.getId() == id) {
-                return category.getCategoryName();
-            }
-        }
-        return "未分类";
+        String name = mCategories == null ? null : mCategories.getName(id);
+        return name == null ? "未分类" : name;
     }
 
     /**
-     * 重构：根据位置名称获取ID（适配动态数据）
+     * 重构：根据位置名称获取ID（查位置字典）
      */
     private long getLocationIdByName(String name) {
         // 默认值处理
@@ -329,17 +316,11 @@ public class InputFragment extends Fragment {
             return 0;
         }
 
-        // 从缓存列表中匹配
-        for (Location location : mAllLocations) {
-            if (location.getName().equals(name)) {
-                return location.getId();
-            }
-        }
-        return 0;
+        return mLocations == null ? 0 : mLocations.getId(name);
     }
 
     /**
-     * 重构：根据位置ID获取名称（适配动态数据）
+     * 重构：根据位置ID获取名称（查位置字典）
      */
     private String getLocationNameById(long id) {
         // 默认值处理
@@ -347,19 +328,19 @@ public class InputFragment extends Fragment {
             return "未指定";
         }
 
-        // 从缓存列表中匹配
-        for (Location location : mAllLocations) {
-            if (location.getId() == id) {
-                return location.getName();
-            }
-        }
-        return "未指定";
+        String name = mLocations == null ? null : mLocations.getName(id);
+        return name == null ? "未指定" : name;
     }
 
     /**
      * 表单校验并保存（适配动态分类/位置ID）
      */
     private void validateAndSave() {
+        if (mPendingIngests > 0) {
+            Toast.makeText(getContext(), "图片处理中，请稍候", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
         // 1. 基础校验
         String name = etName.getText().toString().trim();
         if (name.isEmpty()) {
@@ -436,15 +417,8 @@ public class InputFragment extends Fragment {
             item.setUpdateTime(System.currentTimeMillis());
         }
 
-        // 6. 拼接图片路径
-        StringBuilder imagePaths = new StringBuilder();
-        for (int i = 0; i < mImagePaths.size(); i++) {
-            imagePaths.append(mImagePaths.get(i));
-            if (i < mImagePaths.size() - 1) {
-                imagePaths.append(",");
-            }
-        }
-        item.setImagePaths(imagePaths.toString());
+        // 6. 图片列表（按添加顺序，保存时写入item_image表）
+        item.setImages(new ArrayList<>(mImages));
 
         // 7. 保存/更新数据
         if (isEditMode) {
@@ -483,7 +457,7 @@ public class InputFragment extends Fragment {
      * 表单数据回填（适配动态数据，等待数据加载完成后执行）
      */
     private void fillFormData() {
-        if (mEditItem == null || isFormFilled || mAllCategories.isEmpty() || mAllLocations.isEmpty()) {
+        if (mEditItem == null || isFormFilled || mCategories == null || mLocations == null) {
             return;
         }
 
@@ -498,19 +472,16 @@ public class InputFragment extends Fragment {
         }
 
         // 3. 图片预览区回填
-        if (mEditItem.getImagePaths() != null && !mEditItem.getImagePaths().isEmpty()) {
-            mImagePaths.clear();
+        if (mEditItem.getImages() != null && !mEditItem.getImages().isEmpty()) {
+            mImages.clear();
             int childCount = llImagePreview.getChildCount();
             for (int i = childCount - 1; i > 0; i--) {
                 llImagePreview.removeViewAt(i);
             }
 
-            String[] paths = mEditItem.getImagePaths().split(",");
-            for (String path : paths) {
-                if (!path.isEmpty()) {
-                    mImagePaths.add(path);
-                    previewImage(path);
-                }
+            for (ItemImage image : mEditItem.getImages()) {
+                mImages.add(image);
+                previewImage(image);
             }
         }
 
@@ -624,7 +595,8 @@ public class InputFragment extends Fragment {
         spParentCategory.setSelection(0);
         spChildCategory.setSelection(0);
         spLocation.setSelection(0);
-        mImagePaths.clear();
+        mImages.clear();
+        releasePinnedImages();
         llImagePreview.removeAllViews();
         initAddImageButton();
         if (isEditMode) {
@@ -635,32 +607,40 @@ public class InputFragment extends Fragment {
         }
     }
 
-    private void previewImage(String filePath) {
-        try {
-            Bitmap bitmap = ImageUtils.decodeImage(filePath);
-            if (bitmap == null) {
-                Toast.makeText(getContext(), "图片解码失败", Toast.LENGTH_SHORT).show();
-                return;
-            }
+    // 释放本表单钉住的图片：已保存的由引用保护，放弃的交给之后的回收
+    private void releasePinnedImages() {
+        mInputViewModel.releaseImages(mPinnedImagePaths);
+        mPinnedImagePaths.clear();
+    }
 
+    private void previewImage(ItemImage image) {
+        try {
             ImageView ivPreview = new ImageView(requireContext());
             LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
                     dp2px(100), dp2px(100));
             params.setMargins(dp2px(5), dp2px(5), dp2px(5), dp2px(5));
             ivPreview.setLayoutParams(params);
-            ivPreview.setImageBitmap(bitmap);
             ivPreview.setScaleType(ImageView.ScaleType.CENTER_CROP);
 
+            // 图片由ImageLoader缓存复用，移除时交还ImageLoader，不直接回收Bitmap
             ivPreview.setOnLongClickListener(v -> {
-                mImagePaths.remove(filePath);
-                llImagePreview.removeView(ivPreview);
-                if (!bitmap.isRecycled()) {
-                    bitmap.recycle();
+                mImages.remove(image);
+                if (mPinnedImagePaths.remove(image.getPath())) {
+                    mInputViewModel.releaseImages(Collections.singletonList(image.getPath()));
                 }
+                ImageLoader.getInstance(requireContext()).clear(ivPreview);
+                llImagePreview.removeView(ivPreview);
                 return true;
             });
 
             llImagePreview.addView(ivPreview);
+            // 后台解码，失败时移除预览并提示
+            ImageLoader.getInstance(requireContext()).load(image.getPath(), ivPreview, dp2px(100), success -> {
+                if (!success && isAdded()) {
+                    llImagePreview.removeView(ivPreview);
+                    Toast.makeText(getContext(), "图片解码失败", Toast.LENGTH_SHORT).show();
+                }
+            });
         } catch (Exception e) {
             Log.e("InputFragment", "预览图片失败：" + e.getMessage());
             Toast.makeText(getContext(), "预览图片失败", Toast.LENGTH_SHORT).show();
@@ -679,28 +659,48 @@ public class InputFragment extends Fragment {
             return;
         }
 
+        // 图片在后台规范化（旋转、限制尺寸、重新编码并生成缩略图）后再加入列表
         if (requestCode == REQUEST_TAKE_PHOTO) {
             if (mPhotoFile != null && mPhotoFile.exists()) {
-                String path = mPhotoFile.getAbsolutePath();
-                mImagePaths.add(path);
-                previewImage(path);
+                mPendingIngests++;
+                ImageIngestor.getInstance(requireContext()).ingest(mPhotoFile, this::onImageIngested);
             } else {
                 Toast.makeText(getContext(), "拍照文件丢失", Toast.LENGTH_SHORT).show();
             }
         } else if (requestCode == REQUEST_CHOOSE_PHOTO) {
             if (data != null && data.getData() != null) {
                 Uri uri = data.getData();
-                String path = ImageUtils.getPathFromUri(requireContext(), uri);
-                if (path != null) {
-                    mImagePaths.add(path);
-                    previewImage(path);
-                } else {
-                    Toast.makeText(getContext(), "获取图片路径失败", Toast.LENGTH_SHORT).show();
-                }
+                mPendingIngests++;
+                ImageIngestor.getInstance(requireContext()).ingest(uri, this::onImageIngested);
             }
         }
     }
 
+    // 主线程：图片处理完成
+    private void onImageIngested(ImageIngestor.Result result) {
+        mPendingIngests--;
+        if (!isAdded() || getView() == null) {
+            if (result != null) {
+                // 表单已关闭，图片不会被保存
+                mInputViewModel.releaseImages(Collections.singletonList(result.path));
+            }
+            return;
+        }
+        if (result != null) {
+            mPinnedImagePaths.add(result.path);
+            // 元数据在后台处理时已得到，保存时无需再读取文件
+            ItemImage image = new ItemImage(result.path);
+            image.setWidth(result.width);
+            image.setHeight(result.height);
+            image.setByteSize(result.byteSize);
+            image.setThumbPath(result.thumbnailPath);
+            mImages.add(image);
+            previewImage(image);
+        } else {
+            Toast.makeText(getContext(), "图片处理失败", Toast.LENGTH_SHORT).show();
+        }
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
@@ -756,16 +756,14 @@ public class InputFragment extends Fragment {
     }
 
     @Override
-    public void onResume() {
-        super.onResume();
-        // 页面恢复可见时，主动刷新分类和位置数据
-        if (mCategoryViewModel != null) {
-            mCategoryViewModel.loadAllCategories(); // 触发分类数据刷新
-        }
-        if (mLocationViewModel != null) {
-            mLocationViewModel.loadAllLocations(); // 触发位置数据刷新
+    public void onDestroy() {
+        super.onDestroy();
+        // 表单关闭：未保存的新图片不再钉住（排在已提交的保存之后执行）
+        if (mInputViewModel != null) {
+            releasePinnedImages();
         }
     }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
@@ -773,7 +771,7 @@ public class InputFragment extends Fragment {
             View child = llImagePreview.getChildAt(i);
             if (child instanceof ImageView) {
                 ImageView iv = (ImageView) child;
-                iv.setImageBitmap(null);
+                ImageLoader.getInstance(requireContext()).clear(iv);
             }
         }
     }
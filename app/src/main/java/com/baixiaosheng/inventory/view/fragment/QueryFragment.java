@@ -29,12 +29,15 @@ import com.baixiaosheng.inventory.database.entity.ItemWithName;
 import com.baixiaosheng.inventory.utils.DateUtils;
 import com.baixiaosheng.inventory.view.adapter.QueryAdapter;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.model.FacetOption;
 import com.baixiaosheng.inventory.model.FilterCondition;
+import com.baixiaosheng.inventory.model.ItemRow;
 import com.baixiaosheng.inventory.viewmodel.QueryViewModel;
 import com.baixiaosheng.inventory.view.activity.ItemDetailActivity;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -52,6 +55,8 @@ public class QueryFragment extends Fragment {
     private RecyclerView rvInventoryList;
     // 适配器
     private QueryAdapter adapter;
+    // 筛选Spinner适配器（每个Spinner一个，选项变化时原地更新）
+    private ArrayAdapter<FacetOption> parentCategoryAdapter, childCategoryAdapter, locationAdapter;
     // ViewModel
     private QueryViewModel queryViewModel;
     // 筛选条件
@@ -63,12 +68,7 @@ public class QueryFragment extends Fragment {
     public void onResume() {
         super.onResume();
         if (queryViewModel != null) {
-            // 第一步：刷新全量分类/位置缓存（确保和数据库最新数据同步）
-            queryViewModel.refreshAllCategoryAndLocation();
-            // 第二步：刷新UI展示的父分类和位置Spinner
-            queryViewModel.loadParentCategories();
-            queryViewModel.loadLocations();
-            // 第三步：刷新物品列表（基于最新筛选条件）
+            // 分类/位置Spinner由字典缓存在表变更时自动刷新，这里只刷新物品列表（基于最新筛选条件）
             refreshItemList();
         }
     }
@@ -115,11 +115,29 @@ public class QueryFragment extends Fragment {
         adapter = new QueryAdapter(getContext());
         rvInventoryList.setAdapter(adapter);
 
+        parentCategoryAdapter = createFacetAdapter(spParentCategory);
+        childCategoryAdapter = createFacetAdapter(spChildCategory);
+        locationAdapter = createFacetAdapter(spLocation);
+
         // 修正：接收Item类型参数，而非ItemWithName
         adapter.setOnItemClickListener(item -> {
             navigateToItemDetail(item);
         });
 
+        // 滚动接近已加载末尾时加载下一页
+        rvInventoryList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) {
+                    return;
+                }
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager != null) {
+                    queryViewModel.onListScrolled(layoutManager.findLastVisibleItemPosition(), adapter.getItemCount());
+                }
+            }
+        });
+
         adapter.setOnMultiSelectChangeListener(new QueryAdapter.OnMultiSelectChangeListener() {
             @Override
             public void onSelectModeChanged(boolean isMultiSelect) {
@@ -143,64 +161,69 @@ public class QueryFragment extends Fragment {
 
     // 绑定ViewModel数据
     private void bindViewModel() {
-        // 观察父分类列表
-        queryViewModel.getParentCategoryList().observe(getViewLifecycleOwner(), categories -> {
-            // 1. 拼接「全部」选项作为第一个item
-            List<String> categoryListWithAll = new ArrayList<>();
-            categoryListWithAll.add("全部");
-            if (categories != null) {
-                categoryListWithAll.addAll(categories);
-            }
-            // 2. 初始化Spinner适配器
-            ArrayAdapter<String> adapter = new ArrayAdapter<>(getContext(),
-                    android.R.layout.simple_spinner_item, categoryListWithAll);
-            adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-            spParentCategory.setAdapter(adapter);
-        });
-
-        // 观察子分类列表
-        queryViewModel.getChildCategoryList().observe(getViewLifecycleOwner(), categories -> {
-            // 1. 拼接「全部」选项作为第一个item
-            List<String> childCategoryListWithAll = new ArrayList<>();
-            childCategoryListWithAll.add("全部");
-            if (categories != null) {
-                childCategoryListWithAll.addAll(categories);
-            }
-            // 2. 初始化Spinner适配器
-            ArrayAdapter<String> adapter = new ArrayAdapter<>(getContext(),
-                    android.R.layout.simple_spinner_item, childCategoryListWithAll);
-            adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-            spChildCategory.setAdapter(adapter);
-        });
-
-        // 观察位置列表
-        queryViewModel.getLocationList().observe(getViewLifecycleOwner(), locations -> {
-            // 1. 拼接「全部」选项作为第一个item
-            List<String> locationListWithAll = new ArrayList<>();
-            locationListWithAll.add("全部");
-            if (locations != null) {
-                locationListWithAll.addAll(locations);
-            }
-            // 2. 初始化Spinner适配器
-            ArrayAdapter<String> adapter = new ArrayAdapter<>(getContext(),
-                    android.R.layout.simple_spinner_item, locationListWithAll);
-            adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-            spLocation.setAdapter(adapter);
-        });
+        // 观察父分类/子分类/位置选项（带筛选项计数，选中后无结果的选项已隐藏）
+        queryViewModel.getParentCategoryList().observe(getViewLifecycleOwner(), categories ->
+                bindFacetSpinner(spParentCategory, parentCategoryAdapter, categories, filterCondition.getParentCategory()));
+        queryViewModel.getChildCategoryList().observe(getViewLifecycleOwner(), categories ->
+                bindFacetSpinner(spChildCategory, childCategoryAdapter, categories, filterCondition.getChildCategory()));
+        queryViewModel.getLocationList().observe(getViewLifecycleOwner(), locations ->
+                bindFacetSpinner(spLocation, locationAdapter, locations, filterCondition.getLocation()));
 
         // 原有物品列表观察逻辑不变
-        queryViewModel.getItemList().observe(getViewLifecycleOwner(), items -> {
-            if (items == null || items.isEmpty()) {
+        queryViewModel.getItemList().observe(getViewLifecycleOwner(), update -> {
+            List<ItemRow> items = update.getRows();
+            if (items.isEmpty()) {
                 rvInventoryList.setVisibility(View.GONE);
                 tvEmptyTip.setVisibility(View.VISIBLE);
             } else {
                 rvInventoryList.setVisibility(View.VISIBLE);
                 tvEmptyTip.setVisibility(View.GONE);
-                adapter.setItemList(items);
+                adapter.setItemList(items, update.isRefresh());
             }
         });
     }
 
+    /**
+     * 创建筛选Spinner的适配器（选项文本为「名称 (数量)」），初始只有「全部」
+     */
+    private ArrayAdapter<FacetOption> createFacetAdapter(Spinner spinner) {
+        ArrayAdapter<FacetOption> facetAdapter = new ArrayAdapter<>(getContext(),
+                android.R.layout.simple_spinner_item, new ArrayList<>());
+        facetAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        // 清空与填充完成后统一通知一次
+        facetAdapter.setNotifyOnChange(false);
+        facetAdapter.add(new FacetOption("全部", FacetOption.COUNT_UNKNOWN));
+        spinner.setAdapter(facetAdapter);
+        return facetAdapter;
+    }
+
+    /**
+     * 更新筛选Spinner：首项为「全部」，原地替换适配器数据并保持当前选中项
+     * 选中位置不变时不调用setSelection，避免每次查询后重复触发onItemSelected
+     */
+    private void bindFacetSpinner(Spinner spinner, ArrayAdapter<FacetOption> facetAdapter,
+                                  List<FacetOption> options, String selectedName) {
+        // 1. 拼接「全部」选项作为第一个item
+        List<FacetOption> optionsWithAll = new ArrayList<>();
+        optionsWithAll.add(new FacetOption("全部", FacetOption.COUNT_UNKNOWN));
+        int selectedPosition = 0;
+        if (options != null) {
+            for (FacetOption option : options) {
+                if (option.getName() != null && option.getName().equals(selectedName)) {
+                    selectedPosition = optionsWithAll.size();
+                }
+                optionsWithAll.add(option);
+            }
+        }
+        // 2. 原地更新适配器数据
+        facetAdapter.clear();
+        facetAdapter.addAll(optionsWithAll);
+        facetAdapter.notifyDataSetChanged();
+        if (spinner.getSelectedItemPosition() != selectedPosition) {
+            spinner.setSelection(selectedPosition);
+        }
+    }
+
     // 绑定事件
     private void bindEvents() {
         // 搜索框事件
@@ -232,7 +255,7 @@ public class QueryFragment extends Fragment {
         spParentCategory.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                String parentCategory = (String) parent.getItemAtPosition(position);
+                String parentCategory = ((FacetOption) parent.getItemAtPosition(position)).getName();
                 // 选中「全部」（position=0）时，清空父分类筛选条件
                 if (position == 0) {
                     filterCondition.setParentCategory(null); // 假设FilterCondition支持null表示不筛选
@@ -251,7 +274,7 @@ public class QueryFragment extends Fragment {
         spChildCategory.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                String childCategory = (String) parent.getItemAtPosition(position);
+                String childCategory = ((FacetOption) parent.getItemAtPosition(position)).getName();
                 // 选中「全部」（position=0）时，清空子分类筛选条件
                 if (position == 0) {
                     filterCondition.setChildCategory(null);
@@ -268,7 +291,7 @@ public class QueryFragment extends Fragment {
         spLocation.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                String location = (String) parent.getItemAtPosition(position);
+                String location = ((FacetOption) parent.getItemAtPosition(position)).getName();
                 // 选中「全部」（position=0）时，清空位置筛选条件
                 if (position == 0) {
                     filterCondition.setLocation(null);
@@ -348,12 +371,12 @@ public class QueryFragment extends Fragment {
 
         // 批量删除
         btnBatchDelete.setOnClickListener(v -> {
-            List<String> selectedUuids = adapter.getSelectedUuids();
+            Collection<ItemWithName> selectedItems = adapter.getSelectedItems();
             new AlertDialog.Builder(getContext())
                     .setTitle("批量删除")
-                    .setMessage("确定要将选中的" + selectedUuids.size() + "项物品移入回收站吗？")
+                    .setMessage("确定要将选中的" + selectedItems.size() + "项物品移入回收站吗？")
                     .setPositiveButton("确定", (dialog, which) -> {
-                        queryViewModel.batchDeleteItems(selectedUuids);
+                        queryViewModel.batchDeleteItems(selectedItems);
                         adapter.setMultiSelectMode(false);
                         Toast.makeText(getContext(), "批量删除成功", Toast.LENGTH_SHORT).show();
                     })
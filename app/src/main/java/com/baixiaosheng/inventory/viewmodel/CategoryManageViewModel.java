@@ -10,38 +10,29 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.baixiaosheng.inventory.R;
 import com.baixiaosheng.inventory.database.DatabaseManager;
+import com.baixiaosheng.inventory.database.DictionaryCache;
 import com.baixiaosheng.inventory.database.entity.Category;
 
-import java.util.List;
-
 public class CategoryManageViewModel extends AndroidViewModel {
 
     private DatabaseManager dbManager;
-    private MutableLiveData<List<Category>> parentCategories; // 仅存储父分类
+    private DictionaryCache dictionaryCache;
     private MutableLiveData<Boolean> operationResult;
-    private MutableLiveData<List<Category>> allCategories; //存储所有分类
 
 
     public CategoryManageViewModel(@NonNull Application application) {
         super(application);
         dbManager = DatabaseManager.getInstance(application);
-        parentCategories = new MutableLiveData<>();
-        allCategories = new MutableLiveData<>();
+        dictionaryCache = DictionaryCache.getInstance(application);
         operationResult = new MutableLiveData<>();
     }
 
     /**
-     * 获取所有父分类（parentId=0）
-     */
-    public LiveData<List<Category>> getParentCategories() {
-        return parentCategories;
-    }
-
-    /**
-     * 获取所有分类
+     * 获取分类树快照（父分类 → 按名称排序的子分类）
+     * 由字典缓存一次性加载全部分类后整体发布，分类表变更时自动发送新快照
      */
-    public LiveData<List<Category>> getAllCategories() {
-        return allCategories;
+    public LiveData<DictionaryCache.Categories> getCategoryTree() {
+        return dictionaryCache.getCategoriesLive();
     }
 
     /**
@@ -51,38 +42,6 @@ public class CategoryManageViewModel extends AndroidViewModel {
         return operationResult;
     }
 
-    /**
-     * 加载所有父分类
-     */
-    public void loadParentCategories() {
-        AsyncTask.execute(() -> {
-            List<Category> parents = dbManager.listTopLevelParentCategories();
-            parentCategories.postValue(parents);
-        });
-    }
-
-    /**
-     * 加载所有分类
-     */
-    public void loadAllCategories() {
-        AsyncTask.execute(() -> {
-            List<Category> categories = dbManager.listAllCategories();
-            allCategories.postValue(categories);
-        });
-    }
-
-    /**
-     * 根据父分类ID获取子分类
-     */
-    public LiveData<List<Category>> getChildCategories(long parentId) {
-        MutableLiveData<List<Category>> childCategories = new MutableLiveData<>();
-        AsyncTask.execute(() -> {
-            List<Category> list = dbManager.listChildCategoriesByParentId(parentId);
-            childCategories.postValue(list);
-        });
-        return childCategories;
-    }
-
     /**
      * 添加分类（支持父/子分类）
      */
@@ -4,8 +4,11 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
-import com.baixiaosheng.inventory.database.InventoryDatabase;
+import com.baixiaosheng.inventory.database.DatabaseManager;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.utils.ImageStore;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import android.util.Log;
@@ -14,30 +17,24 @@ import android.util.Log;
  * 录入页ViewModel（修复数据库操作线程和异常处理 + 支持物品更新）
  */
 public class InputViewModel extends AndroidViewModel {
-    private final InventoryDatabase mDb;
+    private final DatabaseManager mDbManager;
     private final ExecutorService mExecutor;
     private final MutableLiveData<Boolean> mSaveSuccess = new MutableLiveData<>();
 
     public InputViewModel(@NonNull Application application) {
         super(application);
-        mDb = InventoryDatabase.getInstance(application);
+        mDbManager = DatabaseManager.getInstance(application);
         mExecutor = Executors.newSingleThreadExecutor(); // 单线程池，避免并发问题
     }
 
     /**
-     * 保存物品（修复字段过长、类型不匹配问题）
+     * 保存物品（图片随item.images写入item_image表，数量不受限制）
      */
     public void saveItem(Item item) {
         mExecutor.execute(() -> {
             try {
-                // 检查图片路径长度（避免数据库字段溢出）
-                if (item.getImagePaths() != null && item.getImagePaths().length() > 500) {
-                    Log.e("InputViewModel", "图片路径过长，截断处理");
-                    item.setImagePaths(item.getImagePaths().substring(0, 500));
-                }
-
-                // 插入数据库
-                mDb.itemDao().insertItem(item);
+                // 插入数据库（经DatabaseManager同步维护名称检索索引及图片记录）
+                mDbManager.addItem(item);
                 mSaveSuccess.postValue(true);
             } catch (Exception e) {
                 Log.e("InputViewModel", "保存物品失败：" + e.getMessage());
@@ -52,14 +49,10 @@ public class InputViewModel extends AndroidViewModel {
     public void updateItem(Item item) {
         mExecutor.execute(() -> {
             try {
-                // 检查图片路径长度（避免数据库字段溢出）
-                if (item.getImagePaths() != null && item.getImagePaths().length() > 500) {
-                    Log.e("InputViewModel", "图片路径过长，截断处理");
-                    item.setImagePaths(item.getImagePaths().substring(0, 500));
-                }
-
-                // 更新数据库
-                mDb.itemDao().updateItem(item);
+                // 更新数据库（经DatabaseManager同步维护名称检索索引及图片记录）
+                mDbManager.updateItem(item);
+                // 移除的图片不再被引用，后台回收
+                ImageStore.getInstance(getApplication()).collectGarbage();
                 mSaveSuccess.postValue(true);
             } catch (Exception e) {
                 Log.e("InputViewModel", "更新物品失败：" + e.getMessage());
@@ -68,6 +61,19 @@ public class InputViewModel extends AndroidViewModel {
         });
     }
 
+    /**
+     * 释放表单新添加图片的钉住（保存成功、移除图片、清空或关闭表单时调用）
+     * 在保存所用的线程上执行：排在已提交的保存之后，引用写入前图片不会被回收
+     */
+    public void releaseImages(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        // 复制一份：调用方随后会清空自己的列表
+        ArrayList<String> pending = new ArrayList<>(paths);
+        mExecutor.execute(() -> ImageStore.getInstance(getApplication()).release(pending));
+    }
+
     public MutableLiveData<Boolean> getSaveSuccess() {
         return mSaveSuccess;
     }
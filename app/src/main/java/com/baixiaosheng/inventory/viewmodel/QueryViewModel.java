@@ -7,179 +7,189 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.InvalidationTracker;
 
 import com.baixiaosheng.inventory.database.DatabaseManager;
+import com.baixiaosheng.inventory.database.DictionaryCache;
+import com.baixiaosheng.inventory.database.ItemResultRefiner;
 import com.baixiaosheng.inventory.database.entity.Category;
 import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemDetail;
 import com.baixiaosheng.inventory.database.entity.ItemWithName;
 import com.baixiaosheng.inventory.database.entity.Location;
 import com.baixiaosheng.inventory.database.entity.Recycle;
+import com.baixiaosheng.inventory.model.FacetCounts;
+import com.baixiaosheng.inventory.model.FacetOption;
 import com.baixiaosheng.inventory.model.FilterCondition;
+import com.baixiaosheng.inventory.model.ItemListUpdate;
+import com.baixiaosheng.inventory.model.ItemRow;
+import com.baixiaosheng.inventory.utils.LatestQueryScheduler;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 查询页ViewModel：通过DatabaseManager访问数据，实现分层架构
  */
 public class QueryViewModel extends AndroidViewModel {
+    // 默认分页参数：每页条数、距列表末尾多少条时预加载下一页
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_PREFETCH_DISTANCE = 20;
+    // 默认搜索防抖时长（毫秒）：连续输入时只查询停顿后的最后一次
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
     // 数据库管理器
     private final DatabaseManager databaseManager;
-    // 线程池
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    // 单线程调度器：查询、分页、删除等操作串行执行
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    // 搜索调度：防抖 + 只取最新，itemList为唯一的结果源
+    private final LatestQueryScheduler<FilterCondition> queryScheduler =
+            new LatestQueryScheduler<>(executor, DEFAULT_DEBOUNCE_MILLIS, this::loadFirstPage);
     // 数据LiveData
-    private final MutableLiveData<List<ItemWithName>> itemList = new MutableLiveData<>();
-    private final MutableLiveData<List<String>> parentCategoryList = new MutableLiveData<>();
-    private final MutableLiveData<List<String>> childCategoryList = new MutableLiveData<>();
-    private final MutableLiveData<List<String>> locationList = new MutableLiveData<>();
+    private final MutableLiveData<ItemListUpdate> itemList = new MutableLiveData<>();
+    // 列表行模型生成器（仅在executor线程使用）
+    private final ItemRow.Factory rowFactory = new ItemRow.Factory();
+    private final MutableLiveData<List<FacetOption>> parentCategoryList = new MutableLiveData<>();
+    private final MutableLiveData<List<FacetOption>> childCategoryList = new MutableLiveData<>();
+    private final MutableLiveData<List<FacetOption>> locationList = new MutableLiveData<>();
+    private final MutableLiveData<FacetCounts> facetCountsLive = new MutableLiveData<>();
     private final MutableLiveData<Item> currentItemLiveData = new MutableLiveData<>();
 
 
     // 筛选条件
     private final FilterCondition currentFilter = new FilterCondition();
-    // 缓存全量分类和位置数据
-    private List<Category> allCategoriesCache;
-    private List<Location> allLocationsCache;
+    // 最近一次提交的筛选条件快照（不直接读取currentFilter）
+    private volatile FilterCondition submittedFilter = currentFilter.copy();
+    // 分类/位置字典（进程级缓存，表变更时自动重建）
+    private final DictionaryCache dictionaryCache;
+    private final Observer<DictionaryCache.Categories> categoriesObserver = categories -> loadParentCategories();
+    private final Observer<DictionaryCache.Locations> locationsObserver = locations -> loadLocations();
+    // 筛选项计数及其对应的筛选条件（首次查询完成前为null，此时不显示计数）
+    private volatile FacetCounts facetCounts;
+    private volatile FilterCondition facetFilter;
+    // 子分类列表当前对应的父分类（计数更新后按此重建子分类列表）
+    private volatile String childListParentCategory = "";
+
+    // 分页状态（loadedItems/pageFilter/pageCursor/hasMorePages仅在executor线程读写）
+    private volatile int pageSize = DEFAULT_PAGE_SIZE;
+    private volatile int prefetchDistance = DEFAULT_PREFETCH_DISTANCE;
+    private final List<ItemWithName> loadedItems = new ArrayList<>();
+    private FilterCondition pageFilter;
+    // 键集分页游标：最后一次从数据库读取的行（内存细化后loadedItems末尾不一定是该行）
+    private ItemWithName pageCursor;
+    private LatestQueryScheduler<FilterCondition>.Ticket pageTicket;
+    private boolean hasMorePages;
+    // 防止滚动时重复提交加载下一页的任务
+    private final AtomicBoolean nextPageRequested = new AtomicBoolean(false);
+    // 是否使用内存列式索引代替分页SQL查询
+    private volatile boolean columnIndexEnabled;
+    // 已加载结果是否过期（物品/分类/位置表有变更后不能再用于内存细化）
+    private final AtomicBoolean loadedItemsStale = new AtomicBoolean(true);
+    // 合并连续的变更通知，同一时刻最多排队一次窗口刷新
+    private final AtomicBoolean windowReloadRequested = new AtomicBoolean(false);
+    private final InvalidationTracker.Observer itemTablesObserver =
+            new InvalidationTracker.Observer("item", "category", "location") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    loadedItemsStale.set(true);
+                    // 物品/分类/位置变更后原位刷新已加载的窗口，不回到首页
+                    requestWindowReload();
+                }
+            };
 
     public QueryViewModel(@NonNull Application application) {
         super(application);
         databaseManager = DatabaseManager.getInstance(application);
-        // 初始化时仅调用一次，移除重复调用
-        initData();
-    }
-
-    // 初始化数据：统一管理首次加载逻辑，避免重复
-    private void initData() {
-        // 先加载全量缓存，再加载UI展示的分类/位置
-        loadAllCategories();
-        loadAllLocations();
-        loadParentCategories();
-        loadLocations();
-        queryItems(currentFilter);
-
+        dictionaryCache = DictionaryCache.getInstance(application);
+        // 字典首次加载完成及每次分类/位置变更后，自动刷新Spinner数据
+        dictionaryCache.getCategoriesLive().observeForever(categoriesObserver);
+        dictionaryCache.getLocationsLive().observeForever(locationsObserver);
+        databaseManager.addInvalidationObserver(itemTablesObserver);
+        queryScheduler.submitNow(submittedFilter.copy());
     }
 
     // ==================== 数据加载方法 ====================
 
     /**
-     * 重新加载全量分类（每次刷新时调用，更新缓存）
-     * 供外部onResume()触发刷新
-     */
-    public void reloadAllCategories() {
-        executor.execute(() -> {
-            allCategoriesCache = databaseManager.listAllCategories();
-            // 全量分类更新后，主动刷新父分类列表（联动UI）
-            loadParentCategoriesInternal();
-        });
-    }
-
-    /**
-     * 重新加载全量位置（每次刷新时调用，更新缓存）
-     * 供外部onResume()触发刷新
-     */
-    public void reloadAllLocations() {
-        executor.execute(() -> {
-            allLocationsCache = databaseManager.getAllLocations();
-            // 全量位置更新后，主动刷新位置列表（联动UI）
-            loadLocationsInternal();
-        });
-    }
-
-    private void loadAllCategories() {
-        executor.execute(() -> {
-            allCategoriesCache = databaseManager.listAllCategories();
-        });
-    }
-
-    private void loadAllLocations() {
-        executor.execute(() -> {
-            allLocationsCache = databaseManager.getAllLocations();
-        });
-    }
-    /**
-     * 对外暴露：加载父分类（供Fragment onResume调用）
-     * 触发重新查询数据库并更新LiveData
+     * 对外暴露：加载父分类（从字典快照读取，不查询数据库）
+     * 已有筛选项计数时附带计数，并隐藏选中后结果为空的选项（当前选中项除外）
      */
     public void loadParentCategories() {
-        executor.execute(this::loadParentCategoriesInternal);
-    }
-
-    // 父分类加载核心逻辑（抽离为内部方法，避免重复代码）
-    private void loadParentCategoriesInternal() {
-        List<Category> categories = databaseManager.listTopLevelParentCategories();
-        List<String> names = new ArrayList<>();
-        for (Category category : categories) {
-            names.add(category.getCategoryName());
+        FacetCounts counts = facetCounts;
+        String selected = facetFilter != null ? facetFilter.getParentCategory() : "";
+        List<FacetOption> options = new ArrayList<>();
+        for (Category category : dictionaryCache.getCategories().getTopLevel()) {
+            String name = category.getCategoryName();
+            addOption(options, name, counts != null ? counts.getParentCategoryCount(name) : FacetOption.COUNT_UNKNOWN, selected);
         }
-        // postValue确保线程安全，更新LiveData
-        parentCategoryList.postValue(names);
+        parentCategoryList.postValue(options);
     }
 
     /**
-     * 对外暴露：加载子分类（供Fragment 父分类选择时调用）
+     * 对外暴露：加载子分类（供Fragment 父分类选择时调用，从字典快照读取）
      */
     public void loadChildCategories(String parentCategory) {
-        executor.execute(() -> {
-            List<Category> childCategories;
-            if (parentCategory == null || parentCategory.isEmpty()) {
-                childCategories = databaseManager.listAllCategories();
-            } else {
-                long parentId = 0;
-                if (allCategoriesCache != null) {
-                    for (Category category : allCategoriesCache) {
-                        if (parentCategory.equals(category.getCategoryName())) {
-                            parentId = category.getId();
-                            break;
-                        }
-                    }
-                }
-                childCategories = databaseManager.listChildCategoriesByParentId(parentId);
-            }
-            List<String> names = new ArrayList<>();
-            names.add("全部");
-            for (Category category : childCategories) {
-                names.add(category.getCategoryName());
-            }
-            childCategoryList.postValue(names);
-        });
+        childListParentCategory = parentCategory == null ? "" : parentCategory;
+        DictionaryCache.Categories categories = dictionaryCache.getCategories();
+        List<Category> childCategories;
+        if (childListParentCategory.isEmpty()) {
+            childCategories = categories.getAll();
+        } else {
+            childCategories = categories.getChildren(categories.getId(0, childListParentCategory));
+        }
+        FacetCounts counts = facetCounts;
+        String selected = facetFilter != null ? facetFilter.getChildCategory() : "";
+        List<FacetOption> options = new ArrayList<>();
+        for (Category category : childCategories) {
+            String name = category.getCategoryName();
+            addOption(options, name, counts != null ? counts.getChildCategoryCount(name) : FacetOption.COUNT_UNKNOWN, selected);
+        }
+        childCategoryList.postValue(options);
     }
 
     /**
-     * 对外暴露：加载位置（供Fragment onResume调用）
-     * 触发重新查询数据库并更新LiveData
+     * 对外暴露：加载位置（从字典快照读取，不查询数据库）
      */
     public void loadLocations() {
-        executor.execute(this::loadLocationsInternal);
+        FacetCounts counts = facetCounts;
+        String selected = facetFilter != null ? facetFilter.getLocation() : "";
+        List<FacetOption> options = new ArrayList<>();
+        for (Location location : dictionaryCache.getLocations().getAll()) {
+            String name = location.getName();
+            addOption(options, name, counts != null ? counts.getLocationCount(name) : FacetOption.COUNT_UNKNOWN, selected);
+        }
+        locationList.postValue(options);
     }
 
-    // 位置加载核心逻辑（抽离为内部方法）
-    private void loadLocationsInternal() {
-        List<Location> locations = databaseManager.getAllLocations();
-        List<String> names = new ArrayList<>();
-        for (Location location : locations) {
-            names.add(location.getName());
+    private static void addOption(List<FacetOption> options, String name, int count, String selected) {
+        if (count == 0 && !selected.equals(name)) {
+            return;
         }
-        locationList.postValue(names);
+        options.add(new FacetOption(name, count));
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
+        dictionaryCache.getCategoriesLive().removeObserver(categoriesObserver);
+        dictionaryCache.getLocationsLive().removeObserver(locationsObserver);
+        databaseManager.removeInvalidationObserver(itemTablesObserver);
+        queryScheduler.cancel();
         executor.shutdown();
     }
 
-    // 新增：对外暴露刷新全量分类/位置的方法（供Fragment onResume调用）
-    public void refreshAllCategoryAndLocation() {
-        reloadAllCategories();
-        reloadAllLocations();
-    }
-
     // ==================== 查询方法 ====================
 
     /**
-     * 多条件查询物品（使用DatabaseManager）
+     * 多条件查询物品（使用DatabaseManager，键集分页：只加载首页，后续页随滚动按需加载）
+     * 经过防抖调度：短时间内多次调用只执行最后一次，被替换的查询结果不会发布
+     * 条件比上一次更窄且数据未变更时，直接在内存中过滤已加载结果，见ItemResultRefiner
      */
     public void queryItems(FilterCondition condition) {
         // 更新当前筛选条件
@@ -192,44 +202,170 @@ public class QueryViewModel extends AndroidViewModel {
         currentFilter.setExpireStart(condition.getExpireStart());
         currentFilter.setExpireEnd(condition.getExpireEnd());
 
-        // 直接查询ItemWithName
-        LiveData<List<ItemWithName>> result = databaseManager.queryItemsByFilter(condition);
+        submittedFilter = condition.copy();
+        queryScheduler.submit(submittedFilter.copy());
+    }
 
-        // 观察数据变化
-        result.observeForever(items -> {
-            itemList.postValue(items);
-            // 移除观察者避免内存泄漏
-            result.removeObserver(items1 -> itemList.postValue(items1));
-        });
+    /**
+     * 设置搜索防抖时长
+     * @param debounceMillis 防抖时长（毫秒），0表示不防抖
+     */
+    public void setDebounceMillis(long debounceMillis) {
+        queryScheduler.setDebounceMillis(debounceMillis);
     }
 
+    /**
+     * 启用/关闭内存列式索引（物品很多、频繁组合筛选时启用；首次查询时全量构建索引）
+     * 启用后条件放宽时由索引一次性得到完整结果，不再分页查询SQLite
+     */
+    public void setColumnIndexEnabled(boolean enabled) {
+        columnIndexEnabled = enabled;
+    }
+
+    // 新查询生效（在executor线程执行）
+    // 条件收窄：过滤已加载的前缀，游标不变，后续页从旧游标之后按新条件继续加载；
+    // 否则启用列式索引时由索引得到完整结果，未启用（或索引不支持该条件）时重置分页状态
+    private void loadFirstPage(FilterCondition filter, LatestQueryScheduler<FilterCondition>.Ticket ticket) {
+        boolean refinable = pageFilter != null
+                && !loadedItemsStale.get()
+                && ItemResultRefiner.isNarrowerOrEqual(pageFilter, filter);
+        if (refinable) {
+            List<ItemWithName> refined = ItemResultRefiner.refine(loadedItems, filter);
+            loadedItems.clear();
+            loadedItems.addAll(refined);
+        } else {
+            // 先清除过期标记再查询，查询期间的变更会重新标记
+            loadedItemsStale.set(false);
+            loadedItems.clear();
+            pageCursor = null;
+            hasMorePages = true;
+            List<ItemWithName> indexed = columnIndexEnabled ? databaseManager.queryItemsByColumnIndex(filter) : null;
+            if (indexed != null) {
+                loadedItems.addAll(indexed);
+                hasMorePages = false;
+            }
+        }
+        pageFilter = filter;
+        pageTicket = ticket;
+        if (hasMorePages && loadedItems.size() < pageSize) {
+            // 首屏不足一页时补齐
+            loadNextPageInternal(false);
+        } else if (ticket.isCurrent()) {
+            itemList.postValue(new ItemListUpdate(rowFactory.toRows(loadedItems), false));
+        }
+        updateFacetCounts(filter, ticket);
+    }
 
-    // ==================== 名称转ID辅助方法 ====================
+    private void requestWindowReload() {
+        if (windowReloadRequested.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                windowReloadRequested.set(false);
+                reloadLoadedWindow();
+            });
+        }
+    }
 
-    private Long getCategoryIdByName(String categoryName) {
-        if (categoryName == null || categoryName.isEmpty() || allCategoriesCache == null) {
-            return null;
+    // 数据变更后原位刷新（在executor线程执行）：按当前条件重查首行至分页游标的窗口，
+    // 已加载的页数与多选状态保留，窗口内的新增/删除/修改随之体现；游标之后的行仍随滚动加载
+    private void reloadLoadedWindow() {
+        LatestQueryScheduler<FilterCondition>.Ticket ticket = pageTicket;
+        // 首次查询未完成，或已有更新的查询待执行：由该查询加载
+        if (pageFilter == null || !ticket.isCurrent()) {
+            return;
         }
-        for (Category category : allCategoriesCache) {
-            if (categoryName.equals(category.getCategoryName())) {
-                return category.getId();
-            }
+        boolean hadMorePages = hasMorePages;
+        // 先清除过期标记再查询，查询期间的变更会重新标记并再次刷新
+        loadedItemsStale.set(false);
+        List<ItemWithName> window = columnIndexEnabled ? databaseManager.queryItemsByColumnIndex(pageFilter) : null;
+        boolean indexed = window != null;
+        if (!indexed) {
+            window = pageCursor != null
+                    ? databaseManager.queryItemsUpToByFilter(pageFilter, pageCursor)
+                    : new ArrayList<>();
+        }
+        if (!ticket.isCurrent()) {
+            return;
+        }
+        loadedItems.clear();
+        loadedItems.addAll(window);
+        hasMorePages = !indexed;
+        // 此前已加载到末尾时，游标之后可能有新增的行，顺带补齐；窗口不足一页时同样补齐
+        if (hasMorePages && (!hadMorePages || loadedItems.size() < pageSize)) {
+            loadNextPageInternal(true);
+        } else {
+            itemList.postValue(new ItemListUpdate(rowFactory.toRows(loadedItems), true));
         }
-        return null;
+        updateFacetCounts(pageFilter, ticket);
     }
 
-    private Long getLocationIdByName(String locationName) {
-        if (locationName == null || locationName.isEmpty() || allLocationsCache == null) {
-            return null;
+    // 计算当前条件下的筛选项计数，并刷新各Spinner选项（在executor线程执行）
+    private void updateFacetCounts(FilterCondition filter, LatestQueryScheduler<FilterCondition>.Ticket ticket) {
+        if (!ticket.isCurrent()) {
+            return;
         }
-        for (Location location : allLocationsCache) {
-            if (locationName.equals(location.getName())) {
-                return location.getId();
-            }
+        FacetCounts counts = columnIndexEnabled
+                ? databaseManager.countFacetsByColumnIndex(filter)
+                : databaseManager.queryFacetCounts(filter);
+        if (!ticket.isCurrent()) {
+            return;
+        }
+        facetFilter = filter;
+        facetCounts = counts;
+        facetCountsLive.postValue(counts);
+        loadParentCategories();
+        loadChildCategories(childListParentCategory);
+        loadLocations();
+    }
+
+    /**
+     * 设置分页参数
+     * @param pageSize 每页条数
+     * @param prefetchDistance 距已加载末尾不足该条数时预加载下一页
+     */
+    public void setPagingConfig(int pageSize, int prefetchDistance) {
+        this.pageSize = Math.max(1, pageSize);
+        this.prefetchDistance = Math.max(0, prefetchDistance);
+    }
+
+    /**
+     * 列表滚动回调（供Fragment调用），接近已加载末尾时加载下一页
+     * @param lastVisiblePosition 最后一个可见条目位置
+     * @param loadedCount 当前已展示的条目数
+     */
+    public void onListScrolled(int lastVisiblePosition, int loadedCount) {
+        if (loadedCount - 1 - lastVisiblePosition > prefetchDistance) {
+            return;
+        }
+        if (!nextPageRequested.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            nextPageRequested.set(false);
+            loadNextPageInternal(true);
+        });
+    }
+
+    // 从上一页最后一条之后继续加载一页（在executor线程执行）
+    // refresh：同一查询内的加载（滚动追加、窗口刷新后补齐），列表保留多选状态
+    private void loadNextPageInternal(boolean refresh) {
+        if (!hasMorePages || pageFilter == null) {
+            return;
+        }
+        int size = pageSize;
+        List<ItemWithName> page = databaseManager.queryItemsPageByFilter(pageFilter, pageCursor, size);
+        // 查询期间已有更新的查询提交：丢弃本次结果，由新查询重新加载
+        if (!pageTicket.isCurrent()) {
+            return;
+        }
+        if (!page.isEmpty()) {
+            pageCursor = page.get(page.size() - 1);
         }
-        return null;
+        loadedItems.addAll(page);
+        hasMorePages = page.size() == size;
+        itemList.postValue(new ItemListUpdate(rowFactory.toRows(loadedItems), refresh));
     }
 
+
     // ==================== 删除操作 ====================
 
     public void deleteItem(String uuid) {
@@ -237,6 +373,7 @@ public class QueryViewModel extends AndroidViewModel {
             Item item = databaseManager.getItemByUuid(uuid);
             if (item != null) {
                 databaseManager.markItemAsDeleted(item.getId());
+                loadedItemsStale.set(true);
 
                 Recycle recycle = new Recycle();
                 recycle.setItemId(item.getId());
@@ -246,16 +383,18 @@ public class QueryViewModel extends AndroidViewModel {
                 recycle.setDeleteReason("用户手动删除");
                 databaseManager.addRecycle(recycle);
             }
+            // 删除后立即原位刷新，不等待InvalidationTracker的异步通知
+            reloadLoadedWindow();
         });
-        queryItems(currentFilter);
     }
 
-    public void batchDeleteItems(List<String> uuidList) {
+    public void batchDeleteItems(Collection<ItemWithName> selectedItems) {
         executor.execute(() -> {
-            for (String uuid : uuidList) {
-                Item item = databaseManager.getItemByUuid(uuid);
+            for (ItemWithName selected : selectedItems) {
+                Item item = databaseManager.getItemByUuid(selected.item.getUuid());
                 if (item != null) {
                     databaseManager.markItemAsDeleted(item.getId());
+                    loadedItemsStale.set(true);
 
                     Recycle recycle = new Recycle();
                     recycle.setItemId(item.getId());
@@ -266,63 +405,44 @@ public class QueryViewModel extends AndroidViewModel {
                     databaseManager.addRecycle(recycle);
                 }
             }
+            reloadLoadedWindow();
         });
-        queryItems(currentFilter);
     }
 
 
 
     // ==================== LiveData Getter ====================
 
-    // 修改返回类型
-    public LiveData<List<ItemWithName>> getItemList() {
+    /**
+     * 列表数据（行模型 + 是否为原位刷新，见ItemListUpdate）
+     */
+    public LiveData<ItemListUpdate> getItemList() {
         return itemList;
     }
-    public LiveData<List<String>> getParentCategoryList() {
+    public LiveData<List<FacetOption>> getParentCategoryList() {
         return parentCategoryList;
     }
 
-    public LiveData<List<String>> getChildCategoryList() {
+    public LiveData<List<FacetOption>> getChildCategoryList() {
         return childCategoryList;
     }
 
-    public LiveData<List<String>> getLocationList() {
+    public LiveData<List<FacetOption>> getLocationList() {
         return locationList;
     }
 
-    // 替换原错误的 getItemByIdNotDeletedLiveData 方法
-    public LiveData<Item> getItemByIdNotDeletedLiveData(long itemId) {
-        // 创建 MutableLiveData 用于包装查询结果
-        MutableLiveData<Item> itemLiveData = new MutableLiveData<>();
-
-        // 在线程池中执行同步查询，避免阻塞主线程
-        executor.execute(() -> {
-            Item item = databaseManager.getItemByIdNotDeleted(itemId);
-            // 把查询结果post到主线程（postValue 自动切换到主线程）
-            itemLiveData.postValue(item);
-        });
-
-        // 返回包装后的 LiveData
-        return itemLiveData;
-    }
-
-    // 同理，补充分类/位置的 LiveData 查询方法（适配原Activity中的调用）
-    public LiveData<Category> getCategoryByIdLiveData(long categoryId) {
-        MutableLiveData<Category> categoryLiveData = new MutableLiveData<>();
-        executor.execute(() -> {
-            Category category = databaseManager.getCategoryById(categoryId);
-            categoryLiveData.postValue(category);
-        });
-        return categoryLiveData;
+    /**
+     * 当前筛选条件下的筛选项计数（每次查询完成后更新）
+     */
+    public LiveData<FacetCounts> getFacetCounts() {
+        return facetCountsLive;
     }
 
-    public LiveData<Location> getLocationByIdLiveData(long locationId) {
-        MutableLiveData<Location> locationLiveData = new MutableLiveData<>();
-        executor.execute(() -> {
-            Location location = databaseManager.getLocationById(locationId);
-            locationLiveData.postValue(location);
-        });
-        return locationLiveData;
+    /**
+     * 获取物品详情（物品+分类/位置名称，单条关联查询，数据变更时自动刷新）
+     */
+    public LiveData<ItemDetail> getItemDetailLive(long itemId) {
+        return databaseManager.getItemDetailLive(itemId);
     }
 
 
@@ -381,6 +501,7 @@ public class QueryViewModel extends AndroidViewModel {
 
             // 2. 标记物品为删除（isDeleted=1）
             databaseManager.markItemAsDeleted(itemId);
+            loadedItemsStale.set(true);
 
             // 3. 生成回收站记录（统一时间戳）
             long deleteTime = System.currentTimeMillis();
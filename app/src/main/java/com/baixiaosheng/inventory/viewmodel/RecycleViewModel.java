@@ -9,13 +9,16 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.baixiaosheng.inventory.database.DatabaseManager;
-import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
 import com.baixiaosheng.inventory.database.entity.Recycle;
+import com.baixiaosheng.inventory.utils.ImageStore;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 回收站页面ViewModel
@@ -23,9 +26,25 @@ import java.util.concurrent.Executors;
  */
 public class RecycleViewModel extends AndroidViewModel {
     private static final String TAG = "RecycleViewModel";
+    // 默认分页参数：每页条数、距列表末尾多少条时预加载下一页
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    public static final int DEFAULT_PREFETCH_DISTANCE = 10;
+
     private final DatabaseManager databaseManager;
-    private LiveData<List<Item>> recycleItems;
+    private final ImageStore imageStore;
+    private final MutableLiveData<List<ItemWithName>> recycleItems = new MutableLiveData<>();
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    // 名称关键词（null表示查询全部）
+    private volatile String keyword;
+    // 分页状态（loadedItems/pageCursor/hasMorePages仅在executor线程读写）
+    private volatile int pageSize = DEFAULT_PAGE_SIZE;
+    private volatile int prefetchDistance = DEFAULT_PREFETCH_DISTANCE;
+    private final List<ItemWithName> loadedItems = new ArrayList<>();
+    // 键集分页游标：最后一次从数据库读取的行（刷新后该行可能已不在回收站，仍作为位置使用）
+    private ItemWithName pageCursor;
+    private boolean hasMorePages = true;
+    // 防止滚动时重复提交加载下一页的任务
+    private final AtomicBoolean nextPageRequested = new AtomicBoolean(false);
     // 用于通知UI操作结果
     private final MutableLiveData<Boolean> restoreSuccess = new MutableLiveData<>();
     private final MutableLiveData<Boolean> deleteSuccess = new MutableLiveData<>();
@@ -33,30 +52,100 @@ public class RecycleViewModel extends AndroidViewModel {
     public RecycleViewModel(@NonNull Application application) {
         super(application);
         databaseManager = DatabaseManager.getInstance(application.getApplicationContext());
-        // 初始化回收站物品数据（默认查询全部，无关键词）
-        loadRecycleItems(null);
+        imageStore = ImageStore.getInstance(application);
+    }
+
+    /**
+     * 设置分页参数
+     * @param pageSize 每页条数
+     * @param prefetchDistance 距已加载末尾不足该条数时预加载下一页
+     */
+    public void setPagingConfig(int pageSize, int prefetchDistance) {
+        this.pageSize = Math.max(1, pageSize);
+        this.prefetchDistance = Math.max(0, prefetchDistance);
     }
 
     /**
-     * 加载回收站物品数据
-     * @param keyword 搜索关键词（可为null，查询全部）
+     * 按关键词重新加载回收站物品（从首页开始）
+     * @param keyword 名称关键词（可为null，查询全部）
      */
     public void loadRecycleItems(String keyword) {
-        // 分页参数：默认第一页，每页20条（可根据需求调整）
-        int pageNum = 1;
-        int pageSize = 20;
-        recycleItems = databaseManager.getRecycleItems(keyword, pageNum, pageSize);
+        this.keyword = keyword;
+        executor.execute(() -> {
+            loadedItems.clear();
+            pageCursor = null;
+            hasMorePages = true;
+            loadNextPageInternal();
+        });
+    }
+
+    /**
+     * 重新加载回收站物品（数据变化时调用）
+     * 按原游标重查已加载的窗口，滚动深度不变；窗口内的恢复/删除/新移入随之体现
+     */
+    public void refreshRecycleItems() {
+        executor.execute(() -> {
+            if (pageCursor == null) {
+                // 尚未加载到任何行：从首页开始
+                loadedItems.clear();
+                hasMorePages = true;
+                loadNextPageInternal();
+                return;
+            }
+            List<ItemWithName> window = databaseManager.getRecycleItemsUpTo(keyword, pageCursor);
+            loadedItems.clear();
+            loadedItems.addAll(window);
+            if (hasMorePages && loadedItems.size() < pageSize) {
+                // 窗口内的行被恢复/删除后不足一页时补齐
+                loadNextPageInternal();
+            } else {
+                recycleItems.postValue(new ArrayList<>(loadedItems));
+            }
+        });
     }
 
     /**
-     * 获取回收站物品列表的LiveData
+     * 列表滚动回调（供Activity调用），接近已加载末尾时加载下一页
+     * @param lastVisiblePosition 最后一个可见条目位置
+     * @param loadedCount 当前已展示的条目数
      */
-    public LiveData<List<Item>> getRecycleItems() {
+    public void onListScrolled(int lastVisiblePosition, int loadedCount) {
+        if (loadedCount - 1 - lastVisiblePosition > prefetchDistance) {
+            return;
+        }
+        if (!nextPageRequested.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            nextPageRequested.set(false);
+            loadNextPageInternal();
+        });
+    }
+
+    // 从游标之后继续加载一页（在executor线程执行）
+    private void loadNextPageInternal() {
+        if (!hasMorePages) {
+            return;
+        }
+        int size = pageSize;
+        List<ItemWithName> page = databaseManager.getRecycleItemsPage(keyword, pageCursor, size);
+        if (!page.isEmpty()) {
+            pageCursor = page.get(page.size() - 1);
+        }
+        loadedItems.addAll(page);
+        hasMorePages = page.size() == size;
+        recycleItems.postValue(new ArrayList<>(loadedItems));
+    }
+
+    /**
+     * 获取回收站物品列表的LiveData（已加载的分页数据，含分类/位置名称）
+     */
+    public LiveData<List<ItemWithName>> getRecycleItems() {
         return recycleItems;
     }
 
     /**
-     * 获取回收站物品总数（用于辅助判断是否为空）
+     * 获取回收站物品总数（用于辅助判断是否为空；item表变化时会重新发送，可作为刷新信号）
      */
     public LiveData<Integer> getRecycleItemsCount(String keyword) {
         return databaseManager.getRecycleItemsCount(keyword);
@@ -97,6 +186,8 @@ public class RecycleViewModel extends AndroidViewModel {
                     databaseManager.deleteRecycleItemById(recycle.getId());
                 }
                 int result = databaseManager.deleteItemById(itemId);
+                // 物品的图片引用已随删除释放，后台回收不再被引用的图片
+                imageStore.collectGarbage();
                 deleteSuccess.postValue(result > 0);
             } catch (Exception e) {
                 Log.e(TAG, "彻底删除单个物品失败：", e);
@@ -109,7 +200,7 @@ public class RecycleViewModel extends AndroidViewModel {
      * 批量恢复回收站物品
      * @param selectedItemWithNameList 选中的物品列表（ItemWithName）
      */
-    public void batchRestoreItems(List<com.baixiaosheng.inventory.database.entity.ItemWithName> selectedItemWithNameList) {
+    public void batchRestoreItems(Collection<com.baixiaosheng.inventory.database.entity.ItemWithName> selectedItemWithNameList) {
         executor.execute(() -> {
             try {
                 List<Long> recycleIds = new ArrayList<>();
@@ -135,7 +226,7 @@ public class RecycleViewModel extends AndroidViewModel {
      * 批量彻底删除物品
      * @param selectedItemWithNameList 选中的物品列表（ItemWithName）
      */
-    public void batchDeleteItems(List<com.baixiaosheng.inventory.database.entity.ItemWithName> selectedItemWithNameList) {
+    public void batchDeleteItems(Collection<com.baixiaosheng.inventory.database.entity.ItemWithName> selectedItemWithNameList) {
         executor.execute(() -> {
             try {
                 List<Long> itemIds = new ArrayList<>();
@@ -154,6 +245,7 @@ public class RecycleViewModel extends AndroidViewModel {
                     databaseManager.deleteRecycleItemsByIds(recycleIds);
                 }
                 int result = databaseManager.deleteItemsByIds(itemIds);
+                imageStore.collectGarbage();
                 deleteSuccess.postValue(result > 0);
             } catch (Exception e) {
                 Log.e(TAG, "批量彻底删除物品失败：", e);
@@ -184,11 +276,4 @@ public class RecycleViewModel extends AndroidViewModel {
             executor.shutdown();
         }
     }
-
-    /**
-     * 获取已删除物品的LiveData（兼容原有逻辑）
-     */
-    public LiveData<List<Item>> getDeletedItemsLive() {
-        return databaseManager.getDeletedItemsLive();
-    }
 }
\ No newline at end of file
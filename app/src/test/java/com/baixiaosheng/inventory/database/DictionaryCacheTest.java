@@ -0,0 +1,97 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.baixiaosheng.inventory.database.entity.Category;
+import com.baixiaosheng.inventory.database.entity.Location;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * 字典快照单元测试：同名位置的重复判断，以及增量合并与整表构建结果一致
+ */
+public class DictionaryCacheTest {
+
+    @Test
+    public void locations_duplicateNames_keepEveryId() {
+        DictionaryCache.Locations locations = new DictionaryCache.Locations(Arrays.asList(
+                location(3, "阳台", 300), location(2, " 冰箱 ", 200), location(1, "冰箱", 100)));
+
+        // 两个位置同名：编辑其中任一个都应判为重复
+        assertTrue(locations.isNameDuplicate("冰箱", 1));
+        assertTrue(locations.isNameDuplicate("冰箱", 2));
+        assertTrue(locations.isNameDuplicate("冰箱", 0));
+        assertFalse(locations.isNameDuplicate("阳台", 3));
+        assertFalse(locations.isNameDuplicate("  ", 0));
+        // 按getAllLocations的顺序（createTime降序）取第一个
+        assertEquals(2, locations.getId("冰箱"));
+        assertEquals(0, locations.getId("储物间"));
+    }
+
+    @Test
+    public void locations_merge_equalsRebuiltSnapshot() {
+        DictionaryCache.Locations base = new DictionaryCache.Locations(Arrays.asList(
+                location(3, "阳台", 300), location(2, "冰箱", 200), location(1, "厨房", 100)));
+
+        // 修改2、新增4、删除1
+        List<Location> changed = Arrays.asList(location(2, "冷藏室", 200), location(4, "储物间", 400));
+        DictionaryCache.Locations merged = base.merge(changed, new HashSet<>(Arrays.asList(2L, 3L, 4L)));
+
+        assertEquals(Arrays.asList("储物间", "阳台", "冷藏室"), locationNames(merged.getAll()));
+        assertEquals(2, merged.getId("冷藏室"));
+        assertEquals(0, merged.getId("冰箱"));
+        assertNull(merged.get(1));
+        // 原快照不变
+        assertEquals(Arrays.asList("阳台", "冰箱", "厨房"), locationNames(base.getAll()));
+    }
+
+    @Test
+    public void categories_merge_equalsRebuiltSnapshot() {
+        DictionaryCache.Categories base = new DictionaryCache.Categories(Arrays.asList(
+                category(1, 0, "食品", 100), category(2, 1, "饮料", 200)));
+
+        DictionaryCache.Categories merged = base.merge(
+                Collections.singletonList(category(3, 1, "零食", 300)), null);
+
+        assertEquals(Arrays.asList("食品", "零食", "饮料"), categoryNames(merged.getAll()));
+        assertEquals(Arrays.asList("零食", "饮料"), categoryNames(merged.getChildren(1)));
+        assertEquals(3, merged.getId(1, "零食"));
+    }
+
+    private static Location location(long id, String name, long time) {
+        Location location = new Location(name, "", time, time);
+        location.setId(id);
+        return location;
+    }
+
+    private static Category category(long id, long parentId, String name, long time) {
+        Category category = new Category(parentId, name, time, time);
+        category.setId(id);
+        return category;
+    }
+
+    private static List<String> locationNames(List<Location> locations) {
+        List<String> names = new ArrayList<>();
+        for (Location location : locations) {
+            names.add(location.getName());
+        }
+        return names;
+    }
+
+    private static List<String> categoryNames(List<Category> categories) {
+        List<String> names = new ArrayList<>();
+        for (Category category : categories) {
+            names.add(category.getCategoryName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,261 @@
+package com.baixiaosheng.inventory.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteProgram;
+
+import com.baixiaosheng.inventory.model.FilterCondition;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * ItemQueryBuilder单元测试：校验生成的SQL和绑定参数
+ */
+public class ItemQueryBuilderTest {
+
+    private static final String KEYWORD = "牛奶";
+    private static final String PARENT = "食品";
+    private static final String CHILD = "饮料";
+    private static final String LOCATION = "冰箱";
+    private static final int QTY_MIN = 1;
+    private static final int QTY_MAX = 10;
+    private static final long EXPIRE_START = 1700000000000L;
+    private static final long EXPIRE_END = 1800000000000L;
+    // 两字关键词只有一个二元组
+    private static final String KEYWORD_PREDICATE =
+            "i.id IN (SELECT itemId FROM item_ngram WHERE gram = ?) AND i.name LIKE ?";
+
+    @Test
+    public void defaultFilter_onlyFiltersDeleted() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsWithNameQuery(new FilterCondition());
+        assertEquals(ItemQueryBuilder.SELECT_ITEM_WITH_NAME + " WHERE i.isDeleted = 0", query.getSql());
+        assertEquals(0, query.getArgCount());
+        assertFalse(query.getSql().contains("IS NULL"));
+    }
+
+    @Test
+    public void allFilters_emitsPredicatesInOrder() {
+        FilterCondition filter = new FilterCondition(" " + KEYWORD + " ", PARENT, CHILD, LOCATION,
+                QTY_MIN, QTY_MAX, new Date(EXPIRE_START), new Date(EXPIRE_END));
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsWithNameQuery(filter);
+
+        assertEquals(ItemQueryBuilder.SELECT_ITEM_WITH_NAME + " WHERE i.isDeleted = 0"
+                + " AND " + KEYWORD_PREDICATE
+                + " AND i.parentCategoryId IN (SELECT id FROM category WHERE categoryName = ?)"
+                + " AND i.childCategoryId IN (SELECT id FROM category WHERE categoryName = ?)"
+                + " AND i.locationId IN (SELECT id FROM location WHERE name = ?)"
+                + " AND i.count >= ? AND i.count <= ?"
+                + " AND i.validTime >= ? AND i.validTime <= ?", query.getSql());
+        assertEquals(Arrays.<Object>asList(KEYWORD, "%" + KEYWORD + "%", PARENT, CHILD, LOCATION,
+                (long) QTY_MIN, (long) QTY_MAX, EXPIRE_START, EXPIRE_END), bind(query));
+    }
+
+    @Test
+    public void everyCombination_bindsOnlySetFilters() {
+        // 8个可选条件，逐一遍历所有组合
+        for (int mask = 0; mask < (1 << 8); mask++) {
+            FilterCondition filter = new FilterCondition();
+            List<Object> expectedArgs = new ArrayList<>();
+            List<String> expectedPredicates = new ArrayList<>();
+            if ((mask & 1) != 0) {
+                filter.setSearchKeyword(KEYWORD);
+                expectedPredicates.add(KEYWORD_PREDICATE);
+                expectedArgs.add(KEYWORD);
+                expectedArgs.add("%" + KEYWORD + "%");
+            }
+            if ((mask & 2) != 0) {
+                filter.setParentCategory(PARENT);
+                expectedPredicates.add("i.parentCategoryId IN (SELECT id FROM category WHERE categoryName = ?)");
+                expectedArgs.add(PARENT);
+            }
+            if ((mask & 4) != 0) {
+                filter.setChildCategory(CHILD);
+                expectedPredicates.add("i.childCategoryId IN (SELECT id FROM category WHERE categoryName = ?)");
+                expectedArgs.add(CHILD);
+            }
+            if ((mask & 8) != 0) {
+                filter.setLocation(LOCATION);
+                expectedPredicates.add("i.locationId IN (SELECT id FROM location WHERE name = ?)");
+                expectedArgs.add(LOCATION);
+            }
+            if ((mask & 16) != 0) {
+                filter.setQuantityMin(QTY_MIN);
+                expectedPredicates.add("i.count >= ?");
+                expectedArgs.add((long) QTY_MIN);
+            }
+            if ((mask & 32) != 0) {
+                filter.setQuantityMax(QTY_MAX);
+                expectedPredicates.add("i.count <= ?");
+                expectedArgs.add((long) QTY_MAX);
+            }
+            if ((mask & 64) != 0) {
+                filter.setExpireStart(new Date(EXPIRE_START));
+                expectedPredicates.add("i.validTime >= ?");
+                expectedArgs.add(EXPIRE_START);
+            }
+            if ((mask & 128) != 0) {
+                filter.setExpireEnd(new Date(EXPIRE_END));
+                expectedPredicates.add("i.validTime <= ?");
+                expectedArgs.add(EXPIRE_END);
+            }
+
+            StringBuilder expectedSql = new StringBuilder(ItemQueryBuilder.SELECT_ITEM_WITH_NAME)
+                    .append(" WHERE i.isDeleted = 0");
+            for (String predicate : expectedPredicates) {
+                expectedSql.append(" AND ").append(predicate);
+            }
+
+            SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsWithNameQuery(filter);
+            assertEquals("mask=" + mask, expectedSql.toString(), query.getSql());
+            assertEquals("mask=" + mask, expectedArgs, bind(query));
+        }
+    }
+
+    @Test
+    public void conditionQuery_singleIdUsesEquality_multipleIdsUseIn() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsByConditionQuery(null,
+                Arrays.asList(3L), Arrays.asList(4L, 5L), null, null, null, null, null);
+        assertEquals(ItemQueryBuilder.SELECT_ITEM + " WHERE i.isDeleted = 0"
+                + " AND i.parentCategoryId = ?"
+                + " AND i.childCategoryId IN (?, ?)", query.getSql());
+        assertEquals(Arrays.<Object>asList(3L, 4L, 5L), bind(query));
+    }
+
+    @Test
+    public void blankKeyword_isIgnored() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsByConditionQuery("  ",
+                null, new ArrayList<>(), null, null, null, null, null);
+        assertTrue(query.getSql().endsWith("WHERE i.isDeleted = 0"));
+        assertEquals(0, query.getArgCount());
+    }
+
+    @Test
+    public void longKeyword_intersectsTrigramPostingLists() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsByConditionQuery("洗漱用品",
+                null, null, null, null, null, null, null);
+        assertEquals(ItemQueryBuilder.SELECT_ITEM + " WHERE i.isDeleted = 0"
+                + " AND i.id IN (SELECT itemId FROM item_ngram WHERE gram IN (?, ?)"
+                + " GROUP BY itemId HAVING COUNT(*) = ?)"
+                + " AND i.name LIKE ?", query.getSql());
+        assertEquals(Arrays.<Object>asList("洗漱用", "漱用品", 2L, "%洗漱用品%"), bind(query));
+    }
+
+    @Test
+    public void singleCharKeyword_usesLikeOnly() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsByConditionQuery("奶",
+                null, null, null, null, null, null, null);
+        assertEquals(ItemQueryBuilder.SELECT_ITEM + " WHERE i.isDeleted = 0 AND i.name LIKE ?", query.getSql());
+        assertEquals(Arrays.<Object>asList("%奶%"), bind(query));
+    }
+
+    @Test
+    public void letterKeyword_addsPinyinPrefixRanges() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsByConditionQuery(" XSYP ",
+                null, null, null, null, null, null, null);
+        assertEquals(ItemQueryBuilder.SELECT_ITEM + " WHERE i.isDeleted = 0"
+                + " AND ((i.namePinyin >= ? AND i.namePinyin < ?)"
+                + " OR (i.nameInitials >= ? AND i.nameInitials < ?)"
+                + " OR (i.id IN (SELECT itemId FROM item_ngram WHERE gram IN (?, ?)"
+                + " GROUP BY itemId HAVING COUNT(*) = ?) AND i.name LIKE ?))", query.getSql());
+        assertEquals(Arrays.<Object>asList("xsyp", "xsyq", "xsyp", "xsyq",
+                "xsy", "syp", 2L, "%XSYP%"), bind(query));
+    }
+
+    @Test
+    public void firstPage_hasNoCursorPredicate() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsWithNamePageQuery(new FilterCondition(), null, null, 50);
+        assertEquals(ItemQueryBuilder.SELECT_ITEM_WITH_NAME + " WHERE i.isDeleted = 0"
+                + " ORDER BY i.validTime ASC, i.id ASC LIMIT ?", query.getSql());
+        assertEquals(Arrays.<Object>asList(50L), bind(query));
+    }
+
+    @Test
+    public void nextPage_boundsValidTimeBeforeTieBreak() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsWithNamePageQuery(new FilterCondition(),
+                EXPIRE_START, 7L, 50);
+        assertEquals(ItemQueryBuilder.SELECT_ITEM_WITH_NAME + " WHERE i.isDeleted = 0"
+                + " AND i.validTime >= ? AND (i.validTime > ? OR i.id > ?)"
+                + " ORDER BY i.validTime ASC, i.id ASC LIMIT ?", query.getSql());
+        assertEquals(Arrays.<Object>asList(EXPIRE_START, EXPIRE_START, 7L, 50L), bind(query));
+    }
+
+    @Test
+    public void nextPage_cursorFollowsFilters() {
+        FilterCondition filter = new FilterCondition();
+        filter.setLocation(LOCATION);
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsWithNamePageQuery(filter, EXPIRE_END, 3L, 20);
+        assertTrue(query.getSql().endsWith(" AND i.locationId IN (SELECT id FROM location WHERE name = ?)"
+                + " AND i.validTime >= ? AND (i.validTime > ? OR i.id > ?)"
+                + " ORDER BY i.validTime ASC, i.id ASC LIMIT ?"));
+        assertEquals(Arrays.<Object>asList(LOCATION, EXPIRE_END, EXPIRE_END, 3L, 20L), bind(query));
+    }
+
+    @Test
+    public void upToQuery_includesCursorRowWithoutLimit() {
+        SimpleSQLiteQuery query = ItemQueryBuilder.buildItemsWithNameUpToQuery(new FilterCondition(), EXPIRE_END, 3L);
+        assertEquals(ItemQueryBuilder.SELECT_ITEM_WITH_NAME + " WHERE i.isDeleted = 0"
+                + " AND i.validTime <= ? AND (i.validTime < ? OR i.id <= ?)"
+                + " ORDER BY i.validTime ASC, i.id ASC", query.getSql());
+        assertEquals(Arrays.<Object>asList(EXPIRE_END, EXPIRE_END, 3L), bind(query));
+    }
+
+    // 通过SupportSQLiteProgram记录实际绑定的参数
+    private static List<Object> bind(SimpleSQLiteQuery query) {
+        RecordingProgram program = new RecordingProgram();
+        query.bindTo(program);
+        return program.args;
+    }
+
+    private static class RecordingProgram implements SupportSQLiteProgram {
+        final List<Object> args = new ArrayList<>();
+
+        private void set(int index, Object value) {
+            while (args.size() < index) {
+                args.add(null);
+            }
+            args.set(index - 1, value);
+        }
+
+        @Override
+        public void bindNull(int index) {
+            set(index, null);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            set(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            set(index, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            set(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            set(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            args.clear();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
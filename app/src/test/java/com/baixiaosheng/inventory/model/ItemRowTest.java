@@ -0,0 +1,151 @@
+package com.baixiaosheng.inventory.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 列表行展示模型单元测试：文案规则、行复用，以及绑定阶段的内存分配
+ */
+public class ItemRowTest {
+
+    private static final long VALID_TIME = 1700000000000L;
+
+    @Test
+    public void labels_followDisplayRules() {
+        List<ItemRow> rows = new ItemRow.Factory().toRows(Arrays.asList(
+                row("未分类", 0, 0, 0, null, null, null, 0, ""),
+                row("仅父分类", 1, 0, 2, "食品", null, "冰箱", VALID_TIME, "说明"),
+                row("父子分类", 1, 3, 0, "食品", "饮料", null, 0, null),
+                row("名称缺失", 1, 3, 4, "", null, null, 0, null)));
+
+        assertEquals("未设置", rows.get(0).getCategoryLabel());
+        assertEquals("未设置", rows.get(0).getLocationLabel());
+        assertEquals("无", rows.get(0).getExpireText());
+        assertFalse(rows.get(0).hasRemark());
+
+        assertEquals("食品", rows.get(1).getCategoryLabel());
+        assertEquals("冰箱", rows.get(1).getLocationLabel());
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd", Locale.CHINA).format(VALID_TIME), rows.get(1).getExpireText());
+        assertTrue(rows.get(1).hasRemark());
+
+        assertEquals("食品/饮料", rows.get(2).getCategoryLabel());
+        assertNull(rows.get(2).getRemark());
+
+        assertEquals("1/3", rows.get(3).getCategoryLabel());
+        assertEquals("4", rows.get(3).getLocationLabel());
+    }
+
+    @Test
+    public void factory_reusesRowsForSameSourceObjects() {
+        ItemRow.Factory factory = new ItemRow.Factory();
+        List<ItemWithName> firstPage = buildList(0, 20);
+        List<ItemRow> first = factory.toRows(firstPage);
+
+        // 追加一页：已有对象复用原行，只为新对象生成
+        List<ItemWithName> appended = new ArrayList<>(firstPage);
+        appended.addAll(buildList(20, 20));
+        List<ItemRow> second = factory.toRows(appended);
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+        }
+
+        // 重新查询得到的新对象生成新行，但展示内容一致
+        List<ItemRow> requeried = factory.toRows(buildList(0, 20));
+        assertTrue(requeried.get(5) != first.get(5));
+        assertTrue(requeried.get(5).sameContent(first.get(5)));
+    }
+
+    @Test
+    public void sources_viewsOriginalResults() {
+        List<ItemWithName> items = buildList(0, 3);
+        List<ItemWithName> sources = ItemRow.sources(new ItemRow.Factory().toRows(items));
+        assertEquals(items, sources);
+    }
+
+    @Test
+    public void bindingFromRows_allocatesNothing() {
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        assumeTrue(threadBean != null && threadBean.isThreadAllocatedMemoryEnabled());
+        List<ItemRow> rows = new ItemRow.Factory().toRows(buildList(0, 200));
+        TextSink sink = new TextSink();
+        // 预热，排除类加载与JIT的分配
+        for (int i = 0; i < 20000; i++) {
+            bind(rows.get(i % rows.size()), sink);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10000; i++) {
+            bind(rows.get(i % rows.size()), sink);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        // 允许计数接口本身的少量分配，远小于每次绑定分配一个对象
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+        assertTrue(sink.length > 0);
+    }
+
+    // 模拟onBindViewHolder：读取行模型的全部展示字段
+    private static void bind(ItemRow row, TextSink sink) {
+        sink.setText(row.getName());
+        sink.setText(row.getCategoryLabel());
+        sink.setText(row.getLocationLabel());
+        sink.setText(row.getQuantityText());
+        sink.setText(row.getExpireText());
+        if (row.hasRemark()) {
+            sink.setText(row.getRemark());
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    private static List<ItemWithName> buildList(int from, int count) {
+        List<ItemWithName> list = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            list.add(row("物品" + i, 1, 3, 2, "食品", "饮料", "冰箱", VALID_TIME + i, i % 2 == 0 ? "备注" : ""));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private static ItemWithName row(String name, long parentId, long childId, long locationId,
+                                    String parentName, String childName, String locationName,
+                                    long validTime, String remark) {
+        Item item = new Item(name, parentId, childId, locationId, validTime, 1, remark, 0, 0);
+        item.setUuid(name);
+        ItemWithName itemWithName = new ItemWithName();
+        itemWithName.item = item;
+        itemWithName.parentCategoryName = parentName;
+        itemWithName.categoryName = childName;
+        itemWithName.locationName = locationName;
+        return itemWithName;
+    }
+
+    // 代替TextView.setText：只记录长度，不持有文本
+    private static final class TextSink {
+        int length;
+
+        void setText(CharSequence text) {
+            length += text == null ? 0 : text.length();
+        }
+    }
+}
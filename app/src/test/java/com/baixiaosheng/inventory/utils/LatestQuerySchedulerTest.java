@@ -0,0 +1,160 @@
+package com.baixiaosheng.inventory.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LatestQueryScheduler单元测试：防抖、只取最新、取消，以及结果源的观察者数量保持不变
+ */
+public class LatestQuerySchedulerTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    // 与QueryViewModel相同的接法：唯一的结果LiveData，只在ticket有效时发布
+    private final CountingLiveData<String> results = new CountingLiveData<>();
+    private final List<String> runQueries = new CopyOnWriteArrayList<>();
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch nextResultLatch;
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void burstOfKeystrokes_runsOnlyLatestQuery_andKeepsOneObserver() throws Exception {
+        LatestQueryScheduler<String> scheduler = newScheduler(100);
+        String typed = "abcdefghij";
+
+        for (int round = 1; round <= 3; round++) {
+            CountDownLatch done = observeNextResult();
+            for (int i = 1; i <= typed.length(); i++) {
+                scheduler.submit(round + typed.substring(0, i));
+            }
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            assertEquals(1, results.getObserverCount());
+        }
+
+        assertEquals(Arrays.asList("1" + typed, "2" + typed, "3" + typed), runQueries);
+        assertEquals(Arrays.asList("result:1" + typed, "result:2" + typed, "result:3" + typed), delivered);
+    }
+
+    @Test
+    public void supersededInFlightQuery_resultIsDropped() throws Exception {
+        CountDownLatch oldStarted = new CountDownLatch(1);
+        CountDownLatch releaseOld = new CountDownLatch(1);
+        LatestQueryScheduler<String> scheduler = new LatestQueryScheduler<>(executor, 0, (query, ticket) -> {
+            runQueries.add(query);
+            if ("old".equals(query)) {
+                oldStarted.countDown();
+                await(releaseOld);
+            }
+            if (ticket.isCurrent()) {
+                results.postValue("result:" + query);
+            }
+        });
+        CountDownLatch done = observeNextResult();
+
+        scheduler.submitNow("old");
+        assertTrue(oldStarted.await(2, TimeUnit.SECONDS));
+        scheduler.submitNow("new");
+        releaseOld.countDown();
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("old", "new"), runQueries);
+        assertEquals(Collections.singletonList("result:new"), delivered);
+        assertEquals(1, results.getObserverCount());
+    }
+
+    @Test
+    public void cancel_dropsPendingQuery() throws Exception {
+        LatestQueryScheduler<String> scheduler = newScheduler(50);
+
+        scheduler.submit("x");
+        scheduler.cancel();
+        Thread.sleep(200);
+
+        assertTrue(runQueries.isEmpty());
+        assertTrue(delivered.isEmpty());
+    }
+
+    private LatestQueryScheduler<String> newScheduler(long debounceMillis) {
+        return new LatestQueryScheduler<>(executor, debounceMillis, (query, ticket) -> {
+            runQueries.add(query);
+            if (ticket.isCurrent()) {
+                results.postValue("result:" + query);
+            }
+        });
+    }
+
+    // 首次调用时注册唯一的观察者，返回等待下一次结果的latch
+    private CountDownLatch observeNextResult() {
+        CountDownLatch latch = new CountDownLatch(1);
+        nextResultLatch = latch;
+        if (results.getObserverCount() == 0) {
+            results.observeForever(value -> {
+                delivered.add(value);
+                nextResultLatch.countDown();
+            });
+        }
+        return latch;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 记录当前注册的观察者数量
+    private static class CountingLiveData<T> extends MutableLiveData<T> {
+        private final Set<Observer<? super T>> observers = Collections.synchronizedSet(new HashSet<>());
+
+        @Override
+        public void observe(@NonNull LifecycleOwner owner, @NonNull Observer<? super T> observer) {
+            observers.add(observer);
+            super.observe(owner, observer);
+        }
+
+        @Override
+        public void observeForever(@NonNull Observer<? super T> observer) {
+            observers.add(observer);
+            super.observeForever(observer);
+        }
+
+        @Override
+        public void removeObserver(@NonNull Observer<? super T> observer) {
+            observers.remove(observer);
+            super.removeObserver(observer);
+        }
+
+        int getObserverCount() {
+            return observers.size();
+        }
+    }
+}
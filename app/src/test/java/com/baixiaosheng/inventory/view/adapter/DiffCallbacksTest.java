@@ -0,0 +1,177 @@
+package com.baixiaosheng.inventory.view.adapter;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 差分回调单元测试：重新查询得到的新对象只会为实际变化的行产生通知
+ */
+public class DiffCallbacksTest {
+
+    private static final int SIZE = 50;
+
+    @Test
+    public void singleRowChange_dispatchesExactlyOneChange() {
+        List<ItemWithName> oldList = buildList();
+        List<ItemWithName> newList = requery(oldList);
+        newList.get(17).item.setCount(newList.get(17).item.getCount() + 1);
+
+        CountingCallback callback = diff(oldList, newList);
+
+        assertEquals(1, callback.changeEvents);
+        assertEquals(1, callback.changedRows);
+        assertEquals(17, callback.lastChangedPosition);
+        assertEquals(0, callback.insertEvents + callback.removeEvents + callback.moveEvents);
+    }
+
+    @Test
+    public void requeryWithoutChange_dispatchesNothing() {
+        List<ItemWithName> oldList = buildList();
+
+        CountingCallback callback = diff(oldList, requery(oldList));
+
+        assertEquals(0, callback.changeEvents + callback.insertEvents + callback.removeEvents + callback.moveEvents);
+    }
+
+    @Test
+    public void nameOnlyJoinChange_isDetected() {
+        List<ItemWithName> oldList = buildList();
+        List<ItemWithName> newList = requery(oldList);
+        newList.get(3).locationName = "柜子";
+
+        assertEquals(1, diff(oldList, newList).changedRows);
+    }
+
+    @Test
+    public void appendedPage_dispatchesSingleInsert() {
+        List<ItemWithName> oldList = buildList();
+        List<ItemWithName> newList = requery(oldList);
+        for (int i = SIZE; i < SIZE + 20; i++) {
+            newList.add(newItem(i));
+        }
+
+        CountingCallback callback = diff(oldList, newList);
+
+        assertEquals(1, callback.insertEvents);
+        assertEquals(0, callback.changeEvents + callback.removeEvents + callback.moveEvents);
+    }
+
+    @Test
+    public void removedRow_dispatchesSingleRemove() {
+        List<ItemWithName> oldList = buildList();
+        List<ItemWithName> newList = requery(oldList);
+        newList.remove(8);
+
+        CountingCallback callback = diff(oldList, newList);
+
+        assertEquals(1, callback.removeEvents);
+        assertEquals(0, callback.changeEvents + callback.insertEvents + callback.moveEvents);
+    }
+
+    private static CountingCallback diff(List<ItemWithName> oldList, List<ItemWithName> newList) {
+        DiffUtil.ItemCallback<ItemWithName> itemCallback = DiffCallbacks.ITEM_WITH_NAME;
+        CountingCallback callback = new CountingCallback();
+        DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldList.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newList.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return itemCallback.areItemsTheSame(oldList.get(oldPosition), newList.get(newPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return itemCallback.areContentsTheSame(oldList.get(oldPosition), newList.get(newPosition));
+            }
+        }).dispatchUpdatesTo(callback);
+        return callback;
+    }
+
+    private static List<ItemWithName> buildList() {
+        List<ItemWithName> list = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            list.add(newItem(i));
+        }
+        return list;
+    }
+
+    private static ItemWithName newItem(int index) {
+        Item item = new Item("物品" + index, 1, 2, 3, 1700000000000L + index, index % 5, "备注" + index, 0, 0);
+        item.setId(index + 1);
+        ItemWithName row = new ItemWithName();
+        row.item = item;
+        row.parentCategoryName = "食品";
+        row.categoryName = "饮料";
+        row.locationName = "冰箱";
+        return row;
+    }
+
+    // 模拟重新查询：同一批物品，全新的对象
+    private static List<ItemWithName> requery(List<ItemWithName> list) {
+        List<ItemWithName> copy = new ArrayList<>();
+        for (ItemWithName source : list) {
+            Item item = new Item(source.item.getName(), source.item.getParentCategoryId(),
+                    source.item.getChildCategoryId(), source.item.getLocationId(), source.item.getValidTime(),
+                    source.item.getCount(), source.item.getRemark(), 0, 0);
+            item.setId(source.item.getId());
+            item.setUuid(source.item.getUuid());
+            ItemWithName row = new ItemWithName();
+            row.item = item;
+            row.parentCategoryName = source.parentCategoryName;
+            row.categoryName = source.categoryName;
+            row.locationName = source.locationName;
+            copy.add(row);
+        }
+        return copy;
+    }
+
+    private static class CountingCallback implements ListUpdateCallback {
+        int insertEvents;
+        int removeEvents;
+        int moveEvents;
+        int changeEvents;
+        int changedRows;
+        int lastChangedPosition = -1;
+
+        @Override
+        public void onInserted(int position, int count) {
+            insertEvents++;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removeEvents++;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            moveEvents++;
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            changeEvents++;
+            changedRows += count;
+            lastChangedPosition = position;
+        }
+    }
+}
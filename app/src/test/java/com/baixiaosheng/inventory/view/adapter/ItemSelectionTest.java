@@ -0,0 +1,118 @@
+package com.baixiaosheng.inventory.view.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.baixiaosheng.inventory.database.entity.Item;
+import com.baixiaosheng.inventory.database.entity.ItemWithName;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 多选状态单元测试：单行切换、全选/反选与选中项快照
+ */
+public class ItemSelectionTest {
+
+    @Test
+    public void toggleRows_countAndSnapshotFollowListOrder() {
+        List<ItemWithName> items = buildList(10);
+        ItemSelection selection = new ItemSelection();
+
+        assertTrue(selection.setSelected(uuid(items, 7), true));
+        assertTrue(selection.setSelected(uuid(items, 2), true));
+        assertFalse(selection.setSelected(uuid(items, 2), true));
+
+        assertEquals(2, selection.count(items.size()));
+        assertEquals(Arrays.asList(2, 7), indexes(items, selection.snapshot(items)));
+    }
+
+    @Test
+    public void selectAll_thenDeselectOne() {
+        List<ItemWithName> items = buildList(10000);
+        ItemSelection selection = new ItemSelection();
+
+        selection.selectAll();
+        selection.setSelected(uuid(items, 42), false);
+
+        assertEquals(9999, selection.count(items.size()));
+        assertFalse(selection.isSelected(uuid(items, 42)));
+        assertTrue(selection.isSelected(uuid(items, 43)));
+        Collection<ItemWithName> snapshot = selection.snapshot(items);
+        assertEquals(9999, snapshot.size());
+        int iterated = 0;
+        for (ItemWithName ignored : snapshot) {
+            iterated++;
+        }
+        assertEquals(9999, iterated);
+    }
+
+    @Test
+    public void invert_swapsSelectedAndUnselected() {
+        List<ItemWithName> items = buildList(5);
+        ItemSelection selection = new ItemSelection();
+        selection.setSelected(uuid(items, 0), true);
+        selection.setSelected(uuid(items, 3), true);
+
+        selection.invert();
+
+        assertEquals(3, selection.count(items.size()));
+        assertEquals(Arrays.asList(1, 2, 4), indexes(items, selection.snapshot(items)));
+
+        selection.invert();
+        assertEquals(Arrays.asList(0, 3), indexes(items, selection.snapshot(items)));
+    }
+
+    @Test
+    public void selectAll_includesAppendedPage() {
+        List<ItemWithName> items = buildList(20);
+        ItemSelection selection = new ItemSelection();
+        selection.selectAll();
+
+        List<ItemWithName> appended = new ArrayList<>(items);
+        appended.addAll(buildList(10));
+
+        assertEquals(30, selection.count(appended.size()));
+    }
+
+    @Test
+    public void snapshot_isNotAffectedByLaterChanges() {
+        List<ItemWithName> items = buildList(5);
+        ItemSelection selection = new ItemSelection();
+        selection.setSelected(uuid(items, 1), true);
+
+        Collection<ItemWithName> snapshot = selection.snapshot(items);
+        selection.clear();
+
+        assertEquals(0, selection.count(items.size()));
+        assertEquals(1, snapshot.size());
+        assertEquals(Arrays.asList(1), indexes(items, snapshot));
+    }
+
+    private static List<ItemWithName> buildList(int size) {
+        List<ItemWithName> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ItemWithName row = new ItemWithName();
+            row.item = new Item("物品" + i, 0, 0, 0, 0, 1, "", 0, 0);
+            list.add(row);
+        }
+        return list;
+    }
+
+    private static String uuid(List<ItemWithName> items, int index) {
+        return items.get(index).item.getUuid();
+    }
+
+    private static List<Integer> indexes(List<ItemWithName> items, Collection<ItemWithName> selected) {
+        List<Integer> indexes = new ArrayList<>();
+        for (ItemWithName itemWithName : selected) {
+            indexes.add(items.indexOf(itemWithName));
+        }
+        return indexes;
+    }
+}